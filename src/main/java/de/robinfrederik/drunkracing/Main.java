@@ -1,11 +1,36 @@
 package de.robinfrederik.drunkracing;
 
 // here we import the core project classes
+import de.robinfrederik.drunkracing.ai.AiField;
+import de.robinfrederik.drunkracing.ai.RacingLine;
 import de.robinfrederik.drunkracing.physics.ackermann.AckermannModel;
 import de.robinfrederik.drunkracing.car.CarVisual;
+import de.robinfrederik.drunkracing.car.GhostVisual;
 import de.robinfrederik.drunkracing.mvp.CarVisualTest;
 import de.robinfrederik.drunkracing.physics.PhysicsLoop;
 import de.robinfrederik.drunkracing.physics.ackermann.CarGoKartSportModel;
+import de.robinfrederik.drunkracing.physics.ackermann.KartSleep;
+import de.robinfrederik.drunkracing.physics.ackermann.formulae.SurfaceGripMap;
+import de.robinfrederik.drunkracing.physics.collision.detection.CollisionDetection;
+import de.robinfrederik.drunkracing.physics.collision.map.TiledTrack;
+import de.robinfrederik.drunkracing.physics.collision.response.CollisionResponse;
+import de.robinfrederik.drunkracing.physics.collision.response.KartContact;
+import de.robinfrederik.drunkracing.physics.ackermann.formulae.IntegrationSemiImplicit;
+import de.robinfrederik.drunkracing.render.FrameStats;
+import de.robinfrederik.drunkracing.render.ImageMapLayer;
+import de.robinfrederik.drunkracing.render.KartBatchRenderer;
+import de.robinfrederik.drunkracing.render.Minimap;
+import de.robinfrederik.drunkracing.render.ProfilerOverlay;
+import de.robinfrederik.drunkracing.render.TiledMapLayer;
+import de.robinfrederik.drunkracing.render.ViewportRenderer;
+import de.robinfrederik.drunkracing.track.CachedTileSource;
+import de.robinfrederik.drunkracing.track.CenterlineExtractor;
+import de.robinfrederik.drunkracing.track.GhostLap;
+import de.robinfrederik.drunkracing.track.GhostRecorder;
+import de.robinfrederik.drunkracing.track.ImageRegionTileSource;
+import de.robinfrederik.drunkracing.track.ProgressField;
+import de.robinfrederik.drunkracing.track.RaceTracker;
+import de.robinfrederik.drunkracing.track.TileSource;
 
 // now we import all the necessary JavaFX libaries, we'll shortly comment their usage for our project in the following
 import javafx.animation.AnimationTimer; // For creating game loop with high frequency (we aim at ca 60 fps)
@@ -13,7 +38,6 @@ import javafx.application.Application; // Base class for any JavaFX application
 import javafx.geometry.Pos; // For alignment (e.g. in VBox/StackPane)
 import javafx.scene.Scene; // Main container for UI content
 import javafx.scene.Group; // A container for visual nodes
-import javafx.scene.canvas.Canvas; // Used to draw maps with tiles
 import javafx.scene.canvas.GraphicsContext; // Graphics context for drawing on Canvas
 import javafx.scene.control.Label; // For UI labels
 import javafx.scene.effect.DropShadow; // Drop shadow visual effect
@@ -34,6 +58,8 @@ import javafx.scene.control.Slider; // Slider component for settings
 // here are some more imports for other important JavaFX + Java utility
 import java.util.Map; // Interface for key-value data structures
 import java.util.HashMap; // Implementation of Map
+import java.util.concurrent.CompletableFuture; // background work that hands its result to the FX thread
+import java.nio.file.Path; // file the Racetrack centerline is cached in
 import javafx.scene.image.PixelReader; // Allows reading individual pixels from an image
 import javafx.application.Platform; // Allows running tasks on JavaFX application thread
 import javafx.animation.KeyFrame; // Represents a single keyframe in a Timeline
@@ -51,8 +77,11 @@ public class Main extends Application {
 
     // here we have the main containers and components
     private Pane root; // Root container for the game scene
-    private Group world; // Group that contains all game elements (car, map, etc.)
-    private Canvas mapCanvas; // Canvas to draw test map with tiles (the test map or testground isn't visible anymroe in the main game -> only for test purposes)
+    private Group world; // Group that contains all game elements that move with the world (the car)
+    private ViewportRenderer mapRenderer; // screen sized canvas, the visible part of the map gets drawn into it every frame
+    private KartBatchRenderer opponentRenderer; // the AI karts, all in one canvas between the map and the car
+    private Group viewport; // map canvas + AI karts + world, the drunk effects go on this one
+    private final FrameStats frameStats = new FrameStats(600); // frame times of the last 10 s, shown in the F3 profiler when a race ends
     private Label hudLabel; // Label to show HUD text in game
 
     // physics
@@ -82,14 +111,33 @@ public class Main extends Application {
     // UI (Interface-design)
     private Label countdownLabel; // Label used to show countdown numbers (3,2,1,GO)
     private Label timeLabel; // Label used to show race time
+    private final StringBuilder timeText = new StringBuilder(); // reused every frame for the time label
+    private ProfilerOverlay profiler; // FPS, physics and GC numbers, toggled with F3
+    private Minimap minimap; // Racetrack from above in the corner, made from the collision tiles
     private boolean inputBlocked = false; // Used to block inputs before race begins
 
     // images for maps (2 and Racetrack / map3)
-    private ImageView map2View; // image-based map for Map 2
-    private ImageView map3View; // image-based map for Map 3, which is now called Racetrack (but it was called map 3 since it was our third map xD but we changed it in the code later in the process to "Racetrack" for the main game)
+    private ImageMapLayer map2Layer; // image-based map for Map 2
+    private TiledMapLayer map3Layer; // tiled map for Map 3, which is now called Racetrack (but it was called map 3 since it was our third map xD but we changed it in the code later in the process to "Racetrack" for the main game)
+    private TiledTrack racetrackTrack; // collision tiles of the Racetrack, from the same image and checked in the physics thread
+    private volatile RacingLine racetrackLine; // middle of the Racetrack, found in the background, null until it's done
+    private volatile ProgressField racetrackProgress; // how far along the Racetrack every place is, comes together with the line
+    private RaceTracker raceTracker; // laps and sectors of the current race, null if there is no progress field (yet)
+    private final StringBuilder hudText = new StringBuilder(); // reused for the sector times
+    private int hudSectors = -1; // what the HUD shows right now, so the label only changes when something happened
+    private boolean hudWrongWay = false;
+    private int hudPosition = 0;
+    private final GhostVisual ghost = new GhostVisual(); // best lap on this computer, see-through
+    private AiField opponents; // AI karts on the Racetrack centerline, stepped by the physics thread, null until the line is there
+    private final int opponentCount = 7; // the minimap has markers for 16 karts
+    private GhostRecorder ghostRecorder; // the current race, null if it isn't timed by the race tracker
+    private final double racetrackStartX = mapWidth / 2 + 120; // start line of the Racetrack
+    private final double racetrackStartY = mapHeight / 2 + 500;
+    private final int cachedTiles = 64; // tiles of 256 x 256 kept in memory for the shared pixels, the picture and collision each (16 MiB + 16 MiB + 4 MiB), no matter how big the map is
 
     // game state flags
     private boolean gameOverActive = false; // True if game over is triggered
+    private boolean bounceOffWalls = false; // if true the car bounces off the green instead of getting a game over (can be changed in settings)
 
     // JavaFX application entry point
     @Override
@@ -234,29 +282,27 @@ public class Main extends Application {
 
     // now the game scene
     private void setupGameScene() {
-        mapCanvas = new Canvas(mapWidth, mapHeight); // Create a blank canvas for manual map drawing (Test-Ground)
-
         // load map 2 (not important fpr the game)
         Image map2Image = new Image(getClass().getResource("/images/mapTest1.png").toExternalForm());
-        map2View = new ImageView(map2Image);
-        map2View.setPreserveRatio(false);
-        map2View.setFitWidth(mapWidth);
-        map2View.setFitHeight(mapHeight);
-
-        // load map 3 (Racetrack)
-        Image map3Image = new Image(getClass().getResource("/images/map3.png").toExternalForm()); // Load Map 3 (Racetrack) image
-        map3View = new ImageView(map3Image); // ImageView for Map 3
-        map3View.setPreserveRatio(false); // Do not preserve aspect ratio
-        map3View.setFitWidth(mapWidth); // Scale to canvas width
-        map3View.setFitHeight(mapHeight); // Scale to canvas height
-
-        world = new Group(); // Create a container for all world elements (map, car, etc.)
+        map2Layer = new ImageMapLayer(map2Image, mapWidth, mapHeight); // stretched over the whole world
+
+        // map 3 (Racetrack) is streamed in tiles, only the part around the car gets decoded
+        // the decoded pixels are shared by the picture, the collision tiles, the minimap and the centerline, every tile gets decoded once
+        TileSource map3Tiles = new CachedTileSource(new ImageRegionTileSource(getClass().getResource("/images/map3.png"), 256), cachedTiles); // only reads the size for now
+        map3Layer = new TiledMapLayer(map3Tiles, mapWidth, mapHeight, cachedTiles); // scaled to the size of the world
+        racetrackTrack = new TiledTrack(map3Tiles, mapWidth, mapHeight, cachedTiles, false); // green pixels become walls, never waits for a tile in the physics thread
+
+        world = new Group(); // Create a container for all world elements (car)
+        mapRenderer = new ViewportRenderer(800, 600, 100); // 100 px margin, the drunk waves move the screen up to 55 pixels
+        opponentRenderer = new KartBatchRenderer(800, 600);
+        opponentRenderer.setVisible(false); // only on the Racetrack
+        viewport = new Group(mapRenderer, opponentRenderer, world); // map below, AI karts, car on top
         hudLabel = new Label(); // HUD label to show info like lap, speed, etc.
         hudLabel.setStyle("-fx-font-family: monospace; -fx-font-size: 14px; -fx-text-fill: red; -fx-font-weight: bold;"); // Style HUD
         hudLabel.setTranslateX(10); // Position X
         hudLabel.setTranslateY(10); // Position Y
 
-        Pane layeredWorld = new Pane(world, hudLabel); // Overlay HUD on top of world
+        Pane layeredWorld = new Pane(viewport, hudLabel); // Overlay HUD on top of world
 
         countdownLabel = new Label(); // Label to display countdown (3, 2, 1, GO!)
         countdownLabel.setFont(Font.font("Arial", FontWeight.BOLD, 100)); // Set font and size
@@ -271,15 +317,37 @@ public class Main extends Application {
         timeLabel.setVisible(false); // Initially hidden
         StackPane.setAlignment(timeLabel, Pos.TOP_CENTER); // Position at top center
 
-        root = new StackPane(layeredWorld, countdownLabel, timeLabel); // Combine all into root stack
+        profiler = new ProfilerOverlay(physicsLoop); // hidden until F3 is pressed
+        StackPane.setAlignment(profiler, Pos.TOP_RIGHT);
+
+        minimap = new Minimap(new TiledTrack(map3Tiles, mapWidth, mapHeight, cachedTiles), mapWidth, mapHeight, 160, 16); // built in the background from an own copy that waits for its tiles, only the markers change later
+        minimap.setVisible(false); // only on the Racetrack
+        findRacetrackLine(map3Tiles);
+        StackPane.setAlignment(minimap, Pos.BOTTOM_LEFT);
+        StackPane.setMargin(minimap, new javafx.geometry.Insets(10));
+
+        root = new StackPane(layeredWorld, countdownLabel, timeLabel, profiler, minimap); // Combine all into root stack
 
         gameScene = new Scene(root, 800, 600); // Create the scene for gameplay
+        gameScene.widthProperty().addListener((obs, oldWidth, newWidth) -> {
+            mapRenderer.fitScreen(gameScene.getWidth(), gameScene.getHeight()); // keep the map canvas as big as the window
+            opponentRenderer.setWidth(gameScene.getWidth());
+        });
+        gameScene.heightProperty().addListener((obs, oldHeight, newHeight) -> {
+            mapRenderer.fitScreen(gameScene.getWidth(), gameScene.getHeight());
+            opponentRenderer.setHeight(gameScene.getHeight());
+        });
 
         gameScene.setOnKeyPressed(e -> {
             // Allow ESC anytime in the game
+            if (e.getCode() == KeyCode.F3) { // profiler on / off, works anytime
+                profiler.setVisible(!profiler.isVisible());
+                return;
+            }
             if (e.getCode() == KeyCode.ESCAPE) { // If ESC pressed
                 primaryStage.setScene(mainMenuScene); // Return to main menu
                 physicsLoop.stopLoop(); // Stop physics loop
+                showFrameStats();
                 return;
             }
 
@@ -305,29 +373,38 @@ public class Main extends Application {
 
         // our main game loop and related methods come now in the animation timer (main purpose = animating the scene in 60 fps)
         new AnimationTimer() {
-            long lastUpdate = System.nanoTime(); // Store time of last update
-
             @Override
             public void handle(long now) {
+                profiler.frame(now); // also during countdown and menus, the overlay only draws when it's visible
 
                 if (!raceStarted || gameOverActive || finished) return; // Skip if game isn't running
+                frameStats.frame(now); // frame time for the comparison of difficulties
 
                 // Update timer display
                 long currentTime = System.nanoTime(); // Get current system time
                 double elapsedSeconds = (currentTime - startTime) / 1e9; // Calculate elapsed time in seconds
-                timeLabel.setText(String.format("%.3f s", elapsedSeconds)); // Display it with 3 decimal places
+                if (raceTracker != null) elapsedSeconds = raceTracker.getTime(); // simulated time of the physics thread, doesn't depend on the frame rate
+                timeText.setLength(0);
+                ProfilerOverlay.appendFixed(timeText, elapsedSeconds, 3).append(" s"); // 3 decimal places, String.format every frame was slow and made garbage
+                timeLabel.setText(timeText.toString());
 
                 if (gameOverActive) return; // Skip further "Animation-updates" if game is over
 
-                double deltaTime = (now - lastUpdate) / 1e9; // Compute time since last frame
-                lastUpdate = now; // Update last timestamp
-
                 // Check if player has finished the race -> crossed finish line -> victory detection
                 double dx = car.getX() - startX; // X difference from start
                 double dy = car.getY() - startY; // Y difference from start
                 double distance = Math.sqrt(dx * dx + dy * dy); // Distance from start (not used directly)
 
-                if (Math.abs(car.getX() - startX) < 600 && Math.abs(car.getY() - startY) < 20 && elapsedSeconds > 8) { // here we create a rectangle across the starting / finish line which will be active after 8s into the game start, den if the car touches the rectangle, the victory-screen with your time will appear
+                if (raceTracker != null) {
+                    ghost.show(elapsedSeconds); // same clock as the physics thread, so the ghost runs exactly as fast as the race
+                    updateRaceHud();
+                    if (raceTracker.getLaps(0) >= 1) { // the whole lap was driven, sector by sector, driving back and forth over the line doesn't count
+                        finished = true;
+                        showVictoryScreen(raceTracker.getLastCrossingTime(0)); // the moment the car crossed the line inside the physics step
+                        keepGhostLap(raceTracker.getLastCrossingTime(0)); // the physics loop is stopped now
+                        return;
+                    }
+                } else if (Math.abs(car.getX() - startX) < 600 && Math.abs(car.getY() - startY) < 20 && elapsedSeconds > 8) { // here we create a rectangle across the starting / finish line which will be active after 8s into the game start, den if the car touches the rectangle, the victory-screen with your time will appear
                     finished = true; // Flag game as finished
                     showVictoryScreen(elapsedSeconds); // Show win screen with time
                     return;
@@ -335,23 +412,22 @@ public class Main extends Application {
 
                 car.update(up, down, left, right); // update car inputs
 
+                // collision on the Racetrack is checked in the physics thread with the whole car box, here we only look at the result
+                if (physicsLoop.hasCollided()) {
+                    gameOverActive = true; // Trigger Game Over
+                    triggerGameOver();
+                    return;
+                }
+
                 // Check for collision on Map 2 (irrelevant) using red pixel detection and image coordinates ===
-                if (!gameOverActive && (selectedMap.equals("Map 2") || selectedMap.equals("Racetrack"))) {
-                    // Get current image depending on selected map
-                    Image currentMapImage = selectedMap.equals("Map 2")
-                            ? map2View.getImage()
-                            : map3View.getImage();
+                if (!gameOverActive && selectedMap.equals("Map 2")) {
+                    Image currentMapImage = map2Layer.getImage(); // Get image of Map 2
 
                     PixelReader reader = currentMapImage.getPixelReader(); // Create PixelReader to get color data
 
                     // Calculate scale factor from image to world coordinates
-                    double scaleX = selectedMap.equals("Map 2")
-                            ? map2View.getFitWidth() / currentMapImage.getWidth()
-                            : map3View.getFitWidth() / currentMapImage.getWidth();
-
-                    double scaleY = selectedMap.equals("Map 2")
-                            ? map2View.getFitHeight() / currentMapImage.getHeight()
-                            : map3View.getFitHeight() / currentMapImage.getHeight();
+                    double scaleX = mapWidth / currentMapImage.getWidth();
+                    double scaleY = mapHeight / currentMapImage.getHeight();
 
                     // Convert world coordinates to image pixel coordinates
                     int baseX = (int) (car.getX() / scaleX);
@@ -372,39 +448,22 @@ public class Main extends Application {
 
                             Color color = reader.getColor(px, py); // Read color at pixel
 
-                            if (selectedMap.equals("Map 2")) {
-                                // red zone detection for Map 2 (irrelevant for the current game)
-                                boolean isDark = color.getBrightness() < 0.2;
-                                boolean isClearlyRed = color.getRed() - color.getGreen() > 0.4 &&
-                                        color.getRed() - color.getBlue() > 0.4 &&
-                                        color.getRed() > 0.5; // Red dominance
-
-                                if (isClearlyRed && !isDark) {
-                                    gameOverActive = true;
-                                    triggerGameOver(); // Trigger Game Over
-                                    return;
-                                }
-
-                            } else if (selectedMap.equals("Racetrack")) {
-                                // green zone detection for Map 3 / Racetrack -Y meaning if the car touches the color green the game over screens appears
-                                boolean isClearlyGreen = color.getGreen() - color.getRed() > 0.2 &&
-                                        color.getGreen() - color.getBlue() > 0.1 &&
-                                        color.getGreen() > 0.4; // Green dominance
-
-                                if (isClearlyGreen) {
-                                    gameOverActive = true; // Trigger Game Over
-                                    triggerGameOver();
-                                    return;
-                                }
+                            // red zone detection for Map 2 (irrelevant for the current game)
+                            boolean isDark = color.getBrightness() < 0.2;
+                            boolean isClearlyRed = color.getRed() - color.getGreen() > 0.4 &&
+                                    color.getRed() - color.getBlue() > 0.4 &&
+                                    color.getRed() > 0.5; // Red dominance
+
+                            if (isClearlyRed && !isDark) {
+                                gameOverActive = true;
+                                triggerGameOver(); // Trigger Game Over
+                                return;
                             }
                         }
                     }
                 }
 
-                //  Update car
-                car.getCar().updateState(new CarGoKartSportModel(), car.getSteeringInput(), car.getAccelInput(), deltaTime); // Update car's physics state with model and inputs
-
-                //  Update visuals
+                //  Update visuals (the physics loop steps the car, 1000 times a second no matter the frame rate)
                 car.setTranslateX(car.getX()); // Update visual x-position
                 car.setTranslateY(car.getY()); // Update visual y-position
                 car.updateVisuals(); // Update visual representation of the car (sprite, rotation, etc.)
@@ -415,6 +474,19 @@ public class Main extends Application {
                 double offsetY = -car.getTranslateY() + gameScene.getHeight() / 2; // Calculate vertical camera offset to center car
                 world.setTranslateX(offsetX); // Apply horizontal offset to world
                 world.setTranslateY(offsetY); // Apply vertical offset to world
+                if (selectedMap.equals("Racetrack")) {
+                    prefetchRacetrackTiles(); // load the tiles we are driving towards
+                    minimap.clearMarkers(); // only the marker pixels change
+                    minimap.drawMarker(car.getX(), car.getY(), 0xFFFFFF00); // yellow dot = player
+                }
+                mapRenderer.render(car.getX(), car.getY()); // draw only the part of the map around the car
+                if (opponents != null) {
+                    opponents.getPoses().acquire(); // the newest step the physics thread published, the last one if there is nothing new
+                    opponentRenderer.render(opponents.getPoses(), car.getX(), car.getY(), 1); // same camera as the map
+                    for (int i = 0; i < opponents.getPoses().getCount(); i++) {
+                        minimap.drawMarker(opponents.getPoses().getX(i), opponents.getPoses().getY(i), 0xFFFF8000); // orange dots = AI
+                    }
+                }
 
                 // here we define the Drunk motion effects
                 if (currentDifficulty.equals("BLACKOUT")) {
@@ -448,50 +520,152 @@ public class Main extends Application {
         }.start(); // Now start the animation timer (game loop)
     }
 
+    // the middle of the Racetrack for track progress and the AI karts, from an own copy of the collision tiles so the physics thread keeps its tiles
+    // the thinning takes a moment the first time, after that the line comes from a file in the temp folder
+    private void findRacetrackLine(TileSource map3Tiles) {
+        Path cacheFile = Path.of(System.getProperty("java.io.tmpdir"), "drunkracing-racetrack.line");
+        CompletableFuture.supplyAsync(() -> {
+                    TiledTrack track = new TiledTrack(map3Tiles, mapWidth, mapHeight, 32);
+                    RacingLine line = new CenterlineExtractor(track, 4)
+                            .loadOrExtract(racetrackStartX, racetrackStartY, Math.toRadians(-90), 10, cacheFile);
+                    line.computeSpeedProfile(25, 12, 6, 10); // the AI drivers' speeds, same go-kart numbers as in the AI benchmarks
+                    return new ProgressField(track, line, 4); // a few hundred ms more, every 4th pixel is plenty for laps
+                })
+                .thenAccept(progress -> Platform.runLater(() -> {
+                    racetrackProgress = progress;
+                    racetrackLine = progress.getLine();
+                    minimap.setLine(progress.getLine(), 0xB0FFFFFF); // white, a bit see-through
+                }))
+                .exceptionally(e -> {
+                    System.err.println("no centerline for the Racetrack: " + e.getMessage()); // the race works without it
+                    return null;
+                });
+    }
+
+    private Path ghostFile() {
+        return Path.of(System.getProperty("user.home"), ".drunkracing", "ghost-" + selectedMap + ".lap");
+    }
+
+    // the lap just driven becomes the ghost if it was faster, saved in the background (a few KB)
+    private void keepGhostLap(double lapTime) {
+        if (ghostRecorder == null) return;
+        if (ghost.getLap() != null && ghost.getLap().getLapTime() <= lapTime) return;
+        GhostLap lap = ghostRecorder.toLap(lapTime);
+        ghost.setLap(lap);
+        Path file = ghostFile();
+        CompletableFuture.runAsync(() -> lap.save(file))
+                .exceptionally(e -> {
+                    System.err.println("ghost lap not saved: " + e.getMessage());
+                    return null;
+                });
+    }
+
+    // sector times of the last lap and a warning when driving the wrong way, only rebuilt when one of them changed
+    private void updateRaceHud() {
+        int sectors = raceTracker.getSectorsPassed(0);
+        boolean wrongWay = raceTracker.isWrongWay(0);
+        int position = raceTracker.getPosition(0);
+        if (sectors == hudSectors && wrongWay == hudWrongWay && position == hudPosition) return;
+        hudSectors = sectors;
+        hudWrongWay = wrongWay;
+        hudPosition = position;
+
+        hudText.setLength(0);
+        if (raceTracker.getKartCount() > 1) hudText.append('P').append(position).append('/').append(raceTracker.getKartCount()).append('\n'); // only with AI karts
+        for (int i = 0; i < raceTracker.getSectorCount(); i++) {
+            hudText.append('S').append(i + 1).append(' ');
+            if (i < sectors) ProfilerOverlay.appendFixed(hudText, raceTracker.getSectorTime(0, i), 3).append(" s");
+            else hudText.append("--");
+            hudText.append('\n');
+        }
+        if (wrongWay) hudText.append("WRONG WAY");
+        hudLabel.setText(hudText.toString());
+    }
+
+    // Racetrack tiles: the ones a second ahead of the car get loaded in the background, for the picture and for collision
+    private void prefetchRacetrackTiles() {
+        final double viewWidth = mapRenderer.getWidth();
+        final double viewHeight = mapRenderer.getHeight();
+        final double yaw = car.getCar().getState().getYaw();
+        final double longVel = car.getCar().getState().getLongVel();
+        final double latVel = car.getCar().getState().getLatVel();
+        final double aheadX = (longVel * Math.cos(yaw) - latVel * Math.sin(yaw)) * IntegrationSemiImplicit.PIXELS_PER_METER; // one second ahead
+        final double aheadY = (longVel * Math.sin(yaw) + latVel * Math.cos(yaw)) * IntegrationSemiImplicit.PIXELS_PER_METER;
+
+        map3Layer.prefetch(car.getX() - viewWidth / 2, car.getY() - viewHeight / 2, viewWidth, viewHeight, aheadX, aheadY);
+        racetrackTrack.prefetch(car.getX(), car.getY(), aheadX, aheadY, CarVisual.SPRITE_LENGTH);
+    }
+
     //  Apply drunk effects for the different maps, but in the game will only Racetrack (map3) visible
     private void applyDifficultyEffect() {
         world.getChildren().clear(); // Clear existing world elements
+        world.getChildren().addAll(ghost, car); // the map isn't part of the world anymore, the renderer draws it, the ghost below the car
 
         if (selectedMap.equals("Test-Ground")) {
-            drawMap();
-            world.getChildren().addAll(mapCanvas, car);
+            mapRenderer.setLayer(this::drawMap);
             root.setStyle("-fx-background-color: black;");
         } else if (selectedMap.equals("Map 2")) {
-            world.getChildren().addAll(map2View, car);
+            mapRenderer.setLayer(map2Layer);
             root.setStyle("-fx-background-color: black;");
         }
         else if (selectedMap.equals("Racetrack")) {
-            world.getChildren().addAll(map3View, car); // Add Racetrack image and car
+            mapRenderer.setLayer(map3Layer); // Racetrack tiles
             root.setStyle("-fx-background-color: black;");
         }
+        mapRenderer.render(car.getX(), car.getY()); // first picture before the countdown
+        minimap.setVisible(selectedMap.equals("Racetrack"));
 
-
-        world.setEffect(null); // Clear any previous visual effects
+        // how drunk the picture looks
+        double blurRadius = 0;
+        double hue = 0;
+        double saturation = 0;
         switch (currentDifficulty) {
             case "SOBER": break; // No effect
-            case "TIPSY": world.setEffect(new javafx.scene.effect.GaussianBlur(12)); break; // Light blur
-            case "WASTED": world.setEffect(new javafx.scene.effect.GaussianBlur(20)); break; // Stronger blur
+            case "TIPSY": blurRadius = 12; break; // Light blur
+            case "WASTED": blurRadius = 20; break; // Stronger blur
             case "BLACKOUT":
-                javafx.scene.effect.GaussianBlur blur = new javafx.scene.effect.GaussianBlur(28); // Even stronger blur
+                blurRadius = 28; // Even stronger blur
+                hue = 0.7; // Purple tint
+                saturation = 0.2; // Slight color change
+                break;
+        }
+
+        javafx.scene.effect.Effect effect = null;
+        if (blurRadius > 0) {
+            javafx.scene.effect.GaussianBlur blur = new javafx.scene.effect.GaussianBlur(blurRadius);
+            effect = blur;
+            if (hue != 0 || saturation != 0) {
                 javafx.scene.effect.ColorAdjust color = new javafx.scene.effect.ColorAdjust(); // Color distortion
-                color.setHue(0.7); // Purple tint
-                color.setSaturation(0.2); // Slight color change
+                color.setHue(hue);
+                color.setSaturation(saturation);
                 color.setInput(blur); // Apply blur as input
-                world.setEffect(color); // Apply combined effect
-                break;
+                effect = color;
+            }
+        }
+
+        world.setEffect(null); // Clear any previous visual effects
+        viewport.setEffect(null);
+        if (selectedMap.equals("Racetrack")) {
+            // the Racetrack doesn't move, so its tiles get blurred once and cached, only the small car gets the effect every frame
+            map3Layer.setVision(blurRadius, hue, saturation);
+            world.setEffect(effect);
+        } else {
+            viewport.setEffect(effect); // the other maps get the whole screen blurred every frame
         }
     }
 
     // In "drawMap" we made our test-ground (kitchen like floor) to test the physics (speed, acceleration, etc.) -> but it's irrelevant for the actual game
-    private void drawMap() {
-        GraphicsContext gc = mapCanvas.getGraphicsContext2D();
-        int tilesX = (int) (mapWidth / tileSize);
-        int tilesY = (int) (mapHeight / tileSize);
-
-        for (int y = 0; y < tilesY; y++) {
-            for (int x = 0; x < tilesX; x++) {
+    // only the tiles that are on screen get drawn
+    private void drawMap(GraphicsContext gc, double viewX, double viewY, double viewWidth, double viewHeight) {
+        int minX = Math.max(0, (int) Math.floor(viewX / tileSize));
+        int minY = Math.max(0, (int) Math.floor(viewY / tileSize));
+        int maxX = Math.min((int) (mapWidth / tileSize) - 1, (int) Math.floor((viewX + viewWidth) / tileSize));
+        int maxY = Math.min((int) (mapHeight / tileSize) - 1, (int) Math.floor((viewY + viewHeight) / tileSize));
+
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
                 gc.setFill((x + y) % 2 == 0 ? Color.BLACK : Color.WHITE);
-                gc.fillRect(x * tileSize, y * tileSize, tileSize, tileSize);
+                gc.fillRect(x * tileSize - viewX, y * tileSize - viewY, tileSize, tileSize);
             }
         }
     }
@@ -504,6 +678,47 @@ public class Main extends Application {
         root.getChildren().removeIf(node -> node instanceof VBox);
 
         physicsLoop.stopLoop(); // Stop any running physics loop
+        frameStats.reset(); // new race, new frame times
+
+        // green pixels of the Racetrack are walls now, the whole car box is swept against them in the physics thread
+        physicsLoop.setCollisionDetection(selectedMap.equals("Racetrack")
+                ? new CollisionDetection(racetrackTrack, CarVisual.SPRITE_LENGTH / 2, CarVisual.SPRITE_WIDTH / 2)
+                : null);
+        physicsLoop.setCollisionResponse(bounceOffWalls ? new CollisionResponse(0.3, 0.5) : null); // a bit of bounce, a lot of scraping
+        physicsLoop.setSurface(selectedMap.equals("Racetrack") ? new SurfaceGripMap(racetrackTrack) : null); // kerbs, grass and gravel of the same image
+        // laps in 3 sectors on the physics thread, until the centerline is there the old finish rectangle is used
+        // AI karts on the centerline, they start in pairs behind the player and count in the race tracker after the player
+        // no surface for them: they keep to the asphalt of the line, and their lookups would pull tiles far away from the player into the cache
+        opponents = selectedMap.equals("Racetrack") && racetrackLine != null ? new AiField(new CarGoKartSportModel(), racetrackLine, opponentCount) : null;
+        if (opponents != null) {
+            opponents.setSleep(0.01, 0.001, 100);
+            opponents.place(racetrackLine.nearest(racetrackStartX, racetrackStartY), 200); // a bit more than a kart length between the rows
+        }
+        physicsLoop.setOpponents(opponents);
+        physicsLoop.setKartContact(opponents != null ? new KartContact(CarVisual.SPRITE_LENGTH / 2, CarVisual.SPRITE_WIDTH / 2, 0.3) : null); // they bump, a bit of bounce
+        opponentRenderer.setVisible(opponents != null);
+        raceTracker = selectedMap.equals("Racetrack") && racetrackProgress != null
+                ? new RaceTracker(racetrackProgress, 3, 1 + (opponents != null ? opponents.getCount() : 0), 0.001)
+                : null;
+        physicsLoop.setRaceTracker(raceTracker);
+        hudSectors = -1;
+        hudWrongWay = false;
+        hudPosition = 0;
+        hudLabel.setText("");
+        // poses every 10 ms for the ghost, the best lap is kept on disk per track
+        ghostRecorder = raceTracker != null ? new GhostRecorder(0.01, 120) : null;
+        physicsLoop.setGhostRecorder(ghostRecorder);
+        // standing on the grid until the first key press costs no physics steps
+        physicsLoop.setSleep(new KartSleep(0.01, 0.001, 100));
+        if (raceTracker != null && ghost.getLap() == null) {
+            try {
+                ghost.setLap(GhostLap.load(ghostFile()));
+            } catch (RuntimeException e) {
+                System.err.println(e.getMessage()); // a broken file only costs the ghost
+            }
+        }
+        ghost.setVisible(raceTracker != null && ghost.getLap() != null);
+        ghost.show(0);
 
         if (countdownTimeline != null) {
             countdownTimeline.stop(); // Stop countdown if already running
@@ -528,8 +743,8 @@ public class Main extends Application {
             startX = mapWidth / 2 + 1050;
             startY = mapHeight / 2 + 550;
         } else if (selectedMap.equals("Racetrack")) {
-            startX = mapWidth / 2 + 120;
-            startY = mapHeight / 2 + 500;
+            startX = racetrackStartX;
+            startY = racetrackStartY;
         } else {
             startX = mapWidth / 2 + 120;
             startY = mapHeight / 2 + 500;
@@ -550,6 +765,16 @@ public class Main extends Application {
         // Center camera on car
         world.setTranslateX(-car.getTranslateX() + gameScene.getWidth() / 2);
         world.setTranslateY(-car.getTranslateY() + gameScene.getHeight() / 2);
+        if (selectedMap.equals("Racetrack")) {
+            prefetchRacetrackTiles(); // start loading the tiles around the start line during the countdown
+        }
+        if (opponents != null) {
+            opponents.getPoses().acquire(); // the grid place() published, so the AI karts already stand there during the countdown
+            opponentRenderer.render(opponents.getPoses(), startX, startY, 1);
+        }
+        // the countdown is dead time anyway: a throwaway kart drives the physics and collision code from the start line until the JIT compiled it,
+        // so the first seconds after GO step as fast and as evenly as the rest (startLoop ends it if it isn't done)
+        physicsLoop.startWarmUp(car.getCar(), 20000);
 
         // Reset game state
         raceStarted = false;
@@ -575,6 +800,9 @@ public class Main extends Application {
                     startTime = System.nanoTime(); // Record start time
                     raceStarted = true;
                     inputBlocked = false;
+                    if (selectedMap.equals("Racetrack")) {
+                        racetrackTrack.load(car.getX(), car.getY(), CarVisual.SPRITE_LENGTH); // prefetched during the countdown, only waits if that didn't finish
+                    }
                     physicsLoop.startLoop(this.car); // Start game loop
                 }),
 
@@ -706,10 +934,17 @@ public class Main extends Application {
         VBox controlsBox = new VBox(10, controlsLabel, upButton, downButton, leftButton, rightButton); // Layout for controls
         controlsBox.setAlignment(Pos.CENTER); // Center align
 
+        // Wall behaviour: game over (original) or bouncing off
+        Button wallButton = new Button("Walls: " + (bounceOffWalls ? "BOUNCE" : "GAME OVER"));
+        wallButton.setOnAction(e -> {
+            bounceOffWalls = !bounceOffWalls; // Switch mode, used at the next race start
+            wallButton.setText("Walls: " + (bounceOffWalls ? "BOUNCE" : "GAME OVER"));
+        });
+
         Button backButton = new Button("Back to Menu"); // Button to return to main menu
         backButton.setOnAction(e -> primaryStage.setScene(mainMenuScene)); // Switch scene on click
 
-        settingsLayout.getChildren().addAll(brightnessBox, controlsBox, backButton); // Add all settings to main layout
+        settingsLayout.getChildren().addAll(brightnessBox, controlsBox, wallButton, backButton); // Add all settings to main layout
 
         StackPane stackPane = new StackPane(); // Create stack pane to layer background and layout
         stackPane.getChildren().addAll(bgView, settingsLayout); // Add background and settings layout
@@ -719,8 +954,16 @@ public class Main extends Application {
         primaryStage.setScene(settingsScene); // Set the scene to primary stage
     }
 
+    // Puts the frame times of the race that just ended into the F3 profiler, to compare maps and difficulties
+    private void showFrameStats() {
+        if (frameStats.getCount() == 0) return;
+        profiler.setLastRace(currentDifficulty + " on " + selectedMap, frameStats);
+        frameStats.reset();
+    }
+
     // Triggers game over sequence and restarts after short delay
     private void triggerGameOver() {
+        showFrameStats();
         physicsLoop.stopLoop(); // Stop the physics loop
         gameOverActive = true; // Flag game as over
         up = down = left = right = false; // Disable player input
@@ -757,6 +1000,7 @@ public class Main extends Application {
 
     // Displays the Victory screen with time and buttons (retry and back to menu)
     private void showVictoryScreen(double time) {
+        showFrameStats();
         physicsLoop.stopLoop(); // Stop the physics loop
 
         // Create victory message with final time
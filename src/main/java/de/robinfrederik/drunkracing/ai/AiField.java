@@ -0,0 +1,193 @@
+package de.robinfrederik.drunkracing.ai;
+
+import de.robinfrederik.drunkracing.car.Car;
+import de.robinfrederik.drunkracing.car.CarGoKartSport;
+import de.robinfrederik.drunkracing.physics.PhysicsLod;
+import de.robinfrederik.drunkracing.physics.PoseBuffer;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannModel;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+import de.robinfrederik.drunkracing.physics.ackermann.KartSleep;
+import de.robinfrederik.drunkracing.physics.ackermann.formulae.IntegrationSemiImplicit;
+import de.robinfrederik.drunkracing.physics.ackermann.formulae.SurfaceFormula;
+
+//the AI opponents: go-karts with the same physics model as the player, each driven by its own PurePursuitDriver
+//stepped by the physics thread right after the player (PhysicsLoop.setOpponents), everything is made in the constructor
+//so a step is driver + surface + model for every kart and nothing else
+//the poses go out through a PoseBuffer, the FX thread draws them with a KartBatchRenderer or puts them on the minimap
+public class AiField {
+    private static final double PARKED_BRAKE_TO = 0.5;    // m/s
+    private final AckermannModel model;
+    private final RacingLine line;
+    private final Car[] cars;
+    private final PurePursuitDriver[] drivers;
+    private final PoseBuffer poses;
+    private volatile SurfaceFormula surface;    // optional, like in the PhysicsLoop
+    private volatile PhysicsLod lod;            // optional, without it every kart gets the full model every tick
+    private volatile double focusX;             // where the LOD measures the distance from
+    private volatile double focusY;
+    private final int[] levels;                 // PhysicsLod level of every kart
+    private final int[] owed;                   // ticks since the kart was last stepped, far karts skip some
+    private final boolean[] parked;             // no driver, no input, the kart rolls out and stands
+    private volatile KartSleep[] sleep;         // optional, parked karts that stand still skip their steps
+    private long tick;
+
+    public AiField(AckermannModel model, RacingLine line, int karts) {
+        this.model = model;
+        this.line = line;
+        this.cars = new Car[karts];
+        this.drivers = new PurePursuitDriver[karts];
+        this.poses = new PoseBuffer(karts);
+        this.levels = new int[karts];
+        this.owed = new int[karts];
+        this.parked = new boolean[karts];
+        for (int i = 0; i < karts; i++) {
+            cars[i] = new CarGoKartSport();
+            drivers[i] = new PurePursuitDriver(line);
+        }
+    }
+
+    public void setSurface(SurfaceFormula surface) {
+        this.surface = surface;
+    }
+
+    //set before the physics thread steps the field, null means the full model for every kart again
+    public void setLod(PhysicsLod lod) {
+        this.lod = lod;
+    }
+
+    //set before the physics thread steps the field, with limits like KartSleep, maxSpeed 0 switches sleeping off again
+    public void setSleep(double maxSpeed, double maxSlip, int quietTicks) {
+        if (maxSpeed <= 0) {
+            this.sleep = null;
+            return;
+        }
+        final KartSleep[] sleep = new KartSleep[cars.length];
+        for (int i = 0; i < sleep.length; i++) sleep[i] = new KartSleep(maxSpeed, maxSlip, quietTicks);
+        this.sleep = sleep;
+    }
+
+    //a parked kart brakes and then gets no input, so it stops and (with setSleep) falls asleep, unparked it drives on from where it stands
+    //not while the physics thread steps the field
+    public void park(int kart, boolean parked) {
+        this.parked[kart] = parked;
+    }
+
+    //the player or the camera, the PhysicsLoop sets the player every tick
+    public void setFocus(double x, double y) {
+        this.focusX = x;
+        this.focusY = y;
+    }
+
+    //starting grid behind point start of the line, two karts per row, gap world units between the rows
+    //not while the physics thread steps the field
+    public void place(int start, double gap) {
+        final int pointsPerRow = Math.max(1, (int) Math.round(gap / line.getSpacing()));
+        final double side = 1.2 * IntegrationSemiImplicit.PIXELS_PER_METER; // left and right of the line, the pair stands clear of each other (the sprite is 2 m wide)
+        for (int i = 0; i < cars.length; i++) {
+            final int point = line.wrap(start - (i / 2 + 1) * pointsPerRow);
+            final double heading = line.getHeading(point);
+            final double offset = i % 2 == 0 ? -side : side;
+            cars[i].reset();
+            AckermannState state = cars[i].getState();
+            state.setXCoM(line.getX(point) - Math.sin(heading) * offset);
+            state.setYCoM(line.getY(point) + Math.cos(heading) * offset);
+            state.setYaw(heading);
+            drivers[i].reset();
+            if (sleep != null) sleep[i].wake();
+            levels[i] = PhysicsLod.FULL;
+            owed[i] = 0;
+        }
+        publish();
+    }
+
+    //one physics step for every kart, with a LOD every kart with the model of its level
+    //far karts take turns (kart i on the ticks where tick + i is a multiple of farEvery) and then step all the ticks they skipped at once,
+    //so every tick steps about the same number of karts and none of them falls behind in time
+    public void step(double deltaT) {
+        final SurfaceFormula surface = this.surface;
+        final PhysicsLod lod = this.lod;
+        final KartSleep[] sleep = this.sleep;
+        final double focusX = this.focusX;
+        final double focusY = this.focusY;
+        for (int i = 0; i < cars.length; i++) {
+            final Car car = cars[i];
+            AckermannModel model = this.model;
+            double kartDeltaT = deltaT;
+            if (lod != null) {
+                final AckermannState state = car.getState();
+                final double dx = state.getXCoM() - focusX;
+                final double dy = state.getYCoM() - focusY;
+                final int level = lod.level(Math.sqrt(dx * dx + dy * dy), levels[i]);
+                levels[i] = level;
+                owed[i]++;
+                if (level == PhysicsLod.FAR && (tick + i) % lod.getFarEvery() != 0) continue;
+                model = lod.getModel(level);
+                kartDeltaT = owed[i] * deltaT;
+                owed[i] = 0;
+            }
+            final PurePursuitDriver driver = drivers[i];
+            double steering = 0;
+            double accel = 0;
+            if (!parked[i]) {
+                driver.drive(car);
+                steering = driver.getSteeringInput();
+                accel = driver.getAccelInput();
+            } else {
+                //brakes down to walking pace, then rolls out without input
+                final double longVel = car.getState().getLongVel();
+                if (Math.abs(longVel) > PARKED_BRAKE_TO) accel = -Math.signum(longVel);
+            }
+            if (surface != null) surface.formula(car);
+            if (sleep != null) {
+                sleep[i].step(car, model, steering, accel, kartDeltaT);
+            } else {
+                car.updateState(model, steering, accel, kartDeltaT);
+            }
+        }
+        tick++;
+    }
+
+    //hands the current poses to the renderer side
+    public void publish() {
+        for (int i = 0; i < cars.length; i++) {
+            final AckermannState state = cars[i].getState();
+            poses.set(i, state.getXCoM(), state.getYCoM(), state.getYaw());
+        }
+        poses.publish(cars.length);
+    }
+
+    public PoseBuffer getPoses() {
+        return poses;
+    }
+
+    public int getCount() {
+        return cars.length;
+    }
+
+    public Car getCar(int kart) {
+        return cars[kart];
+    }
+
+    public PurePursuitDriver getDriver(int kart) {
+        return drivers[kart];
+    }
+
+    public boolean isParked(int kart) {
+        return parked[kart];
+    }
+
+    //false without setSleep
+    public boolean isAsleep(int kart) {
+        final KartSleep[] sleep = this.sleep;
+        return sleep != null && sleep[kart].isAsleep();
+    }
+
+    //PhysicsLod level the kart had in the last step (FULL without a LOD)
+    public int getLevel(int kart) {
+        return levels[kart];
+    }
+
+    public RacingLine getLine() {
+        return line;
+    }
+}
@@ -0,0 +1,99 @@
+package de.robinfrederik.drunkracing.ai;
+
+import de.robinfrederik.drunkracing.car.Car;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+import de.robinfrederik.drunkracing.physics.ackermann.formulae.IntegrationSemiImplicit;
+
+//drives one kart along a racing line, gives the same two inputs the player gives through CarVisual
+//steering: pure pursuit, aims the back axle at a point of the line that is further ahead the faster the kart goes
+//and steers onto the circle through that point
+//throttle/brake: the speed the line allows a little ahead, reached with a simple proportional controller
+//one object per kart, made once, drive() only does arithmetic on fields so the physics thread never allocates for it
+public class PurePursuitDriver {
+    private final RacingLine line;
+    private final double lookAheadMin;      // world units
+    private final double lookAheadPerSpeed; // world units per m/s
+    private final double speedGain;         // throttle per m/s too slow
+    private final int window;               // points searched around the last nearest point
+    private final int speedAhead;           // points ahead whose speed is used, lets the kart start braking in time
+
+    private int nearest = -1;               // point of the line closest to the kart in the last step
+    private double steeringInput;           // {-1, 1}, like CarVisual
+    private double accelInput;              // {-1, 1}, like CarVisual
+
+    public PurePursuitDriver(RacingLine line,
+                             double lookAheadMin,
+                             double lookAheadPerSpeed,
+                             double speedGain) {
+        this.line = line;
+        this.lookAheadMin = lookAheadMin;
+        this.lookAheadPerSpeed = lookAheadPerSpeed;
+        this.speedGain = speedGain;
+        this.window = Math.max(4, (int) Math.ceil(2 * IntegrationSemiImplicit.PIXELS_PER_METER / line.getSpacing())); // more than a kart moves in a step
+        this.speedAhead = Math.max(1, (int) Math.round(IntegrationSemiImplicit.PIXELS_PER_METER / line.getSpacing())); // about 1 m
+    }
+
+    //values that work for the go-kart on the 5000 x 5000 maps
+    public PurePursuitDriver(RacingLine line) {
+        this(line, 60, 6, 0.5);
+    }
+
+    //works out the inputs for this step, read them with getSteeringInput / getAccelInput
+    public void drive(Car car) {
+        final AckermannState state = car.getState();
+        final double pixelsPerMeter = IntegrationSemiImplicit.PIXELS_PER_METER;
+        final double cosYaw = Math.cos(state.getYaw());
+        final double sinYaw = Math.sin(state.getYaw());
+        final double speed = state.getLongVel();
+
+        //pure pursuit works from the back axle, the point the kart turns around
+        final double backX = state.getXCoM() - cosYaw * car.getDistBack() * pixelsPerMeter;
+        final double backY = state.getYCoM() - sinYaw * car.getDistBack() * pixelsPerMeter;
+
+        nearest = nearest < 0 ? line.nearest(state.getXCoM(), state.getYCoM()) : line.nearest(state.getXCoM(), state.getYCoM(), nearest, window);
+
+        //first point of the line that is at least the look ahead distance away from the back axle
+        final double lookAhead = lookAheadMin + lookAheadPerSpeed * Math.abs(speed);
+        final double lookAheadSq = lookAhead * lookAhead;
+        int target = nearest;
+        for (int i = 0; i < line.getCount(); i++) {
+            final double dx = line.getX(target) - backX;
+            final double dy = line.getY(target) - backY;
+            if (dx * dx + dy * dy >= lookAheadSq) break;
+            target = line.next(target);
+        }
+        final double toTargetX = line.getX(target) - backX;
+        final double toTargetY = line.getY(target) - backY;
+        final double distance = Math.hypot(toTargetX, toTargetY);
+
+        //angle between heading and target in the frame of the kart, then the steering angle of the circle through the target
+        final double localX = toTargetX * cosYaw + toTargetY * sinYaw;
+        final double localY = -toTargetX * sinYaw + toTargetY * cosYaw;
+        final double alpha = Math.atan2(localY, localX);
+        final double wheelbase = (car.getDistFront() + car.getDistBack()) * pixelsPerMeter;
+        final double delta = Math.atan2(2 * wheelbase * Math.sin(alpha), distance);
+        steeringInput = Math.max(-1, Math.min(1, -delta / car.getDeltaMax())); // a positive steering input turns towards -yaw
+
+        final double targetSpeed = line.getSpeed(line.wrap(nearest + speedAhead));
+        accelInput = Math.max(-1, Math.min(1, speedGain * (targetSpeed - speed)));
+    }
+
+    //forget where on the line the kart was, after it got moved
+    public void reset() {
+        nearest = -1;
+        steeringInput = 0;
+        accelInput = 0;
+    }
+
+    public double getSteeringInput() {
+        return steeringInput;
+    }
+
+    public double getAccelInput() {
+        return accelInput;
+    }
+
+    public int getNearest() {
+        return nearest;
+    }
+}
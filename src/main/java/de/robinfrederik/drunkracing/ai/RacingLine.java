@@ -0,0 +1,223 @@
+package de.robinfrederik.drunkracing.ai;
+
+import de.robinfrederik.drunkracing.physics.ackermann.formulae.IntegrationSemiImplicit;
+
+//closed line around the track the AI karts follow, points in world units with (about) the same distance between them
+//everything the drivers need is worked out once here: curvature at every point and the speed a kart may have there
+//the speed comes from the curvature (how fast the tires can hold the corner) and then gets lowered
+//so a kart can still brake down to the next corner and doesn't have to accelerate faster than it can out of one
+public class RacingLine {
+    private final double[] x;
+    private final double[] y;
+    private final double[] curvature;   // 1 / radius in 1 / world units, positive when the line turns towards +yaw
+    private final double[] speed;       // target speed in m/s, the unit of longVel
+    private final double[] arcLength;   // world units along the line from point 0 to point i
+    private final double spacing;       // average distance between two points in world units
+    private final double length;
+
+    //x and y are the points of the closed line in driving direction, the last point connects back to the first
+    public RacingLine(double[] x, double[] y) {
+        if (x.length != y.length || x.length < 3) throw new IllegalArgumentException("a racing line needs at least 3 points");
+        this.x = x.clone();
+        this.y = y.clone();
+        final int count = x.length;
+        this.curvature = new double[count];
+        this.speed = new double[count];
+        this.arcLength = new double[count];
+
+        double length = 0;
+        for (int i = 0; i < count; i++) {
+            arcLength[i] = length;
+            length += Math.hypot(x[next(i)] - x[i], y[next(i)] - y[i]);
+        }
+        this.length = length;
+        this.spacing = length / count;
+
+        //curvature of the circle through the neighbours a few points away, so single pixel steps don't show up as corners
+        final int reach = Math.max(1, (int) Math.round(3 * IntegrationSemiImplicit.PIXELS_PER_METER / spacing)); // about 3 m to each side
+        for (int i = 0; i < count; i++) {
+            final int before = Math.floorMod(i - reach, count);
+            final int after = (i + reach) % count;
+            final double ax = x[i] - x[before];
+            final double ay = y[i] - y[before];
+            final double bx = x[after] - x[i];
+            final double by = y[after] - y[i];
+            final double cx = x[after] - x[before];
+            final double cy = y[after] - y[before];
+            final double sides = Math.hypot(ax, ay) * Math.hypot(bx, by) * Math.hypot(cx, cy);
+            curvature[i] = sides == 0 ? 0 : 2 * (ax * by - ay * bx) / sides;
+        }
+    }
+
+    //closed Catmull-Rom spline through a few hand placed points, sampled every spacing world units
+    public static RacingLine fromWaypoints(double[] waypointsX, double[] waypointsY, double spacing) {
+        final int waypoints = waypointsX.length;
+        final int dense = waypoints * 64;
+        final double[] denseX = new double[dense];
+        final double[] denseY = new double[dense];
+        for (int i = 0; i < dense; i++) {
+            final double t = (double) i * waypoints / dense;
+            final int segment = (int) t;
+            denseX[i] = catmullRom(waypointsX, segment, t - segment);
+            denseY[i] = catmullRom(waypointsY, segment, t - segment);
+        }
+        return fromPolyline(denseX, denseY, spacing);
+    }
+
+    //closed polyline (last point connects back to the first) resampled to points every spacing world units along it
+    public static RacingLine fromPolyline(double[] polyX, double[] polyY, double spacing) {
+        final int points = polyX.length;
+        double length = 0;
+        for (int i = 0; i < points; i++) {
+            length += Math.hypot(polyX[(i + 1) % points] - polyX[i], polyY[(i + 1) % points] - polyY[i]);
+        }
+        final int count = Math.max(3, (int) Math.round(length / spacing));
+        final double step = length / count;
+
+        //walk along the segments and drop a point every step
+        final double[] x = new double[count];
+        final double[] y = new double[count];
+        double walked = 0;
+        int point = 0;
+        for (int i = 0; i < points && point < count; i++) {
+            final int next = (i + 1) % points;
+            final double segmentLength = Math.hypot(polyX[next] - polyX[i], polyY[next] - polyY[i]);
+            while (point < count && point * step <= walked + segmentLength) {
+                final double f = segmentLength == 0 ? 0 : (point * step - walked) / segmentLength;
+                x[point] = polyX[i] + f * (polyX[next] - polyX[i]);
+                y[point] = polyY[i] + f * (polyY[next] - polyY[i]);
+                point++;
+            }
+            walked += segmentLength;
+        }
+        for (; point < count; point++) { // rounding at the very end
+            x[point] = polyX[0];
+            y[point] = polyY[0];
+        }
+        return new RacingLine(x, y);
+    }
+
+    private static double catmullRom(double[] values, int segment, double u) {
+        final int n = values.length;
+        final double p0 = values[Math.floorMod(segment - 1, n)];
+        final double p1 = values[segment % n];
+        final double p2 = values[(segment + 1) % n];
+        final double p3 = values[(segment + 2) % n];
+        return 0.5 * (2 * p1 + (p2 - p0) * u + (2 * p0 - 5 * p1 + 4 * p2 - p3) * u * u + (3 * p1 - p0 - 3 * p2 + p3) * u * u * u);
+    }
+
+    //target speeds in m/s from the grip of the kart, call before handing the line to the drivers
+    //maxLatAccel: how hard the kart can corner, maxAccel / maxBrake: how hard it can speed up / slow down, all in m/s^2
+    public void computeSpeedProfile(double maxSpeed, double maxLatAccel, double maxAccel, double maxBrake) {
+        final int count = x.length;
+        final double spacingMeters = spacing / IntegrationSemiImplicit.PIXELS_PER_METER;
+        for (int i = 0; i < count; i++) {
+            final double curvatureMeters = Math.abs(curvature[i]) * IntegrationSemiImplicit.PIXELS_PER_METER;
+            speed[i] = curvatureMeters < 1e-9 ? maxSpeed : Math.min(maxSpeed, Math.sqrt(maxLatAccel / curvatureMeters));
+        }
+        //twice around the loop each, so the passes carry over the start point
+        for (int pass = 0; pass < 2 * count; pass++) {
+            final int i = Math.floorMod(-pass - 1, count);  // backwards: brake early enough for the next point
+            speed[i] = Math.min(speed[i], Math.sqrt(speed[next(i)] * speed[next(i)] + 2 * maxBrake * spacingMeters));
+        }
+        for (int pass = 0; pass < 2 * count; pass++) {
+            final int i = pass % count;                     // forwards: can't be faster than the kart accelerates
+            speed[next(i)] = Math.min(speed[next(i)], Math.sqrt(speed[i] * speed[i] + 2 * maxAccel * spacingMeters));
+        }
+    }
+
+    //index of the point closest to (px, py), only looks window points around hint
+    //karts move a fraction of a point per step, so starting from the last result it is a handful of checks
+    public int nearest(double px, double py, int hint, int window) {
+        final int count = x.length;
+        int best = Math.floorMod(hint, count);
+        double bestDist = distSq(best, px, py);
+        for (int offset = -window; offset <= window; offset++) {
+            final int i = Math.floorMod(hint + offset, count);
+            final double dist = distSq(i, px, py);
+            if (dist < bestDist) {
+                bestDist = dist;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    //full search, for placing a kart the first time
+    public int nearest(double px, double py) {
+        return nearest(px, py, 0, x.length / 2);
+    }
+
+    //how far along the line (px, py) is, in world units from point 0, between 0 and getLength()
+    //the point is projected onto the segment before or after the nearest point, whichever is closer
+    //hint is the nearest point of the last query (see nearest), so this stays a handful of checks per call
+    public double progress(double px, double py, int hint, int window) {
+        final int point = nearest(px, py, hint, window);
+        final double after = project(point, px, py);
+        final double before = project(wrap(point - 1), px, py);
+        return after >= 0 ? arcLength[point] + after : arcLength[wrap(point - 1)] + Math.max(0, before);
+    }
+
+    //distance along the segment from point i to the next one of the projection of (px, py), negative if it is before point i
+    private double project(int i, double px, double py) {
+        final int next = next(i);
+        final double segmentX = x[next] - x[i];
+        final double segmentY = y[next] - y[i];
+        final double segmentLength = Math.hypot(segmentX, segmentY);
+        if (segmentLength == 0) return 0;
+        return Math.min(segmentLength, ((px - x[i]) * segmentX + (py - y[i]) * segmentY) / segmentLength);
+    }
+
+    private double distSq(int i, double px, double py) {
+        final double dx = x[i] - px;
+        final double dy = y[i] - py;
+        return dx * dx + dy * dy;
+    }
+
+    public int next(int i) {
+        return i + 1 == x.length ? 0 : i + 1;
+    }
+
+    public int wrap(int i) {
+        return Math.floorMod(i, x.length);
+    }
+
+    public int getCount() {
+        return x.length;
+    }
+
+    public double getX(int i) {
+        return x[i];
+    }
+
+    public double getY(int i) {
+        return y[i];
+    }
+
+    //direction of the line at point i, like yaw
+    public double getHeading(int i) {
+        final int before = wrap(i - 1);
+        final int after = next(i);
+        return Math.atan2(y[after] - y[before], x[after] - x[before]);
+    }
+
+    public double getCurvature(int i) {
+        return curvature[i];
+    }
+
+    public double getSpeed(int i) {
+        return speed[i];
+    }
+
+    public double getArcLength(int i) {
+        return arcLength[i];
+    }
+
+    public double getSpacing() {
+        return spacing;
+    }
+
+    public double getLength() {
+        return length;
+    }
+}
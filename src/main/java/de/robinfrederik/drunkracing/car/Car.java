@@ -2,6 +2,7 @@ package de.robinfrederik.drunkracing.car;
 
 import de.robinfrederik.drunkracing.physics.ackermann.AckermannModel;
 import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+import de.robinfrederik.drunkracing.physics.ackermann.StateHistory;
 
 //makes other cars possible
 public interface Car {
@@ -15,10 +16,12 @@ public interface Car {
     double getPower();
     double getEngineForce();
     double getBrakeForce();
+    double getDeltaMax();
     double getStaticMaxLoadFront();
     double getStaticMaxLoadBack();
     AckermannState getState();
     void setState(AckermannState state);
+    StateHistory getHistory(); // saved states for rolling back, null if the car has none
     void updateState (AckermannModel model, double delta, double forceInput, double deltaT);
     void reset();
 }
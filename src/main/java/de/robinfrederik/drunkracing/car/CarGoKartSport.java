@@ -1,6 +1,7 @@
 package de.robinfrederik.drunkracing.car;
 import de.robinfrederik.drunkracing.physics.ackermann.AckermannModel;
 import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+import de.robinfrederik.drunkracing.physics.ackermann.StateHistory;
 
 //custom gocart with mostly realistic values and some adjusted to make the game more fun while keeping physics stable
 public class CarGoKartSport implements Car{
@@ -19,6 +20,7 @@ public class CarGoKartSport implements Car{
     private final double staticMaxLoadBack = 9.81 * mass * distFront / (distFront + distBack);
 
     private AckermannState state = new AckermannState();
+    private final StateHistory history;     // null if made without one
 
     @Override
     public double getMass () {
@@ -68,6 +70,11 @@ public class CarGoKartSport implements Car{
         return brakeForce;
     }
 
+    @Override
+    public double getDeltaMax() {
+        return deltaMax;
+    }
+
     @Override
     public double getStaticMaxLoadFront() {
         return staticMaxLoadFront;
@@ -78,16 +85,31 @@ public class CarGoKartSport implements Car{
         return staticMaxLoadBack;
     }
 
+    public CarGoKartSport() {
+        this.history = null;
+    }
+
+    //with a history of the last historySlots saved states, all made here so saving later doesn't make garbage
+    public CarGoKartSport(int historySlots) {
+        this.history = new StateHistory(historySlots);
+    }
+
     @Override
     public AckermannState getState() {
         return state;
     }
 
+    //swaps the object, the physics thread may still hold the old one, to put values in while it runs use getState().copyFrom
     @Override
     public void setState(AckermannState state) {
         this.state = state;
     }
 
+    @Override
+    public StateHistory getHistory() {
+        return history;
+    }
+
     //takes the chosen model which in this case will be CarGoKartSportModel
     //and steering angle input in {-1, 1}
     //acceleration input in {-1, 1}
@@ -99,8 +121,10 @@ public class CarGoKartSport implements Car{
     }
 
     //ensures that really everything is reset without there being problems in the physics engine thread
+    //in place, so whoever holds the state (a collision sweep, a history) still has the right one and nothing is made
     @Override
     public void reset() {
-        this.setState(new AckermannState());
+        this.state.reset();
+        if (history != null) history.clear();
     }
 }
@@ -10,6 +10,9 @@ import javafx.scene.shape.Line; // (except for this one) JavaFX shape for force
 
 public class CarVisual extends Group { // CarVisual class extends JavaFX Group to visually represent the car (self-explaining with the class name)
 
+    public static final double SPRITE_LENGTH = 150.6; // size of the car picture in the world, also used as hitbox for collisions
+    public static final double SPRITE_WIDTH = 60;
+
     private ImageView carImage; // Image view of the car
 
     private CarGoKartSport carPhysics;
@@ -30,10 +33,10 @@ public class CarVisual extends Group { // CarVisual class extends JavaFX Group t
     public CarVisual() {
         Image carImg = new Image(getClass().getResource("/images/car.png").toExternalForm()); // Load car image
         this.carImage = new ImageView(carImg); // Create ImageView
-        this.carImage.setFitHeight(60); // Set height
+        this.carImage.setFitHeight(SPRITE_WIDTH); // Set height
         this.carImage.setPreserveRatio(true); // Keep width/height ratio
-        this.carImage.setTranslateX(-150.6 / 2); // Center X
-        this.carImage.setTranslateY(-60 / 2); // Center Y
+        this.carImage.setTranslateX(-SPRITE_LENGTH / 2); // Center X
+        this.carImage.setTranslateY(-SPRITE_WIDTH / 2); // Center Y
 
         this.carPhysics = new CarGoKartSport(); // Create new car physics object
         this.accelInput = 0; // Initial acceleration
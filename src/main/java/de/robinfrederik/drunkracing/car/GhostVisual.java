@@ -0,0 +1,45 @@
+package de.robinfrederik.drunkracing.car;
+
+import de.robinfrederik.drunkracing.track.GhostLap;
+import javafx.scene.Group;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+// see-through kart that drives the best lap again, only the FX thread moves it (the physics thread doesn't know it exists)
+public class GhostVisual extends Group {
+    private final ImageView carImage;
+    private final double[] pose = new double[3]; // x, y, yaw of the last frame, reused
+    private GhostLap lap;
+
+    public GhostVisual() {
+        Image carImg = new Image(getClass().getResource("/images/car.png").toExternalForm()); // same picture as the player
+        this.carImage = new ImageView(carImg);
+        this.carImage.setFitHeight(CarVisual.SPRITE_WIDTH);
+        this.carImage.setPreserveRatio(true);
+        this.carImage.setTranslateX(-CarVisual.SPRITE_LENGTH / 2); // Center X
+        this.carImage.setTranslateY(-CarVisual.SPRITE_WIDTH / 2); // Center Y
+        this.getChildren().add(carImage);
+        setOpacity(0.4);
+        setMouseTransparent(true);
+        setVisible(false);
+    }
+
+    // null hides the ghost
+    public void setLap(GhostLap lap) {
+        this.lap = lap;
+        setVisible(lap != null);
+    }
+
+    public GhostLap getLap() {
+        return lap;
+    }
+
+    // where the ghost was time seconds into its lap, once a frame
+    public void show(double time) {
+        if (lap == null) return;
+        lap.sample(time, pose);
+        setTranslateX(pose[0]);
+        setTranslateY(pose[1]);
+        carImage.setRotate(Math.toDegrees(pose[2]));
+    }
+}
@@ -0,0 +1,127 @@
+package de.robinfrederik.drunkracing.net;
+
+import de.robinfrederik.drunkracing.car.Car;
+import de.robinfrederik.drunkracing.car.CarGoKartSport;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannModel;
+
+import java.util.SplittableRandom;
+
+//stand-in for a RaceServer with one kart, in the same thread and without sockets, for testing the prediction
+//steps the kart like the RaceServer does (newest input, counted ticks), but inputs and snapshots take latency ticks
+//(plus up to jitter more) to get to the other side and get lost with the chance loss, the same every run for one seed
+public class FakeServer {
+    private static final int IN_FLIGHT = 4096;  // packets on the way each direction
+
+    private final AckermannModel model;
+    private final double deltaT;
+    private final int snapshotEvery;
+    private final int latency;
+    private final int jitter;
+    private final double loss;
+    private final SplittableRandom random;
+    private final Car car = new CarGoKartSport();
+
+    //inputs on the way to the server, a ring in the order they were sent
+    private final long[] inputArrival = new long[IN_FLIGHT];
+    private final int[] inputNumber = new int[IN_FLIGHT];
+    private final byte[] inputSteering = new byte[IN_FLIGHT];
+    private final byte[] inputAccel = new byte[IN_FLIGHT];
+    private int inputHead, inputTail;
+
+    //snapshots on the way to the client
+    private final long[] snapshotArrival = new long[IN_FLIGHT];
+    private final int[][] snapshotKart = new int[IN_FLIGHT][Protocol.FIELDS];
+    private final int[] snapshotInput = new int[IN_FLIGHT];
+    private final int[] snapshotInputTicks = new int[IN_FLIGHT];
+    private int snapshotHead, snapshotTail;
+
+    private byte steering, accel;
+    private int lastInput, inputTicks;
+    private long tick;
+
+    //what the client got last
+    private final int[] karts = new int[Protocol.FIELDS];
+    private int receivedInput, receivedInputTicks;
+
+    public FakeServer(AckermannModel model, double deltaT, int snapshotEvery, int latency, int jitter, double loss, long seed) {
+        this.model = model;
+        this.deltaT = deltaT;
+        this.snapshotEvery = snapshotEvery;
+        this.latency = latency;
+        this.jitter = jitter;
+        this.loss = loss;
+        this.random = new SplittableRandom(seed);
+    }
+
+    private long arrival() {
+        return tick + latency + (jitter > 0 ? random.nextInt(jitter + 1) : 0);
+    }
+
+    //the client sends an input
+    public void sendInput(int number, byte steering, byte accel) {
+        if (random.nextDouble() < loss) return;
+        final int slot = inputTail++ % IN_FLIGHT;
+        inputArrival[slot] = arrival();
+        inputNumber[slot] = number;
+        inputSteering[slot] = steering;
+        inputAccel[slot] = accel;
+    }
+
+    //one server tick, inputs that arrived first (with jitter some overtake others, older numbers are ignored like on the server)
+    public void tick() {
+        for (int i = inputHead; i < inputTail; i++) {
+            final int slot = i % IN_FLIGHT;
+            if (inputArrival[slot] > tick || inputNumber[slot] <= lastInput) continue;
+            lastInput = inputNumber[slot];
+            steering = inputSteering[slot];
+            accel = inputAccel[slot];
+            inputTicks = 0;
+        }
+        while (inputHead < inputTail && inputArrival[inputHead % IN_FLIGHT] <= tick) inputHead++;
+
+        car.updateState(model, steering, accel, deltaT);
+        inputTicks++;
+        tick++;
+        if (tick % snapshotEvery == 0 && random.nextDouble() >= loss) {
+            final int slot = snapshotTail++ % IN_FLIGHT;
+            snapshotArrival[slot] = arrival();
+            Protocol.quantize(car.getState(), snapshotKart[slot], 0);
+            snapshotInput[slot] = lastInput;
+            snapshotInputTicks[slot] = inputTicks;
+        }
+    }
+
+    //true if a snapshot got to the client by now, the newest one is in getKarts / getInputUsed / getInputTicks
+    public boolean poll() {
+        boolean newer = false;
+        while (snapshotHead < snapshotTail && snapshotArrival[snapshotHead % IN_FLIGHT] <= tick) {
+            final int slot = snapshotHead++ % IN_FLIGHT;
+            System.arraycopy(snapshotKart[slot], 0, karts, 0, Protocol.FIELDS);
+            receivedInput = snapshotInput[slot];
+            receivedInputTicks = snapshotInputTicks[slot];
+            newer = true;
+        }
+        return newer;
+    }
+
+    public int[] getKarts() {
+        return karts;
+    }
+
+    public int getInputUsed() {
+        return receivedInput;
+    }
+
+    public int getInputTicks() {
+        return receivedInputTicks;
+    }
+
+    //the real kart on the server
+    public Car getCar() {
+        return car;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+}
@@ -0,0 +1,129 @@
+package de.robinfrederik.drunkracing.net;
+
+import de.robinfrederik.drunkracing.car.Car;
+import de.robinfrederik.drunkracing.car.CarGoKartSport;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannModel;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+import de.robinfrederik.drunkracing.physics.ackermann.StateHistory;
+
+import java.util.Arrays;
+
+//the own kart of a networked player, stepped right away with the own inputs instead of waiting a round trip for the server
+//every tick the input goes into a ring and the state after it into the StateHistory of the car, when a snapshot comes the state of the tick it belongs to
+//is replaced by what the server says and the ticks since then are stepped again with the same inputs
+//the server tells which input it used last and for how many ticks, so the tick is the one this input started at plus that
+//a snapshot only has the fields of Protocol, the rest of the state (slip, forces) stays as it was predicted
+public class PredictedKart {
+    private final AckermannModel model;
+    private final double deltaT;
+    private final int size;                 // ticks in the ring
+    private final Car car;                  // its history has the state after every tick
+    private final byte[] steering;
+    private final byte[] accel;
+    private final int[] inputNumber;        // number of the input every tick was stepped with
+    private final long[] inputStart;        // tick an input number was first used, number % size
+    private final int[] inputStartNumber;   // which number is in that slot, -1 = none
+    private long tick;                      // ticks stepped since place
+    private boolean placed;
+
+    //numbers of the last reconcile
+    private int replayed;
+    private long replayNanos;
+    private double correction;              // world units the kart jumped
+    private long snaps;                     // snapshots that couldn't be matched to a tick, the kart was just put there
+
+    public PredictedKart(AckermannModel model, double deltaT, int size) {
+        this.model = model;
+        this.deltaT = deltaT;
+        this.size = size;
+        this.car = new CarGoKartSport(size);
+        this.steering = new byte[size];
+        this.accel = new byte[size];
+        this.inputNumber = new int[size];
+        this.inputStart = new long[size];
+        this.inputStartNumber = new int[size];
+        Arrays.fill(inputStartNumber, -1);
+    }
+
+    //put the kart where the first snapshot has it (kart of karts, see RaceClient.getKarts)
+    public void place(int[] karts, int kart) {
+        car.reset(); // also empties the history
+        Protocol.dequantize(karts, kart * Protocol.FIELDS, car.getState());
+        tick = 0;
+        Arrays.fill(inputStartNumber, -1);
+        placed = true;
+    }
+
+    public boolean isPlaced() {
+        return placed;
+    }
+
+    //one tick with the input that was sent with number input (the newest, see RaceClient.sendInput)
+    public void step(byte steering, byte accel, int input) {
+        final int slot = (int) (tick % size);
+        if (tick == 0 || inputNumber[(int) ((tick - 1) % size)] != input) {
+            inputStart[input % size] = tick;
+            inputStartNumber[input % size] = input;
+        }
+        this.steering[slot] = steering;
+        this.accel[slot] = accel;
+        this.inputNumber[slot] = input;
+        car.updateState(model, steering, accel, deltaT);
+        car.getHistory().save(tick, car.getState());
+        tick++;
+    }
+
+    //a snapshot arrived: the server had stepped the kart inputTicks ticks with input inputUsed
+    public void reconcile(int[] karts, int kart, int inputUsed, int inputTicks) {
+        final long start = System.nanoTime();
+        final AckermannState state = car.getState();
+        final double beforeX = state.getXCoM();
+        final double beforeY = state.getYCoM();
+        final StateHistory history = car.getHistory();
+        final long at = inputStart[Math.floorMod(inputUsed, size)] + inputTicks - 1; // tick of this side the snapshot belongs to
+        if (inputUsed <= 0 || inputStartNumber[Math.floorMod(inputUsed, size)] != inputUsed || at >= tick || !history.restore(at, state)) {
+            //no input used yet (the server sends 0 then, the numbers start at 1), input from before place, too old for the history, or the server is further than this side (it used the input longer)
+            Protocol.dequantize(karts, kart * Protocol.FIELDS, state);
+            if (tick > 0) history.save(tick - 1, state);
+            snaps++;
+            replayed = 0;
+        } else {
+            Protocol.dequantize(karts, kart * Protocol.FIELDS, state);
+            history.save(at, state);
+            for (long t = at + 1; t < tick; t++) {
+                final int slot = (int) (t % size);
+                car.updateState(model, steering[slot], accel[slot], deltaT);
+                history.save(t, state);
+            }
+            replayed = (int) (tick - 1 - at);
+        }
+        correction = Math.hypot(state.getXCoM() - beforeX, state.getYCoM() - beforeY);
+        replayNanos = System.nanoTime() - start;
+    }
+
+
+    //the predicted kart, for drawing
+    public AckermannState getState() {
+        return car.getState();
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getReplayed() {
+        return replayed;
+    }
+
+    public long getReplayNanos() {
+        return replayNanos;
+    }
+
+    public double getCorrection() {
+        return correction;
+    }
+
+    public long getSnaps() {
+        return snaps;
+    }
+}
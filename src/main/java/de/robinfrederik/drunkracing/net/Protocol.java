@@ -0,0 +1,121 @@
+package de.robinfrederik.drunkracing.net;
+
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+
+import java.nio.ByteBuffer;
+
+//packets between RaceServer and RaceClient, and how the karts are packed into them
+//input (client -> server): type, kart (-1 to join), input number, last snapshot received, steering, accel
+//snapshot (server -> client): type, snapshot number, base snapshot (-1 = none), tick, your kart, last input used,
+//ticks it was used for so far (a client can find the tick of its own the snapshot belongs to, see PredictedKart), kart count, karts
+//every kart is rounded to ints (FIELDS of them) and only sent as the difference to the same kart in the base snapshot,
+//the last one the client said it got: a byte with one bit per field that changed, then the changes as variable length numbers
+public final class Protocol {
+    public static final byte INPUT = 1;
+    public static final byte SNAPSHOT = 2;
+    public static final int INPUT_SIZE = 1 + 2 + 4 + 4 + 1 + 1;
+    public static final int SNAPSHOT_HEADER = 1 + 4 + 4 + 4 + 2 + 4 + 4 + 2;
+    public static final int MAX_PACKET = 65507;     // biggest UDP payload, a full snapshot of 128 karts is about 2 KB
+    public static final int HISTORY = 64;           // snapshots both sides remember as a base, older acks mean a full snapshot
+
+    //the fields of a kart and how finely they are rounded
+    public static final int FIELDS = 6;
+    private static final double POSITION_STEPS = 16;        // per world unit
+    private static final int YAW_STEPS = 65536;             // per turn
+    private static final double VELOCITY_STEPS = 256;       // per m/s
+    private static final double YAW_RATE_STEPS = 1024;      // per rad/s
+    private static final int YAW = 2;
+
+    private Protocol() {}
+
+    //x, y, yaw, longVel, latVel, yawRate of a kart into out from offset on
+    public static void quantize(AckermannState state, int[] out, int offset) {
+        out[offset] = (int) Math.round(state.getXCoM() * POSITION_STEPS);
+        out[offset + 1] = (int) Math.round(state.getYCoM() * POSITION_STEPS);
+        out[offset + 2] = (int) Math.floorMod(Math.round(state.getYaw() / (2 * Math.PI) * YAW_STEPS), (long) YAW_STEPS);
+        out[offset + 3] = (int) Math.round(state.getLongVel() * VELOCITY_STEPS);
+        out[offset + 4] = (int) Math.round(state.getLatVel() * VELOCITY_STEPS);
+        out[offset + 5] = (int) Math.round(state.getYawRate() * YAW_RATE_STEPS);
+    }
+
+    //the other way round, only the fields of the snapshot are set, the rest of the state stays
+    public static void dequantize(int[] in, int offset, AckermannState state) {
+        state.setXCoM(in[offset] / POSITION_STEPS);
+        state.setYCoM(in[offset + 1] / POSITION_STEPS);
+        state.setYaw(in[offset + 2] * 2 * Math.PI / YAW_STEPS);
+        state.setLongVel(in[offset + 3] / VELOCITY_STEPS);
+        state.setLatVel(in[offset + 4] / VELOCITY_STEPS);
+        state.setYawRate(in[offset + 5] / YAW_RATE_STEPS);
+    }
+
+    public static double x(int[] in, int kart) {
+        return in[kart * FIELDS] / POSITION_STEPS;
+    }
+
+    public static double y(int[] in, int kart) {
+        return in[kart * FIELDS + 1] / POSITION_STEPS;
+    }
+
+    public static double yaw(int[] in, int kart) {
+        return in[kart * FIELDS + YAW] * 2 * Math.PI / YAW_STEPS;
+    }
+
+    //karts 0 to count - 1 of state as changes to base (karts the base doesn't have count as all zeros, base may be null)
+    public static void writeKarts(ByteBuffer out, int[] state, int count, int[] base, int baseCount) {
+        for (int kart = 0; kart < count; kart++) {
+            final int offset = kart * FIELDS;
+            final boolean inBase = base != null && kart < baseCount;
+            int mask = 0;
+            for (int field = 0; field < FIELDS; field++) {
+                if (state[offset + field] != (inBase ? base[offset + field] : 0)) mask |= 1 << field;
+            }
+            out.put((byte) mask);
+            for (int field = 0; field < FIELDS; field++) {
+                if ((mask & (1 << field)) == 0) continue;
+                int change = state[offset + field] - (inBase ? base[offset + field] : 0);
+                if (field == YAW) change = wrapYaw(change);
+                writeVarInt(out, change);
+            }
+        }
+    }
+
+    //reverse of writeKarts into out
+    public static void readKarts(ByteBuffer in, int[] out, int count, int[] base, int baseCount) {
+        for (int kart = 0; kart < count; kart++) {
+            final int offset = kart * FIELDS;
+            final boolean inBase = base != null && kart < baseCount;
+            final int mask = in.get();
+            for (int field = 0; field < FIELDS; field++) {
+                int value = inBase ? base[offset + field] : 0;
+                if ((mask & (1 << field)) != 0) value += readVarInt(in);
+                out[offset + field] = field == YAW ? Math.floorMod(value, YAW_STEPS) : value;
+            }
+        }
+    }
+
+    //yaw change the short way round, so a kart turning over 0 doesn't send a whole turn
+    private static int wrapYaw(int change) {
+        change = Math.floorMod(change, YAW_STEPS);
+        return change >= YAW_STEPS / 2 ? change - YAW_STEPS : change;
+    }
+
+    //zigzag (small negative numbers become small positive ones) and then 7 bits per byte, the high bit says another byte follows
+    static void writeVarInt(ByteBuffer out, int value) {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            out.put((byte) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.put((byte) zigzag);
+    }
+
+    static int readVarInt(ByteBuffer in) {
+        int zigzag = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final int b = in.get();
+            zigzag |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+        throw new IllegalArgumentException("broken number in a packet");
+    }
+}
@@ -0,0 +1,189 @@
+package de.robinfrederik.drunkracing.net;
+
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+
+//the player side of a RaceServer: sends the inputs and unpacks the snapshots, doesn't step anything itself
+//keeps the last HISTORY snapshots because the next one may be sent as the difference to any of them
+//joins on the port of the server, the first snapshot comes from the port the server opened for this client alone
+//and the channel gets connected to it, from then on reading doesn't make a sender address and nothing here makes garbage per packet
+public class RaceClient implements AutoCloseable {
+    private final InetSocketAddress server;
+    private final DatagramChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocateDirect(Protocol.MAX_PACKET);
+    private final ByteBuffer out = ByteBuffer.allocateDirect(Protocol.INPUT_SIZE);
+    private final int[][] history;
+    private final int[] historyNumber;  // snapshot number in every slot, -1 = empty
+    private final int[] historyCount;
+
+    private int kart = -1;              // -1 until the server answered
+    private int snapshot = -1;          // newest snapshot
+    private int snapshotTick;
+    private int lastInputUsed;          // newest input the server had used for it
+    private int inputTicks;             // and for how many ticks
+    private int input;                  // number of the last input sent
+    private long bytesReceived;
+    private long bytesSent;
+    private long lost;                  // snapshots that couldn't be read because their base was gone
+
+    public RaceClient(InetSocketAddress server, int maxKarts) {
+        this.history = new int[Protocol.HISTORY][maxKarts * Protocol.FIELDS];
+        this.historyNumber = new int[Protocol.HISTORY];
+        this.historyCount = new int[Protocol.HISTORY];
+        Arrays.fill(historyNumber, -1);
+        this.server = server;
+        try {
+            this.channel = DatagramChannel.open();
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            throw new RuntimeException("could not connect to the race server " + server, e);
+        }
+    }
+
+    //steering and accel like the CarVisual inputs (-1, 0, 1), also tells the server which snapshot came last
+    //returns the number of this input
+    public int sendInput(byte steering, byte accel) {
+        input++;
+        out.clear();
+        out.put(Protocol.INPUT).putShort((short) kart).putInt(input).putInt(snapshot).put(steering).put(accel);
+        out.flip();
+        try {
+            bytesSent += channel.isConnected() ? channel.write(out) : channel.send(out, server);
+        } catch (IOException e) {
+            throw new RuntimeException("could not send to the race server", e);
+        }
+        return input;
+    }
+
+    //reads everything that arrived, true if there is a newer snapshot
+    public boolean poll() {
+        boolean newer = false;
+        try {
+            if (!channel.isConnected()) {
+                SocketAddress sender;
+                while ((sender = channel.receive(in)) != null) {
+                    in.flip();
+                    bytesReceived += in.remaining();
+                    //the answer to joining, comes from the channel of this client on the server
+                    if (sender instanceof InetSocketAddress && ((InetSocketAddress) sender).getAddress().equals(server.getAddress()) && read()) {
+                        channel.connect(sender);
+                        in.clear();
+                        newer = true;
+                        break;
+                    }
+                    in.clear();
+                }
+                if (!channel.isConnected()) return newer;
+            }
+            while (channel.read(in) > 0) {
+                in.flip();
+                bytesReceived += in.remaining();
+                newer |= read();
+                in.clear();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("could not receive from the race server", e);
+        }
+        return newer;
+    }
+
+    private boolean read() {
+        if (in.remaining() < Protocol.SNAPSHOT_HEADER || in.get() != Protocol.SNAPSHOT) return false;
+        final int number = in.getInt();
+        final int base = in.getInt();
+        final int tick = in.getInt();
+        final int yourKart = in.getShort();
+        final int inputUsed = in.getInt();
+        final int ticksUsed = in.getInt();
+        final int count = in.getShort();
+        if (number <= snapshot) return false; // late, there is a newer one already
+        final int[] target = history[number % Protocol.HISTORY];
+        if (count < 0 || count * Protocol.FIELDS > target.length) return false;
+        int[] baseState = null;
+        int baseCount = 0;
+        if (base >= 0) {
+            final int baseSlot = base % Protocol.HISTORY;
+            if (historyNumber[baseSlot] != base) {
+                lost++;
+                return false;
+            }
+            baseState = history[baseSlot];
+            baseCount = historyCount[baseSlot];
+        }
+        try {
+            Protocol.readKarts(in, target, count, baseState, baseCount);
+        } catch (RuntimeException e) {
+            historyNumber[number % Protocol.HISTORY] = -1; // broken packet, the slot is half overwritten
+            return false;
+        }
+        historyNumber[number % Protocol.HISTORY] = number;
+        historyCount[number % Protocol.HISTORY] = count;
+        snapshot = number;
+        snapshotTick = tick;
+        kart = yourKart;
+        lastInputUsed = inputUsed;
+        inputTicks = ticksUsed;
+        return true;
+    }
+
+    //rounded karts of the newest snapshot, see Protocol.x / y / yaw
+    public int[] getKarts() {
+        return history[Math.max(0, snapshot) % Protocol.HISTORY];
+    }
+
+    //a kart of the newest snapshot into state
+    public void getState(int kart, AckermannState state) {
+        Protocol.dequantize(getKarts(), kart * Protocol.FIELDS, state);
+    }
+
+    public int getKartCount() {
+        return snapshot < 0 ? 0 : historyCount[snapshot % Protocol.HISTORY];
+    }
+
+    public int getKart() {
+        return kart;
+    }
+
+    public int getSnapshot() {
+        return snapshot;
+    }
+
+    public int getSnapshotTick() {
+        return snapshotTick;
+    }
+
+    public int getLastInputUsed() {
+        return lastInputUsed;
+    }
+
+    public int getInputTicks() {
+        return inputTicks;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getLost() {
+        return lost;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
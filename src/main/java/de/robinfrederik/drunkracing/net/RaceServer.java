@@ -0,0 +1,351 @@
+package de.robinfrederik.drunkracing.net;
+
+import de.robinfrederik.drunkracing.car.Car;
+import de.robinfrederik.drunkracing.car.CarGoKartSport;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannModel;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.function.Consumer;
+
+//headless race without a window: steps the karts of all connected players with a fixed tick like the PhysicsLoop,
+//takes their inputs over UDP and sends everybody snapshots of all karts (see Protocol)
+//a snapshot is the difference to the last one the client confirmed, so a kart standing still costs one byte
+//a client joins on the port of the server and gets its own channel (own port, connected to it) from then on,
+//the JDK makes a new sender address for every packet on a shared channel, with connected ones and the selector
+//a tick with packets in and out doesn't make garbage, only joining does
+//the server is the only one who steps the karts, what the clients show is what it sent
+public class RaceServer implements AutoCloseable {
+    private static final double TIMEOUT = 5;    // seconds without a packet until a kart is freed again
+
+    private final AckermannModel model;
+    private final double deltaT;
+    private final int snapshotEvery;    // ticks between two snapshots
+    private final int maxKarts;
+    private final InetSocketAddress bind;
+    private final DatagramChannel lobby;        // the port everybody knows, only for joining
+    private final Selector selector;
+    private final Consumer<SelectionKey> reader = this::read;
+    private final ByteBuffer in = ByteBuffer.allocateDirect(Protocol.MAX_PACKET);
+    private final ByteBuffer out = ByteBuffer.allocateDirect(Protocol.MAX_PACKET);
+    //the kart part of a snapshot only depends on the base, clients that confirmed the same snapshot get the same bytes
+    private final ByteBuffer blocks = ByteBuffer.allocateDirect(Protocol.MAX_PACKET);
+    private final int[] blockBase = new int[8];
+    private final int[] blockStart = new int[8];
+    private final int[] blockLength = new int[8];
+    private int blockCount;
+
+    //per kart slot
+    private final Car[] cars;
+    private final SocketAddress[] clients;      // null = free
+    private final DatagramChannel[] channels;   // connected to the client
+    private final byte[] steering;
+    private final byte[] accel;
+    private final int[] lastInput;              // number of the newest input that was used
+    private final int[] inputTicks;             // ticks the kart was stepped with it
+    private final int[] acked;                  // newest snapshot the client got, -1 = none yet
+    private final long[] lastHeard;             // tick of the last packet
+    private final long[] bytesSent;
+    private final long[] bytesReceived;
+
+    //rounded karts of the last HISTORY snapshots, the bases for the differences
+    private final int[][] history;
+    private final int[] historyCount;
+    private int snapshot = -1;                  // number of the newest snapshot
+    private int kartCount;                      // highest used slot + 1
+
+    private double gridX, gridY, gridYaw, gridGap = 90;
+    private long tick;
+    private volatile long lastTickNanos;
+    private volatile boolean running;
+    private Thread thread;
+
+    public RaceServer(AckermannModel model, int maxKarts, double deltaT, int snapshotEvery, InetSocketAddress bind) {
+        this.model = model;
+        this.deltaT = deltaT;
+        this.snapshotEvery = snapshotEvery;
+        this.maxKarts = maxKarts;
+        this.cars = new Car[maxKarts];
+        this.clients = new SocketAddress[maxKarts];
+        this.channels = new DatagramChannel[maxKarts];
+        this.steering = new byte[maxKarts];
+        this.accel = new byte[maxKarts];
+        this.lastInput = new int[maxKarts];
+        this.inputTicks = new int[maxKarts];
+        this.acked = new int[maxKarts];
+        this.lastHeard = new long[maxKarts];
+        this.bytesSent = new long[maxKarts];
+        this.bytesReceived = new long[maxKarts];
+        this.history = new int[Protocol.HISTORY][maxKarts * Protocol.FIELDS];
+        this.historyCount = new int[Protocol.HISTORY];
+        for (int i = 0; i < maxKarts; i++) cars[i] = new CarGoKartSport();
+        try {
+            this.lobby = DatagramChannel.open();
+            lobby.bind(bind);
+            lobby.configureBlocking(false);
+            this.bind = (InetSocketAddress) lobby.getLocalAddress();
+            this.selector = Selector.open();
+            lobby.register(selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            throw new RuntimeException("could not open the race server on " + bind, e);
+        }
+    }
+
+    //where joining karts are put: two per row behind (x, y) looking along yaw, gap world units between the rows
+    public void setGrid(double x, double y, double yaw, double gap) {
+        this.gridX = x;
+        this.gridY = y;
+        this.gridYaw = yaw;
+        this.gridGap = gap;
+    }
+
+    //own thread with a fixed tick, like the PhysicsLoop
+    public void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(() -> {
+            final double nsDeltaT = 1e9 * deltaT;
+            double lastTime = System.nanoTime();
+            while (running) {
+                if (System.nanoTime() - lastTime >= nsDeltaT) {
+                    tick();
+                    lastTime += nsDeltaT;
+                }
+                try {
+                    Thread.sleep(0, 200_000);
+                } catch (InterruptedException ignored) {}
+            }
+        }, "race-server");
+        thread.start();
+    }
+
+    //one tick: read all inputs, step every kart, every snapshotEvery ticks send the snapshots
+    //start() calls it on its thread, without start() it can be called directly (tests, benchmark)
+    public void tick() {
+        final long start = System.nanoTime();
+        try {
+            selector.selectNow(reader);
+        } catch (IOException e) {
+            throw new RuntimeException("race server could not receive", e);
+        }
+        for (int i = 0; i < kartCount; i++) {
+            if (clients[i] == null) continue;
+            if (tick - lastHeard[i] > TIMEOUT / deltaT) {
+                leave(i); // gone, the kart stays in the snapshots where it stopped until somebody else gets the slot
+                continue;
+            }
+            cars[i].updateState(model, steering[i], accel[i], deltaT);
+            inputTicks[i]++;
+        }
+        tick++;
+        if (tick % snapshotEvery == 0) sendSnapshots();
+        lastTickNanos = System.nanoTime() - start;
+    }
+
+    //everything that arrived on a channel the selector found ready, the attachment is the kart of the client (none on the lobby)
+    private void read(SelectionKey key) {
+        final DatagramChannel channel = (DatagramChannel) key.channel();
+        try {
+            if (channel == lobby) {
+                SocketAddress sender;
+                while ((sender = lobby.receive(in)) != null) {
+                    in.flip();
+                    if (isInput()) {
+                        final int kart = join(sender);
+                        if (kart >= 0) input(kart);
+                    }
+                    in.clear();
+                }
+            } else {
+                final int kart = (Integer) key.attachment();
+                while (channel.read(in) > 0) {
+                    in.flip();
+                    if (isInput()) input(kart);
+                    in.clear();
+                }
+            }
+        } catch (IOException e) {
+            //a client that is gone can make the read fail (port unreachable), the timeout frees its kart
+            in.clear();
+        }
+    }
+
+    private boolean isInput() {
+        return in.remaining() == Protocol.INPUT_SIZE && in.get(0) == Protocol.INPUT;
+    }
+
+    private void input(int kart) {
+        final int number = in.getInt(3);
+        final int ack = in.getInt(7);
+        if (number > lastInput[kart]) {
+            lastInput[kart] = number;
+            inputTicks[kart] = 0;
+            steering[kart] = (byte) Math.max(-1, Math.min(1, in.get(11)));
+            accel[kart] = (byte) Math.max(-1, Math.min(1, in.get(12)));
+        }
+        if (ack > acked[kart] && ack <= snapshot) acked[kart] = ack;
+        lastHeard[kart] = tick;
+        bytesReceived[kart] += Protocol.INPUT_SIZE;
+    }
+
+    //slot of a new client (or of one whose join packet came twice), -1 if all are taken
+    private int join(SocketAddress sender) {
+        int free = -1;
+        for (int i = 0; i < maxKarts; i++) {
+            if (sender.equals(clients[i])) return i;
+            if (clients[i] == null && free < 0) free = i;
+        }
+        if (free < 0) return -1;
+        try {
+            final DatagramChannel channel = DatagramChannel.open();
+            channel.bind(new InetSocketAddress(bind.getAddress(), 0));
+            channel.connect(sender);
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, free);
+            channels[free] = channel;
+        } catch (IOException e) {
+            throw new RuntimeException("race server could not open a channel for " + sender, e);
+        }
+        clients[free] = sender;
+        steering[free] = 0;
+        accel[free] = 0;
+        lastInput[free] = 0;
+        inputTicks[free] = 0;
+        acked[free] = -1;
+        lastHeard[free] = tick;
+        bytesSent[free] = 0;
+        bytesReceived[free] = 0;
+        cars[free].reset();
+        final AckermannState state = cars[free].getState();
+        final double back = (free / 2 + 1) * gridGap;
+        final double side = free % 2 == 0 ? -gridGap / 3 : gridGap / 3;
+        state.setXCoM(gridX - Math.cos(gridYaw) * back - Math.sin(gridYaw) * side);
+        state.setYCoM(gridY - Math.sin(gridYaw) * back + Math.cos(gridYaw) * side);
+        state.setYaw(gridYaw);
+        kartCount = Math.max(kartCount, free + 1);
+        return free;
+    }
+
+    private void leave(int kart) {
+        clients[kart] = null;
+        try {
+            channels[kart].close(); // also takes it out of the selector
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        channels[kart] = null;
+    }
+
+    private void sendSnapshots() {
+        snapshot++;
+        final int slot = snapshot % Protocol.HISTORY;
+        final int[] state = history[slot];
+        for (int i = 0; i < kartCount; i++) Protocol.quantize(cars[i].getState(), state, i * Protocol.FIELDS);
+        historyCount[slot] = kartCount;
+
+        blocks.clear();
+        blockCount = 0;
+        for (int i = 0; i < kartCount; i++) {
+            if (clients[i] == null) continue;
+            final int base = acked[i] >= 0 && snapshot - acked[i] < Protocol.HISTORY ? acked[i] : -1;
+            out.clear();
+            out.put(Protocol.SNAPSHOT).putInt(snapshot).putInt(base).putInt((int) tick)
+                    .putShort((short) i).putInt(lastInput[i]).putInt(inputTicks[i]).putShort((short) kartCount);
+            final int block = block(base);
+            if (block >= 0) {
+                out.put(out.position(), blocks, blockStart[block], blockLength[block]);
+                out.position(out.position() + blockLength[block]);
+            } else { // more different bases than the cache holds, write it for this client alone
+                writeKarts(out, base);
+            }
+            out.flip();
+            try {
+                bytesSent[i] += channels[i].write(out); // 0 if the socket buffer is full, then this one is lost like on the network
+            } catch (IOException e) {
+                //port unreachable from an earlier packet, the client is probably gone and times out
+            }
+        }
+    }
+
+    //index of the kart bytes against base in blocks, written the first time a client needs them, -1 if the cache is full
+    private int block(int base) {
+        for (int i = 0; i < blockCount; i++) {
+            if (blockBase[i] == base) return i;
+        }
+        if (blockCount == blockBase.length) return -1;
+        final int start = blocks.position();
+        writeKarts(blocks, base);
+        blockBase[blockCount] = base;
+        blockStart[blockCount] = start;
+        blockLength[blockCount] = blocks.position() - start;
+        return blockCount++;
+    }
+
+    private void writeKarts(ByteBuffer buffer, int base) {
+        final int[] baseState = base >= 0 ? history[base % Protocol.HISTORY] : null;
+        final int baseCount = base >= 0 ? historyCount[base % Protocol.HISTORY] : 0;
+        Protocol.writeKarts(buffer, history[snapshot % Protocol.HISTORY], kartCount, baseState, baseCount);
+    }
+
+    //the port to join on
+    public InetSocketAddress getAddress() {
+        return bind;
+    }
+
+    public Car getCar(int kart) {
+        return cars[kart];
+    }
+
+    public boolean isConnected(int kart) {
+        return clients[kart] != null;
+    }
+
+    public int getKartCount() {
+        return kartCount;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getSnapshot() {
+        return snapshot;
+    }
+
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    public long getBytesSent(int kart) {
+        return bytesSent[kart];
+    }
+
+    public long getBytesReceived(int kart) {
+        return bytesReceived[kart];
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException ignored) {}
+        }
+        try {
+            for (int i = 0; i < maxKarts; i++) {
+                if (channels[i] != null) channels[i].close();
+            }
+            lobby.close();
+            selector.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
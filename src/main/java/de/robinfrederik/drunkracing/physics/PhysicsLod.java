@@ -0,0 +1,46 @@
+package de.robinfrederik.drunkracing.physics;
+
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannModel;
+
+//level of detail for the physics of karts, by their distance to the point that matters (the player, the camera)
+//FULL: the full model every tick, REDUCED: the cheap model (e.g. KinematicBicycleModel) every tick,
+//FAR: the cheap model every farEvery-th tick with a step that long
+//a kart only changes level once it is margin world units past a border, so one driving along it doesn't switch every tick
+//the models themselves keep the state, switching is just stepping the same state with the other one
+public class PhysicsLod {
+    public static final int FULL = 0;
+    public static final int REDUCED = 1;
+    public static final int FAR = 2;
+
+    private final AckermannModel full;
+    private final AckermannModel reduced;
+    private final double reducedFrom;   // world units
+    private final double farFrom;
+    private final double margin;
+    private final int farEvery;
+
+    public PhysicsLod(AckermannModel full, AckermannModel reduced, double reducedFrom, double farFrom, double margin, int farEvery) {
+        this.full = full;
+        this.reduced = reduced;
+        this.reducedFrom = reducedFrom;
+        this.farFrom = farFrom;
+        this.margin = margin;
+        this.farEvery = Math.max(1, farEvery);
+    }
+
+    //level for a kart distance world units away that had level current so far
+    public int level(double distance, int current) {
+        final double reducedBorder = reducedFrom + (current >= REDUCED ? -margin : margin);
+        final double farBorder = farFrom + (current >= FAR ? -margin : margin);
+        if (distance >= farBorder) return FAR;
+        return distance >= reducedBorder ? REDUCED : FULL;
+    }
+
+    public AckermannModel getModel(int level) {
+        return level == FULL ? full : reduced;
+    }
+
+    public int getFarEvery() {
+        return farEvery;
+    }
+}
@@ -1,17 +1,52 @@
 package de.robinfrederik.drunkracing.physics;
 import de.robinfrederik.drunkracing.physics.*;
 import de.robinfrederik.drunkracing.car.*;
+import de.robinfrederik.drunkracing.ai.AiField;
+import de.robinfrederik.drunkracing.track.GhostRecorder;
+import de.robinfrederik.drunkracing.track.RaceTracker;
 import de.robinfrederik.drunkracing.physics.ackermann.AckermannModel;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+import de.robinfrederik.drunkracing.physics.ackermann.KartSleep;
+import de.robinfrederik.drunkracing.physics.ackermann.formulae.SurfaceFormula;
+import de.robinfrederik.drunkracing.physics.collision.detection.CollisionDetection;
+import de.robinfrederik.drunkracing.physics.collision.response.CollisionResponse;
+import de.robinfrederik.drunkracing.physics.collision.response.KartContact;
 
 //runs on a separate thread with a chosen physics model and updates the state of the car 1000x a second
 //main then takes the most recent value when it needs it for visualisation
 public class PhysicsLoop {
+    //rounds of the warm up: standing without input, full throttle with the steering switching, braking, then backwards
+    private static final int WARM_UP_ROUND = 4000;
+
     private final AckermannModel physicsModel;
     private final double deltaT;
     private final double nsDeltaT;
     private volatile boolean loopActive;
     private Thread loopThread;
 
+    //optional, without it the car just drives through everything
+    private volatile CollisionDetection collisionDetection;
+    private volatile CollisionResponse collisionResponse; //optional, with it the car bounces off walls instead of ending the game
+    private volatile SurfaceFormula surface; //optional, without it the tires have the same grip everywhere
+    private volatile AiField opponents; //optional, AI karts stepped in the same tick as the player
+    private volatile KartContact kartContact; //optional, with it the player and the opponents bump into each other instead of driving through
+    private volatile RaceTracker raceTracker; //optional, laps, sectors and positions, the player is kart 0 and the opponents follow
+    private volatile GhostRecorder ghostRecorder; //optional, poses of the player for the ghost car
+    private volatile KartSleep sleep; //optional, the player's kart skips its steps while it stands without input
+    private volatile boolean collided;
+    private volatile long lastCollisionNanos;   // time the last collision check took
+    private volatile long maxCollisionNanos;    // slowest collision check since the loop was started
+
+    //numbers for the profiler, written by the physics thread only
+    private final long[] stepNanos = new long[1024]; // duration of the last steps (ring buffer), read without locking so a value can be off by one step
+    private volatile long tickCount;            // steps since the loop was started
+    private volatile long lateTicks;            // steps that ran more than a whole step after they were due (the loop was behind)
+
+    private Thread warmUpThread;
+    private volatile boolean warmUpActive;
+    private volatile long warmUpTicks;          // steps the last warm up did
+    private volatile long warmUpWallHits;       // and how often its kart touched a wall
+
     public PhysicsLoop(AckermannModel physicsModel,
                        double deltaT) {
         this.physicsModel = physicsModel;
@@ -19,23 +54,203 @@ public class PhysicsLoop {
         this.nsDeltaT = 1e9 * deltaT; //convert deltaT(0.001 s) to ns
     }
 
+    //set before startLoop, null switches collision off
+    public void setCollisionDetection(CollisionDetection collisionDetection) {
+        this.collisionDetection = collisionDetection;
+    }
+
+    //set before startLoop, null means a wall hit only gets reported through hasCollided
+    public void setCollisionResponse(CollisionResponse collisionResponse) {
+        this.collisionResponse = collisionResponse;
+    }
+
+    //set before startLoop, null keeps whatever grip the state has
+    public void setSurface(SurfaceFormula surface) {
+        this.surface = surface;
+    }
+
+    //set before startLoop, null means no AI karts
+    public void setOpponents(AiField opponents) {
+        this.opponents = opponents;
+    }
+
+    //set before startLoop, null means the karts drive through each other
+    public void setKartContact(KartContact kartContact) {
+        this.kartContact = kartContact;
+    }
+
+    //set before startLoop, null means no lap counting in the physics thread
+    public void setRaceTracker(RaceTracker raceTracker) {
+        this.raceTracker = raceTracker;
+    }
+
+    //set before startLoop, null means nothing is recorded, read it only after stopLoop
+    public void setGhostRecorder(GhostRecorder ghostRecorder) {
+        this.ghostRecorder = ghostRecorder;
+    }
+
+    //set before startLoop, null means the player's kart is stepped every tick, a new kart wants a new one
+    public void setSleep(KartSleep sleep) {
+        this.sleep = sleep;
+    }
+
+    //drives a throwaway kart from where car stands through the code of the race with inputs like a driver's until ticks steps are done,
+    //so the JIT has compiled all of it (C2) when the race starts and the first seconds after GO run as fast as the rest
+    //meant for the countdown: set collision, surface, race tracker etc. first, it uses them; startLoop and stopLoop end it
+    //the collision detection, race tracker, ghost recorder and sleep are own copies, so the race finds them as they were set,
+    //the map and the surface are the forAnotherThread copies (a tiled map: own tiles that get waited for, so its walls are the real ones
+    //and the tile cache of the race isn't touched), the response and the model only get read
+    //runs flat out on its own thread, 20000 steps took a quarter of a second on one core (the compiling included)
+    public void startWarmUp(Car car, int ticks) {
+        stopWarmUp();
+        final CollisionDetection collisionDetection = this.collisionDetection;
+        final CollisionResponse response = this.collisionResponse;
+        final RaceTracker raceTracker = this.raceTracker;
+        //own copies of everything that keeps state, the race starts with fresh ones
+        final CollisionDetection collision = collisionDetection != null
+                ? new CollisionDetection(collisionDetection.getMap().forAnotherThread(), collisionDetection.getHalfLength(), collisionDetection.getHalfWidth())
+                : null;
+        final SurfaceFormula surface = this.surface != null ? this.surface.forAnotherThread() : null;
+        final RaceTracker tracker = raceTracker != null
+                ? new RaceTracker(raceTracker.getField(), raceTracker.getSectorCount(), 1, this.deltaT)
+                : null;
+        final GhostRecorder recorder = this.ghostRecorder != null ? new GhostRecorder(0.01, 10) : null;
+        final KartSleep sleep = this.sleep != null ? new KartSleep(0.01, 0.001, 100) : null;
+        final Car kart = new CarGoKartSport();
+        final AckermannState start = new AckermannState();
+        car.getState().copyTo(start);
+
+        warmUpTicks = 0;
+        warmUpWallHits = 0;
+        warmUpActive = true;
+        warmUpThread = new Thread(() -> {
+            for (int tick = 0; tick < ticks && warmUpActive; tick++) {
+                final int roundTick = tick % WARM_UP_ROUND;
+                if (roundTick == 0) { // back to the start, standing, so the sleep gets its turn as well
+                    kart.getState().copyFrom(start);
+                    if (collision != null) collision.reset(kart.getState());
+                    if (recorder != null) recorder.reset();
+                }
+                stepCar(kart, warmUpSteering(tick / WARM_UP_ROUND, roundTick), warmUpAccel(roundTick), surface, sleep);
+                if (collision != null && collide(kart, collision, response)) {
+                    kart.getState().copyFrom(start); // without a response the race would be over, here it starts again
+                    collision.reset(kart.getState());
+                }
+                if (tracker != null) {
+                    tracker.track(0, kart.getState());
+                    tracker.finishTick();
+                }
+                if (recorder != null) recorder.record((roundTick + 1) * this.deltaT, kart.getState());
+                warmUpTicks = tick + 1;
+            }
+            if (collision != null) warmUpWallHits = collision.getHits();
+        }, "physics-warm-up");
+        warmUpThread.setDaemon(true);
+        warmUpThread.start();
+    }
+
+    //even rounds switch the steering at another pace each and start to another side, odd rounds turn off the road
+    //to one side and then go straight, so the kart gets to the walls next to the track and not only along it
+    private static byte warmUpSteering(int round, int roundTick) {
+        if (roundTick < 300) return 0;
+        if (round % 2 == 1) return roundTick < 1100 + 100 * (round % 3) ? (byte) (round % 4 == 1 ? 1 : -1) : 0;
+        return (byte) ((roundTick / (150 + 100 * (round % 4)) + round) % 3 - 1);
+    }
+
+    private static byte warmUpAccel(int roundTick) {
+        if (roundTick < 300) return 0;
+        if (roundTick < 2800) return 1;
+        return -1;
+    }
+
+    //ends the warm up if it still runs and waits for its thread
+    public void stopWarmUp() {
+        warmUpActive = false;
+        if (warmUpThread != null) {
+            try {
+                warmUpThread.join();
+            } catch (InterruptedException ignored) {}
+            warmUpThread = null;
+        }
+    }
+
+    public long getWarmUpTicks() {
+        return warmUpTicks;
+    }
+
+    //set when the warm up is done
+    public long getWarmUpWallHits() {
+        return warmUpWallHits;
+    }
+
     public void startLoop(CarVisual carVisual) {
         //prevent three threads disaster
         if (loopActive) return;
+        stopWarmUp(); // the race gets the core, the warm up has done its job by GO
         loopActive = true;
 
+        collided = false;
+        lastCollisionNanos = 0;
+        maxCollisionNanos = 0;
+        tickCount = 0;
+        lateTicks = 0;
+        final CollisionDetection collision = this.collisionDetection;
+        final CollisionResponse response = this.collisionResponse;
+        final SurfaceFormula surface = this.surface;
+        final AiField opponents = this.opponents;
+        final KartContact kartContact = opponents != null ? this.kartContact : null; // alone there is nobody to bump into
+        final RaceTracker raceTracker = this.raceTracker;
+        final GhostRecorder ghostRecorder = this.ghostRecorder;
+        final KartSleep sleep = this.sleep;
+        final Car[] karts = kartContact != null ? new Car[1 + opponents.getCount()] : null; // the player first, like in the race tracker
+        if (karts != null) {
+            karts[0] = carVisual.getCar();
+            for (int i = 0; i < opponents.getCount(); i++) karts[i + 1] = opponents.getCar(i);
+        }
+        if (ghostRecorder != null) {
+            ghostRecorder.record(0, carVisual.getCar().getState()); // the standing start
+        }
+        if (collision != null) {
+            collision.reset(carVisual.getCar().getState()); // sweep from where the car stands now
+        }
+
         //separate thread to keep physics and visualisation separate and keep physics from being distorted by lag
         loopThread = new Thread(() -> {
             double lastTime = System.nanoTime();
             while (loopActive) {
                 double now = System.nanoTime();
                 if (now - lastTime >= this.nsDeltaT) {
-                    carVisual.getCar().updateState( //update physical body of visual car
-                            this.physicsModel,
-                            carVisual.getSteeringInput(),//collect user input
-                            carVisual.getAccelInput(),
-                            this.deltaT
-                            );
+                    if (now - lastTime >= 2 * this.nsDeltaT) lateTicks++;
+                    long stepStart = System.nanoTime();
+                    stepCar(carVisual.getCar(), carVisual.getSteeringInput(), carVisual.getAccelInput(), surface, sleep);
+
+                    if (collision != null) {
+                        //the time includes the response, so a wall hit shows up here too
+                        long collisionStart = System.nanoTime();
+                        if (collide(carVisual.getCar(), collision, response)) collided = true;
+                        long collisionNanos = System.nanoTime() - collisionStart;
+                        lastCollisionNanos = collisionNanos;
+                        if (collisionNanos > maxCollisionNanos) maxCollisionNanos = collisionNanos;
+                    }
+                    if (opponents != null) {
+                        final AckermannState player = carVisual.getCar().getState();
+                        opponents.setFocus(player.getXCoM(), player.getYCoM()); //the karts around the player get the full model, if the field has a LOD
+                        opponents.step(this.deltaT); //same tick, so they are never ahead or behind the player
+                        if (kartContact != null) kartContact.resolve(karts, karts.length); //after everybody moved, before anything looks at the poses
+                        opponents.publish();
+                    }
+                    if (raceTracker != null) {
+                        raceTracker.track(0, carVisual.getCar().getState()); //after the collision, so a kart in the wall doesn't count
+                        if (opponents != null) {
+                            for (int i = 0; i < opponents.getCount(); i++) raceTracker.track(i + 1, opponents.getCar(i).getState());
+                        }
+                        raceTracker.finishTick();
+                    }
+                    if (ghostRecorder != null) {
+                        ghostRecorder.record((tickCount + 1) * this.deltaT, carVisual.getCar().getState()); //time at the end of this step
+                    }
+                    stepNanos[(int) (tickCount % stepNanos.length)] = System.nanoTime() - stepStart;
+                    tickCount++;
                     lastTime += this.nsDeltaT;
                 }
 
@@ -48,7 +263,37 @@ public class PhysicsLoop {
         loopThread.start();
     }
 
+    //grip of the ground, then the model (through the sleep if there is one), the race and the warm up both step the car here
+    //(package private for the PhysicsWarmUpBenchmark, which steps a race without a CarVisual)
+    void stepCar(Car car, double steering, double accel, SurfaceFormula surface, KartSleep sleep) {
+        if (surface != null) {
+            surface.formula(car); //grip of what the tires stand on right now
+        }
+        if (sleep != null) {
+            //the same step, skipped while the kart stands without input, a collision response wakes it
+            sleep.step(car, this.physicsModel, steering, accel, this.deltaT);
+        } else {
+            car.updateState( //update physical body of visual car
+                    this.physicsModel,
+                    steering,
+                    accel,
+                    this.deltaT
+                    );
+        }
+    }
+
+    //swept check from the last pose, puts the car back to the point of contact if it hit something
+    //true if it hit a wall and there is no response to bounce it off
+    boolean collide(Car car, CollisionDetection collision, CollisionResponse response) {
+        if (!collision.sweep(car.getState())) return false;
+        if (response == null) return true;
+        response.apply(car, collision.getContact()); //bounce off, the race goes on
+        collision.reset(car.getState()); //the response may have pushed the car out of the wall
+        return false;
+    }
+
     public void stopLoop() {
+        stopWarmUp();
         loopActive = false;
         if (loopThread != null) {
             try {
@@ -56,4 +301,38 @@ public class PhysicsLoop {
             } catch (InterruptedException ignored) {}
         }
     }
+
+    //true once the car touched a wall since the loop was started (only without a collision response)
+    public boolean hasCollided() {
+        return collided;
+    }
+
+    public long getLastCollisionNanos() {
+        return lastCollisionNanos;
+    }
+
+    public long getMaxCollisionNanos() {
+        return maxCollisionNanos;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public long getLateTicks() {
+        return lateTicks;
+    }
+
+    //copies the durations of the last steps into target (as many as fit and exist), returns how many
+    public int copyStepNanos(long[] target) {
+        final int count = (int) Math.min(Math.min(tickCount, stepNanos.length), target.length);
+        System.arraycopy(stepNanos, 0, target, 0, count);
+        return count;
+    }
+
+    //id of the physics thread, to ask the JVM how much it allocates, -1 if it isn't running
+    public long getThreadId() {
+        final Thread thread = loopThread;
+        return thread == null || !thread.isAlive() ? -1 : thread.getId();
+    }
 }
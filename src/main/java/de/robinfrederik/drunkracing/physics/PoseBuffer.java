@@ -0,0 +1,67 @@
+package de.robinfrederik.drunkracing.physics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+//hands the poses of many karts from the physics thread to the renderer without locks and without garbage
+//triple buffering: the physics thread fills its own arrays and swaps them with the middle ones in publish,
+//the renderer swaps the middle ones with its own in acquire if something new was published
+//so both sides always work on complete arrays of the same step, and neither ever waits for the other
+public class PoseBuffer {
+    private static final int DIRTY = 4;     // bit in middle: set by publish, cleared by acquire
+
+    private final double[][] x = new double[3][];
+    private final double[][] y = new double[3][];
+    private final double[][] yaw = new double[3][];
+    private final int[] count = new int[3];
+
+    private int back = 0;                                   // only touched by the physics thread
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int front = 2;                                  // only touched by the renderer
+
+    public PoseBuffer(int capacity) {
+        for (int i = 0; i < 3; i++) {
+            x[i] = new double[capacity];
+            y[i] = new double[capacity];
+            yaw[i] = new double[capacity];
+        }
+    }
+
+    public int getCapacity() {
+        return x[0].length;
+    }
+
+    //physics side: write every kart, then publish
+    public void set(int kart, double xCoM, double yCoM, double kartYaw) {
+        x[back][kart] = xCoM;
+        y[back][kart] = yCoM;
+        yaw[back][kart] = kartYaw;
+    }
+
+    public void publish(int karts) {
+        count[back] = karts;
+        back = middle.getAndSet(back | DIRTY) & ~DIRTY;
+    }
+
+    //render side: call once per frame, returns false if nothing new was published since the last call
+    public boolean acquire() {
+        if ((middle.get() & DIRTY) == 0) return false;
+        front = middle.getAndSet(front) & ~DIRTY;
+        return true;
+    }
+
+    public int getCount() {
+        return count[front];
+    }
+
+    public double getX(int kart) {
+        return x[front][kart];
+    }
+
+    public double getY(int kart) {
+        return y[front][kart];
+    }
+
+    public double getYaw(int kart) {
+        return yaw[front][kart];
+    }
+}
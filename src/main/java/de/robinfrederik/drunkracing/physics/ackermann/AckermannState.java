@@ -24,7 +24,10 @@ public class AckermannState{
     private double longForceBack;
     private double latForceFront;
     private double latForceBack;
-    private double tireGripCoeff;   //could be changed according to terrain grip
+    private double tireGripCoeffFront;  //changes with the terrain under the front axle, see SurfaceGripMap
+    private double tireGripCoeffBack;   //changes with the terrain under the back axle
+    private double rollingResFront;     //factor on the rolling resistance of the model, 1 = asphalt
+    private double rollingResBack;
 
 
     public AckermannState(double xCoM,
@@ -67,11 +70,149 @@ public class AckermannState{
         this.longForceBack = longForceBack;
         this.latForceFront = latForceFront;
         this.latForceBack = latForceBack;
-        this.tireGripCoeff = tireGripCoeff;
+        this.tireGripCoeffFront = tireGripCoeff;
+        this.tireGripCoeffBack = tireGripCoeff;
+        this.rollingResFront = 1;
+        this.rollingResBack = 1;
     }
 
     public AckermannState() {
-        this.tireGripCoeff = 2;
+        this.tireGripCoeffFront = 2;
+        this.tireGripCoeffBack = 2;
+        this.rollingResFront = 1;
+        this.rollingResBack = 1;
+    }
+
+    //copies of the whole state without making a new one, for saving and rolling back (see StateHistory)
+    //plain field copies, a few ns, nothing for the garbage collector
+    public void copyTo(AckermannState other) {
+        other.xCoM = xCoM;
+        other.yCoM = yCoM;
+        other.yaw = yaw;
+        other.longVel = longVel;
+        other.latVel = latVel;
+        other.yawRate = yawRate;
+        other.slipEffFront = slipEffFront;
+        other.slipEffBack = slipEffBack;
+        other.slipFront = slipFront;
+        other.slipBack = slipBack;
+        other.slipRateFront = slipRateFront;
+        other.slipRateBack = slipRateBack;
+        other.latAccel = latAccel;
+        other.longAccel = longAccel;
+        other.yawRateAccel = yawRateAccel;
+        other.longForceFront = longForceFront;
+        other.longForceBack = longForceBack;
+        other.latForceFront = latForceFront;
+        other.latForceBack = latForceBack;
+        other.tireGripCoeffFront = tireGripCoeffFront;
+        other.tireGripCoeffBack = tireGripCoeffBack;
+        other.rollingResFront = rollingResFront;
+        other.rollingResBack = rollingResBack;
+    }
+
+    public void copyFrom(AckermannState other) {
+        xCoM = other.xCoM;
+        yCoM = other.yCoM;
+        yaw = other.yaw;
+        longVel = other.longVel;
+        latVel = other.latVel;
+        yawRate = other.yawRate;
+        slipEffFront = other.slipEffFront;
+        slipEffBack = other.slipEffBack;
+        slipFront = other.slipFront;
+        slipBack = other.slipBack;
+        slipRateFront = other.slipRateFront;
+        slipRateBack = other.slipRateBack;
+        latAccel = other.latAccel;
+        longAccel = other.longAccel;
+        yawRateAccel = other.yawRateAccel;
+        longForceFront = other.longForceFront;
+        longForceBack = other.longForceBack;
+        latForceFront = other.latForceFront;
+        latForceBack = other.latForceBack;
+        tireGripCoeffFront = other.tireGripCoeffFront;
+        tireGripCoeffBack = other.tireGripCoeffBack;
+        rollingResFront = other.rollingResFront;
+        rollingResBack = other.rollingResBack;
+    }
+
+    //back to what a new state has, in place so everyone who holds this state keeps the right one
+    public void reset() {
+        xCoM = 0;
+        yCoM = 0;
+        yaw = 0;
+        longVel = 0;
+        latVel = 0;
+        yawRate = 0;
+        slipEffFront = 0;
+        slipEffBack = 0;
+        slipFront = 0;
+        slipBack = 0;
+        slipRateFront = 0;
+        slipRateBack = 0;
+        latAccel = 0;
+        longAccel = 0;
+        yawRateAccel = 0;
+        longForceFront = 0;
+        longForceBack = 0;
+        latForceFront = 0;
+        latForceBack = 0;
+        tireGripCoeffFront = 2;
+        tireGripCoeffBack = 2;
+        rollingResFront = 1;
+        rollingResBack = 1;
+    }
+
+    //standing still where it is: everything that moves or pushes to 0, pose and what the tires stand on stay (see KartSleep)
+    public void stop() {
+        longVel = 0;
+        latVel = 0;
+        yawRate = 0;
+        slipEffFront = 0;
+        slipEffBack = 0;
+        slipFront = 0;
+        slipBack = 0;
+        slipRateFront = 0;
+        slipRateBack = 0;
+        latAccel = 0;
+        longAccel = 0;
+        yawRateAccel = 0;
+        longForceFront = 0;
+        longForceBack = 0;
+        latForceFront = 0;
+        latForceBack = 0;
+    }
+
+    //every field bit for bit the same (so 0 and -0 count as different), a step of a deterministic model from either gives the same
+    public boolean sameAs(AckermannState other) {
+        return same(xCoM, other.xCoM)
+                && same(yCoM, other.yCoM)
+                && same(yaw, other.yaw)
+                && same(longVel, other.longVel)
+                && same(latVel, other.latVel)
+                && same(yawRate, other.yawRate)
+                && same(slipEffFront, other.slipEffFront)
+                && same(slipEffBack, other.slipEffBack)
+                && same(slipFront, other.slipFront)
+                && same(slipBack, other.slipBack)
+                && same(slipRateFront, other.slipRateFront)
+                && same(slipRateBack, other.slipRateBack)
+                && same(latAccel, other.latAccel)
+                && same(longAccel, other.longAccel)
+                && same(yawRateAccel, other.yawRateAccel)
+                && same(longForceFront, other.longForceFront)
+                && same(longForceBack, other.longForceBack)
+                && same(latForceFront, other.latForceFront)
+                && same(latForceBack, other.latForceBack)
+                && same(tireGripCoeffFront, other.tireGripCoeffFront)
+                && same(tireGripCoeffBack, other.tireGripCoeffBack)
+                && same(rollingResFront, other.rollingResFront)
+                && same(rollingResBack, other.rollingResBack);
+    }
+
+    private static boolean same(double a, double b) {
+        return Double.doubleToRawLongBits(a) == Double.doubleToRawLongBits(b);
     }
 
     public double getXCoM () {
@@ -194,11 +335,41 @@ public class AckermannState{
         this.latForceBack = latForceBack;
     }
 
+    //average of both axles, setting it sets both
     public double getTireGripCoeff() {
-        return tireGripCoeff;
+        return 0.5 * (tireGripCoeffFront + tireGripCoeffBack);
     }
     public void setTireGripCoeff(double tireGripCoeff) {
-        this.tireGripCoeff = tireGripCoeff;
+        this.tireGripCoeffFront = tireGripCoeff;
+        this.tireGripCoeffBack = tireGripCoeff;
+    }
+
+    public double getTireGripCoeffFront() {
+        return tireGripCoeffFront;
+    }
+    public void setTireGripCoeffFront(double tireGripCoeffFront) {
+        this.tireGripCoeffFront = tireGripCoeffFront;
+    }
+
+    public double getTireGripCoeffBack() {
+        return tireGripCoeffBack;
+    }
+    public void setTireGripCoeffBack(double tireGripCoeffBack) {
+        this.tireGripCoeffBack = tireGripCoeffBack;
+    }
+
+    public double getRollingResFront() {
+        return rollingResFront;
+    }
+    public void setRollingResFront(double rollingResFront) {
+        this.rollingResFront = rollingResFront;
+    }
+
+    public double getRollingResBack() {
+        return rollingResBack;
+    }
+    public void setRollingResBack(double rollingResBack) {
+        this.rollingResBack = rollingResBack;
     }
 
     public double getSlipRateFront() {
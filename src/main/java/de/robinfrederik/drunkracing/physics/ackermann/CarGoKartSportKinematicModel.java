@@ -0,0 +1,36 @@
+package de.robinfrederik.drunkracing.physics.ackermann;
+
+import de.robinfrederik.drunkracing.physics.ackermann.formulae.*;
+
+//the go-kart as a KinematicBicycleModel, same slip, tyre, engine and drag values as the CarGoKartSportModel
+//so a kart can go from one to the other and back without noticing
+public class CarGoKartSportKinematicModel extends KinematicBicycleModel {
+    public CarGoKartSportKinematicModel() {
+        super(
+                new SlipAngleLinear(
+                        3,
+                        Math.toRadians(25)),
+
+                new TyreRelaxationDynamic(
+                        0.1,
+                        0.15,
+                        0.1,
+                        100),
+
+                new LongitudinalForceRWD(
+                        1,
+                        0.55),
+
+                new FrictionModel(),
+
+                new IntegrationSemiImplicit(),
+
+                0.9, //the full model scales the side forces with 0.9 in the force ellipse
+
+                0.15, //shorter makes the hand over from the full model jerkier, see PhysicsLodBenchmark
+
+                0.5,
+                0.025
+        );
+    }
+}
@@ -0,0 +1,87 @@
+package de.robinfrederik.drunkracing.physics.ackermann;
+
+import de.robinfrederik.drunkracing.car.Car;
+
+//lets a kart that stands still without input skip its physics steps, one per kart, used instead of car.updateState
+//after quietTicks steps without input and with speeds (m/s, rad/s) and slip angles (rad) under the limits,
+//the state is stopped (AckermannState.stop) and stepped twice: only if the second step leaves it exactly as the first
+//did it is a state the model keeps forever and the kart goes to sleep, otherwise it takes its normal step and tries again later
+//so skipping is exact, waking gives bit for bit the state stepping all the time would have given
+//(going to sleep drops what was left of the speed under the limits, that is the one place it changes anything)
+//it wakes up by itself on input, on another model or step length (the state is only known to stay for the one it was checked with)
+//and when anything else changed the state (a collision response, a new grip, a reset)
+public class KartSleep {
+    private final double maxSpeed;
+    private final double maxSlip;
+    private final int quietTicks;
+    private final AckermannState before = new AckermannState();     // in case the stopped state doesn't stay
+    private final AckermannState rest = new AckermannState();       // the state it sleeps in
+
+    private AckermannModel restModel;   // model and step the rest state was checked with
+    private double restDeltaT;
+    private int quiet;          // steps in a row under the limits without input
+    private boolean asleep;
+    private long skipped;       // steps not done
+
+    public KartSleep(double maxSpeed, double maxSlip, int quietTicks) {
+        this.maxSpeed = maxSpeed;
+        this.maxSlip = maxSlip;
+        this.quietTicks = Math.max(1, quietTicks);
+    }
+
+    //a physics step like car.updateState, false if the kart sleeps and it was skipped
+    public boolean step(Car car, AckermannModel model, double deltaInput, double forceInput, double deltaT) {
+        final AckermannState state = car.getState();
+        final boolean noInput = deltaInput == 0 && forceInput == 0;
+        if (asleep) {
+            if (noInput && model == restModel && deltaT == restDeltaT && state.sameAs(rest)) {
+                skipped++;
+                return false;
+            }
+            wake();
+        }
+
+        if (noInput && quiet >= quietTicks) {
+            state.copyTo(before);
+            state.stop();
+            car.updateState(model, 0, 0, deltaT); // the step of this tick
+            state.copyTo(rest);
+            car.updateState(model, 0, 0, deltaT);
+            if (state.sameAs(rest)) {
+                asleep = true;
+                restModel = model;
+                restDeltaT = deltaT;
+                return true;
+            }
+            state.copyFrom(before);
+            quiet = 0;
+        }
+        car.updateState(model, deltaInput, forceInput, deltaT);
+        quiet = noInput && still(state) ? quiet + 1 : 0;
+        return true;
+    }
+
+    private boolean still(AckermannState state) {
+        return Math.abs(state.getLongVel()) < maxSpeed
+                && Math.abs(state.getLatVel()) < maxSpeed
+                && Math.abs(state.getYawRate()) < maxSpeed
+                && Math.abs(state.getSlipFront()) < maxSlip
+                && Math.abs(state.getSlipBack()) < maxSlip
+                && Math.abs(state.getSlipEffFront()) < maxSlip
+                && Math.abs(state.getSlipEffBack()) < maxSlip;
+    }
+
+    //the next step is a real one again, and it takes quietTicks until the kart can sleep again
+    public void wake() {
+        asleep = false;
+        quiet = 0;
+    }
+
+    public boolean isAsleep() {
+        return asleep;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+}
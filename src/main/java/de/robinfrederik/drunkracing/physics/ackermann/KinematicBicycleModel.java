@@ -0,0 +1,77 @@
+package de.robinfrederik.drunkracing.physics.ackermann;
+
+import de.robinfrederik.drunkracing.car.Car;
+import de.robinfrederik.drunkracing.physics.ackermann.formulae.*;
+
+//the cheap model for karts nobody looks at closely (see AiField.setLod, PhysicsLod): the car goes where the front wheels point
+//engine, brakes, drag and the grip limit on them are the same formulae as in the GeneralAckermannModel,
+//but there are no tyre forces to the side, the yaw rate is speed * tan(steering) / wheelbase, capped so the
+//sideways acceleration stays under what the tyres could hold, and the back axle doesn't slide
+//yaw rate and lateral velocity move to those values over relaxation seconds instead of jumping, so a kart handed over
+//from the full model in a slide doesn't snap straight, the slip angles are still calculated with the formulae of the
+//full model so a kart handed back has the tyre state it would have had and the first full step doesn't kick
+//also fine with steps of a few ms, so far away karts can be stepped less often
+public class KinematicBicycleModel implements AckermannModel {
+    private static final double G = 9.81;
+
+    private final SlipAngleFormula slipAngleFormula;
+    private final TyreRelaxationDynamicFormula tyreRelaxationDynamicFormula;
+    private final LongitudinalForceFormula longitudinalForceFormula;
+    private final FrictionModel frictionModelFormulas;
+    private final IntegrationFormula integrationFormula;
+    private final double gripShare;     // share of the grip the steering may use, the full model loses some to the ellipse shape
+    private final double relaxation;    // seconds
+    private final double aeroDrag;
+    private final double rollingRes;
+
+    public KinematicBicycleModel(SlipAngleFormula slipAngleFormula,
+                                 TyreRelaxationDynamicFormula tyreRelaxationDynamicFormula,
+                                 LongitudinalForceFormula longitudinalForceFormula,
+                                 FrictionModel frictionModelFormulas,
+                                 IntegrationFormula integrationFormula,
+                                 double gripShare,
+                                 double relaxation,
+                                 double aeroDrag,
+                                 double rollingRes) {
+        this.slipAngleFormula = slipAngleFormula;
+        this.tyreRelaxationDynamicFormula = tyreRelaxationDynamicFormula;
+        this.longitudinalForceFormula = longitudinalForceFormula;
+        this.frictionModelFormulas = frictionModelFormulas;
+        this.integrationFormula = integrationFormula;
+        this.gripShare = gripShare;
+        this.relaxation = relaxation;
+        this.aeroDrag = aeroDrag;
+        this.rollingRes = rollingRes;
+    }
+
+    @Override
+    public void updateState(Car car,
+                            double delta,
+                            double forceInput,
+                            double deltaT) {
+        final AckermannState state = car.getState();
+        slipAngleFormula.formula(car, delta, deltaT); // only kept up to date for the hand over, nothing here uses them
+        tyreRelaxationDynamicFormula.formula(car, deltaT);
+
+        //along the car like the full model, without tyre forces to the side the ellipse only caps engine and brakes
+        longitudinalForceFormula.formula(car, forceInput);
+        state.setLatForceFront(0);
+        state.setLatForceBack(0);
+        frictionModelFormulas.ForceEllipse(car, 1);
+        frictionModelFormulas.LongitudinalForceFriction(car, aeroDrag, rollingRes);
+        state.setLongAccel((state.getLongForceFront() + state.getLongForceBack()) / car.getMass());
+
+        //turning as the wheels point, no faster than the grip allows
+        final double longVel = state.getLongVel();
+        final double maxYawRate = gripShare * state.getTireGripCoeff() * G / Math.max(Math.abs(longVel), 1);
+        final double yawRate = Math.max(-maxYawRate, Math.min(maxYawRate,
+                -longVel * Math.tan(delta) / (car.getDistFront() + car.getDistBack()))); // steering left (+) lowers the yaw, y points down on the screen
+        final double latVel = yawRate * car.getDistBack(); // the back axle moves straight along itself
+
+        final double follow = Math.min(1, deltaT / relaxation) / deltaT;
+        state.setYawRateAccel((yawRate - state.getYawRate()) * follow);
+        state.setLatAccel((latVel - state.getLatVel()) * follow);
+
+        integrationFormula.formula(car, deltaT);
+    }
+}
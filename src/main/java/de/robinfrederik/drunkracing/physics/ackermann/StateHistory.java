@@ -0,0 +1,61 @@
+package de.robinfrederik.drunkracing.physics.ackermann;
+
+import java.util.Arrays;
+
+//the last few states of a car by tick, to go back to one and simulate again from there
+//(netcode: PredictedKart, replays: scrubbing back, AI: trying something and undoing it)
+//a ring of states that are all made in the constructor, saving is a copy into the slot of the tick and nothing else
+//a slot knows its tick, so asking for one that was overwritten (or never saved) gives false instead of a wrong state
+public class StateHistory {
+    private final AckermannState[] states;
+    private final long[] ticks;     // tick saved in every slot, -1 = empty
+    private long newest = -1;
+
+    public StateHistory(int slots) {
+        this.states = new AckermannState[slots];
+        this.ticks = new long[slots];
+        for (int i = 0; i < slots; i++) states[i] = new AckermannState();
+        clear();
+    }
+
+    public void save(long tick, AckermannState state) {
+        final int slot = (int) Math.floorMod(tick, (long) states.length);
+        state.copyTo(states[slot]);
+        ticks[slot] = tick;
+        if (tick > newest) newest = tick;
+    }
+
+    //the state of tick into state, false if it isn't in the history (anymore)
+    public boolean restore(long tick, AckermannState state) {
+        final int slot = (int) Math.floorMod(tick, (long) states.length);
+        if (tick < 0 || ticks[slot] != tick) return false;
+        state.copyFrom(states[slot]);
+        return true;
+    }
+
+    public boolean has(long tick) {
+        return tick >= 0 && ticks[(int) Math.floorMod(tick, (long) states.length)] == tick;
+    }
+
+    //forget everything after tick, after rolling back to it the states after it are from the old timeline
+    public void truncate(long tick) {
+        for (int i = 0; i < ticks.length; i++) {
+            if (ticks[i] > tick) ticks[i] = -1;
+        }
+        newest = Math.min(newest, tick);
+    }
+
+    public void clear() {
+        Arrays.fill(ticks, -1);
+        newest = -1;
+    }
+
+    //newest tick saved, -1 if none
+    public long getNewest() {
+        return newest;
+    }
+
+    public int getSlots() {
+        return states.length;
+    }
+}
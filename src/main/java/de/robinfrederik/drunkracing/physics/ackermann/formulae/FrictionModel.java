@@ -6,18 +6,11 @@ import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
 public class FrictionModel {
 
     //load transfer based on braking / accelerating, center of mass location, length of car and static loads
-    private double[] LoadTransferLoads (Car car) {
-        final AckermannState state = car.getState();
-        final double loadTransfer = car.getMass() * state.getLongAccel()
+    //front load is static load - transfer, back load is static load + transfer
+    //plain doubles instead of a new array, the loop steps every car 1000x a second and this ran twice per step
+    private double LoadTransfer (Car car) {
+        return car.getMass() * car.getState().getLongAccel()
                 * car.getHeightCoM() / (car.getDistFront() + car.getDistBack());
-
-        final double LoadFront = car.getStaticMaxLoadFront() - loadTransfer;
-        final double LoadBack = car.getStaticMaxLoadBack() + loadTransfer;
-
-        return new double[] {
-                LoadFront,
-                LoadBack
-        };
     }
 
     //projects front lateral tire force into body frame of the car
@@ -32,9 +25,9 @@ public class FrictionModel {
     //scales exeeding forces
     public void ForceEllipse (Car car, double shape) {
         final AckermannState state = car.getState();
-        final double [] loadTransferLoads = LoadTransferLoads(car);
-        final double maxForceFront = state.getTireGripCoeff() * loadTransferLoads[0];
-        final double maxForceBack = state.getTireGripCoeff() * loadTransferLoads[1];
+        final double loadTransfer = LoadTransfer(car);
+        final double maxForceFront = state.getTireGripCoeffFront() * (car.getStaticMaxLoadFront() - loadTransfer);
+        final double maxForceBack = state.getTireGripCoeffBack() * (car.getStaticMaxLoadBack() + loadTransfer);
 
         final double longForceFront = state.getLongForceFront();
         final double latForceFront = state.getLatForceFront();
@@ -72,16 +65,16 @@ public class FrictionModel {
         car.getState().setLatForceBack((state.getLatForceBack() - alignmentDampeningBack) * Math.tanh(Math.abs(state.getLongVel()) / speedScale));
     }
 
-    //aero drag and rolling resistance
+    //aero drag and rolling resistance, the rolling resistance gets scaled by the terrain under each axle
     public void LongitudinalForceFriction (Car car,
                                            double aeroDrag,
                                            double rollingRes) {
         final AckermannState state = car.getState();
-        final double [] loadTransferLoads = LoadTransferLoads(car);
+        final double loadTransfer = LoadTransfer(car);
 
         final double aeroDragForce = aeroDrag * Math.pow(state.getLongVel(), 2);
-        final double rollingResistanceForceFront = rollingRes * loadTransferLoads[0];
-        final double rollingResistanceForceBack = rollingRes * loadTransferLoads[1];
+        final double rollingResistanceForceFront = rollingRes * state.getRollingResFront() * (car.getStaticMaxLoadFront() - loadTransfer);
+        final double rollingResistanceForceBack = rollingRes * state.getRollingResBack() * (car.getStaticMaxLoadBack() + loadTransfer);
 
         car.getState().setLongForceFront(
                 state.getLongForceFront()
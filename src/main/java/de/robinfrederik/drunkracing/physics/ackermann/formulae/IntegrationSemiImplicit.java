@@ -5,6 +5,7 @@ import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
 import de.robinfrederik.drunkracing.physics.ackermann.formulae.IntegrationFormula;
 //semi implicit euler integration for the final step to the new state
 public class IntegrationSemiImplicit implements IntegrationFormula {
+    public static final double PIXELS_PER_METER = 30; //factor for adjustment to visual movement
 
     @Override
     public void formula (Car car,
@@ -22,8 +23,8 @@ public class IntegrationSemiImplicit implements IntegrationFormula {
         double globalLatDeriv  = state.getLongVel() * Math.sin(state.getYaw()) + state.getLatVel() * Math.cos(state.getYaw());  // global lateral acceleration
         double globalYawDeriv  = state.getYawRate();
 
-        car.getState().setXCoM(state.getXCoM() + deltaT * globalLongDeriv * 30); //30 factor for adjustment to visual movement
-        car.getState().setYCoM(state.getYCoM() + deltaT * globalLatDeriv * 30);
+        car.getState().setXCoM(state.getXCoM() + deltaT * globalLongDeriv * PIXELS_PER_METER);
+        car.getState().setYCoM(state.getYCoM() + deltaT * globalLatDeriv * PIXELS_PER_METER);
         car.getState().setYaw(state.getYaw() + deltaT * globalYawDeriv);
         car.getState().setYaw((state.getYaw() + Math.PI) % (2 * Math.PI) - Math.PI); //prevents yaw from growing to infinity if one does donuts
     }
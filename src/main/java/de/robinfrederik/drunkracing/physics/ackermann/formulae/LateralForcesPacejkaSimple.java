@@ -32,11 +32,11 @@ public class LateralForcesPacejkaSimple implements LateralForceFormula {
         final AckermannState state = car.getState();
 
         car.getState().setLatForceFront(
-                state.getTireGripCoeff()* this.tireGripFront * car.getStaticMaxLoadFront()
+                state.getTireGripCoeffFront() * this.tireGripFront * car.getStaticMaxLoadFront()
                         * Math.sin( this.shapeFactorFront * Math.atan( stiffnessFactorFront * state.getSlipEffFront())));
 
         car.getState().setLatForceBack(
-                state.getTireGripCoeff() * this.tireGripBack * car.getStaticMaxLoadBack()
+                state.getTireGripCoeffBack() * this.tireGripBack * car.getStaticMaxLoadBack()
                         * Math.sin( this.shapeFactorBack * Math.atan( stiffnessFactorBack * state.getSlipEffBack())));
     }
 }
@@ -0,0 +1,12 @@
+package de.robinfrederik.drunkracing.physics.ackermann.formulae;
+
+import de.robinfrederik.drunkracing.car.Car;
+
+public interface SurfaceFormula {
+    void formula (Car car);
+
+    //the same formula for another thread, see TrackMap.forAnotherThread, formulas without state can give themselves
+    default SurfaceFormula forAnotherThread() {
+        return this;
+    }
+}
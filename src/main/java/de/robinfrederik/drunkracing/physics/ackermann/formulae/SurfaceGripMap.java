@@ -0,0 +1,78 @@
+package de.robinfrederik.drunkracing.physics.ackermann.formulae;
+
+import de.robinfrederik.drunkracing.car.Car;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+import de.robinfrederik.drunkracing.physics.collision.map.TrackMap;
+
+import java.util.Arrays;
+
+//looks up what each axle is driving on and writes grip and rolling resistance of that surface into the state
+//one cell lookup per axle and step, the values per surface class sit in small tables indexed by the cell value
+//so the friction model and the tire forces never need to know about the map
+public class SurfaceGripMap implements SurfaceFormula {
+    private final TrackMap map;
+    private final double[] gripCoeff = new double[TrackMap.SURFACE_CLASSES];      // max force / load, replaces tireGripCoeff
+    private final double[] rollingResFactor = new double[TrackMap.SURFACE_CLASSES]; // times rollingRes of the car
+
+    public SurfaceGripMap(TrackMap map) {
+        this.map = map;
+
+        Arrays.fill(gripCoeff, 2);
+        Arrays.fill(rollingResFactor, 1);
+        setSurface(TrackMap.FREE, 2, 1);
+        setSurface(TrackMap.WALL, 2, 1);        // only reached while the collision response pushes the car out
+        setSurface(TrackMap.KERB, 1.7, 1.5);
+        setSurface(TrackMap.GRASS, 1.0, 6);
+        setSurface(TrackMap.GRAVEL, 0.8, 12);
+    }
+
+    //same grip on the same cells, looked up in map.forAnotherThread
+    @Override
+    public SurfaceFormula forAnotherThread() {
+        final SurfaceGripMap copy = new SurfaceGripMap(map.forAnotherThread());
+        System.arraycopy(gripCoeff, 0, copy.gripCoeff, 0, gripCoeff.length);
+        System.arraycopy(rollingResFactor, 0, copy.rollingResFactor, 0, rollingResFactor.length);
+        return copy;
+    }
+
+    public void setSurface(byte surface, double gripCoeff, double rollingResFactor) {
+        this.gripCoeff[surface] = gripCoeff;
+        this.rollingResFactor[surface] = rollingResFactor;
+    }
+
+    public double getGripCoeff(byte surface) {
+        return gripCoeff[surface];
+    }
+
+    public double getRollingResFactor(byte surface) {
+        return rollingResFactor[surface];
+    }
+
+    @Override
+    public void formula(Car car) {
+        final AckermannState state = car.getState();
+        final double pixelsPerMeter = IntegrationSemiImplicit.PIXELS_PER_METER;
+        final double cosYaw = Math.cos(state.getYaw());
+        final double sinYaw = Math.sin(state.getYaw());
+
+        //axle positions in world units, front is in direction of yaw
+        final double frontX = state.getXCoM() + cosYaw * car.getDistFront() * pixelsPerMeter;
+        final double frontY = state.getYCoM() + sinYaw * car.getDistFront() * pixelsPerMeter;
+        final double backX = state.getXCoM() - cosYaw * car.getDistBack() * pixelsPerMeter;
+        final double backY = state.getYCoM() - sinYaw * car.getDistBack() * pixelsPerMeter;
+
+        final byte front = surfaceAt(frontX, frontY);
+        final byte back = surfaceAt(backX, backY);
+
+        state.setTireGripCoeffFront(gripCoeff[front]);
+        state.setTireGripCoeffBack(gripCoeff[back]);
+        state.setRollingResFront(rollingResFactor[front]);
+        state.setRollingResBack(rollingResFactor[back]);
+    }
+
+    private byte surfaceAt(double x, double y) {
+        final int cellX = (int) Math.floor(x / map.getCellWidth());
+        final int cellY = (int) Math.floor(y / map.getCellHeight());
+        return (byte) (map.getCell(cellX, cellY) & (TrackMap.SURFACE_CLASSES - 1));
+    }
+}
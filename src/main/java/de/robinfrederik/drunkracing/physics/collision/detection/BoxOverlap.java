@@ -0,0 +1,27 @@
+package de.robinfrederik.drunkracing.physics.collision.detection;
+
+//exact test for two oriented boxes (separating axis theorem), used on the candidate pairs of the SpatialHash
+//two rectangles don't overlap if there is a gap along one of their four edge directions
+public class BoxOverlap {
+    public static boolean overlaps(double xA, double yA, double yawA, double halfLengthA, double halfWidthA,
+                                   double xB, double yB, double yawB, double halfLengthB, double halfWidthB) {
+        final double dx = xB - xA;
+        final double dy = yB - yA;
+        final double cosA = Math.cos(yawA);
+        final double sinA = Math.sin(yawA);
+        final double cosB = Math.cos(yawB);
+        final double sinB = Math.sin(yawB);
+
+        //how much the axes of both boxes line up, everything below only needs these four numbers
+        final double cosDiff = Math.abs(cosA * cosB + sinA * sinB);
+        final double sinDiff = Math.abs(sinA * cosB - cosA * sinB);
+
+        //axes of box A
+        if (Math.abs(dx * cosA + dy * sinA) > halfLengthA + halfLengthB * cosDiff + halfWidthB * sinDiff) return false;
+        if (Math.abs(-dx * sinA + dy * cosA) > halfWidthA + halfLengthB * sinDiff + halfWidthB * cosDiff) return false;
+        //axes of box B
+        if (Math.abs(dx * cosB + dy * sinB) > halfLengthB + halfLengthA * cosDiff + halfWidthA * sinDiff) return false;
+        if (Math.abs(-dx * sinB + dy * cosB) > halfWidthB + halfLengthA * sinDiff + halfWidthA * cosDiff) return false;
+        return true;
+    }
+}
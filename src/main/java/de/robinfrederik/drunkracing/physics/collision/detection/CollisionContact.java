@@ -0,0 +1,81 @@
+package de.robinfrederik.drunkracing.physics.collision.detection;
+
+//result of a sweep, reused every step so the physics thread doesn't create garbage
+public class CollisionContact {
+    private boolean hit;
+    private double time;        // fraction of the sweep (0 = previous pose, 1 = current pose) at which the box touched the wall
+    private double pointX;      // world position of the first touching point of the box
+    private double pointY;
+    private double normalX;     // unit normal of the wall face that was hit, pointing away from the wall
+    private double normalY;
+    private double depth;       // how far the box would have gone into the wall along the normal without stopping
+    private double penetration; // only if it started inside the wall (time 0): how far along the normal until the box is free again
+
+    void clear() {
+        this.hit = false;
+        this.time = 1;
+        this.pointX = 0;
+        this.pointY = 0;
+        this.normalX = 0;
+        this.normalY = 0;
+        this.depth = 0;
+        this.penetration = 0;
+    }
+
+    void set(double time,
+             double pointX,
+             double pointY,
+             double normalX,
+             double normalY,
+             double depth) {
+        this.hit = true;
+        this.time = time;
+        this.pointX = pointX;
+        this.pointY = pointY;
+        this.normalX = normalX;
+        this.normalY = normalY;
+        this.depth = depth;
+        this.penetration = 0;
+    }
+
+    //the way out of the wall replaces the normal, it is the better guess of where the wall is
+    void setPenetration(double penetration,
+                        double normalX,
+                        double normalY) {
+        this.penetration = penetration;
+        this.normalX = normalX;
+        this.normalY = normalY;
+    }
+
+    public boolean isHit() {
+        return hit;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    public double getPointX() {
+        return pointX;
+    }
+
+    public double getPointY() {
+        return pointY;
+    }
+
+    public double getNormalX() {
+        return normalX;
+    }
+
+    public double getNormalY() {
+        return normalY;
+    }
+
+    public double getDepth() {
+        return depth;
+    }
+
+    public double getPenetration() {
+        return penetration;
+    }
+}
@@ -1,6 +1,368 @@
 package de.robinfrederik.drunkracing.physics.collision.detection;
 
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+import de.robinfrederik.drunkracing.physics.collision.map.TrackMap;
+
+//swept oriented bounding box (OBB) of the car against the track grid
+//the box is moved from the pose of the last check to the current pose, so a fast car can't jump over a thin wall between two steps
+//only the outline of the box can touch a wall first, so we put sample points along the outline (closer together than one cell)
+//and walk every point through the grid cell by cell (DDA / Amanatides-Woo) along the way it moved
+//-> cost depends on how far the car moved, not on how big the box is in cells
+//one instance per car, it remembers the last pose and is not thread safe (only the physics thread should use it)
 public class CollisionDetection {
-    //still waiting for some love
-    //sometime maybe
+    private static final int AXIS_NONE = 0;
+    private static final int AXIS_X = 1;
+    private static final int AXIS_Y = 2;
+    private static final int MAX_SLIDES = 2;   // extra sweeps for the rest of the movement after a contact
+
+    private final TrackMap map;
+    private final double halfLength;        // half of the box along the car (local x, yaw 0 points to +x)
+    private final double halfWidth;         // half of the box across the car
+    private final double invCellWidth;
+    private final double invCellHeight;
+    private final double skin;              // small gap we leave between car and wall when stopping it
+    private final double separation;        // how far the car is moved off the wall when it slides along it
+    private final double[] sampleLong;      // outline points in the local frame of the car
+    private final double[] sampleLat;
+
+    private final CollisionContact contact = new CollisionContact();
+
+    private double lastX;
+    private double lastY;
+    private double lastYaw;
+    private boolean hasLastPose;
+    private long hits;                      // sweeps that touched a wall since it was made
+
+    //written by traceSegment and sweepPose, saves returning an object per traced point
+    private int traceAxis;
+    private int traceStepX;
+    private int traceStepY;
+    private int traceCellX;
+    private int traceCellY;
+    private int hitAxis;
+    private int hitCellX;
+    private int hitCellY;
+    private int hitStepX;
+    private int hitStepY;
+    private double hitStartX;
+    private double hitStartY;
+    private double hitMoveX;
+    private double hitMoveY;
+    private double smoothNormalX;
+    private double smoothNormalY;
+
+    public CollisionDetection(TrackMap map,
+                              double halfLength,
+                              double halfWidth) {
+        this.map = map;
+        this.halfLength = halfLength;
+        this.halfWidth = halfWidth;
+        this.invCellWidth = 1 / map.getCellWidth();
+        this.invCellHeight = 1 / map.getCellHeight();
+
+        final double minCell = Math.min(map.getCellWidth(), map.getCellHeight());
+        this.skin = 0.01 * minCell;
+        this.separation = minCell;
+
+        //points a bit closer than one cell, so a wall of one cell can't slip through between two of them
+        final double spacing = 0.9 * minCell;
+        final int segmentsLong = Math.max(1, (int) Math.ceil(2 * halfLength / spacing));
+        final int segmentsLat = Math.max(1, (int) Math.ceil(2 * halfWidth / spacing));
+        final int count = 2 * (segmentsLong + 1) + 2 * (segmentsLat - 1);
+        this.sampleLong = new double[count];
+        this.sampleLat = new double[count];
+
+        int i = 0;
+        for (int k = 0; k <= segmentsLong; k++) { // long sides including the corners
+            final double along = -halfLength + 2 * halfLength * k / segmentsLong;
+            sampleLong[i] = along;
+            sampleLat[i++] = -halfWidth;
+            sampleLong[i] = along;
+            sampleLat[i++] = halfWidth;
+        }
+        for (int k = 1; k < segmentsLat; k++) { // front and back without the corners
+            final double across = -halfWidth + 2 * halfWidth * k / segmentsLat;
+            sampleLong[i] = -halfLength;
+            sampleLat[i++] = across;
+            sampleLong[i] = halfLength;
+            sampleLat[i++] = across;
+        }
+    }
+
+    public TrackMap getMap() {
+        return map;
+    }
+
+    public double getHalfLength() {
+        return halfLength;
+    }
+
+    public double getHalfWidth() {
+        return halfWidth;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public int getSampleCount() {
+        return sampleLong.length;
+    }
+
+    public CollisionContact getContact() {
+        return contact;
+    }
+
+    //start sweeping from this pose, call after teleporting the car (reset, start of race)
+    public void reset(AckermannState state) {
+        this.lastX = state.getXCoM();
+        this.lastY = state.getYCoM();
+        this.lastYaw = state.getYaw();
+        this.hasLastPose = true;
+        this.contact.clear();
+    }
+
+    //sweeps the box from the last checked pose to the pose in state
+    //on contact the car is put back to where it first touched the wall and true is returned, details are in getContact()
+    //what is left of the movement after the contact is tried again without the part that goes into the wall,
+    //so a car scraping along a wall slides along it instead of getting stuck (collide and slide)
+    public boolean sweep(AckermannState state) {
+        contact.clear();
+        if (!hasLastPose) {
+            reset(state);
+            return false;
+        }
+
+        double toX = state.getXCoM();
+        double toY = state.getYCoM();
+        double yawChange = state.getYaw() - lastYaw;
+        yawChange -= 2 * Math.PI * Math.rint(yawChange / (2 * Math.PI)); // shortest way around
+        if (toX == lastX && toY == lastY && yawChange == 0) return false; // didn't move, nothing to do
+
+        for (int slide = 0; ; slide++) {
+            final double time = sweepPose(lastX, lastY, lastYaw, toX, toY, lastYaw + yawChange);
+            if (time > 1) {
+                lastX = toX;
+                lastY = toY;
+                lastYaw = lastYaw + yawChange;
+                break;
+            }
+
+            //normal of the wall, smoothed over the cells around the hit, so round walls don't look like stairs
+            //falls back to the face the point went through, or against the movement if the point started inside a wall
+            double normalX;
+            double normalY;
+            if (smoothNormal(hitCellX, hitCellY)) {
+                normalX = smoothNormalX;
+                normalY = smoothNormalY;
+            } else if (hitAxis == AXIS_X) {
+                normalX = -hitStepX;
+                normalY = 0;
+            } else if (hitAxis == AXIS_Y) {
+                normalX = 0;
+                normalY = -hitStepY;
+            } else {
+                final double moveLength = Math.hypot(hitMoveX, hitMoveY);
+                normalX = moveLength > 0 ? -hitMoveX / moveLength : 0;
+                normalY = moveLength > 0 ? -hitMoveY / moveLength : 0;
+            }
+
+            if (!contact.isHit()) { // only the first contact is reported
+                contact.set(time,
+                        hitStartX + time * hitMoveX,
+                        hitStartY + time * hitMoveY,
+                        normalX,
+                        normalY,
+                        (1 - time) * Math.abs(hitMoveX * normalX + hitMoveY * normalY));
+            }
+
+            //stop the car a tiny bit before the wall
+            final double moveLength = Math.hypot(hitMoveX, hitMoveY);
+            final double stopTime = moveLength > 0 ? Math.max(0, time - this.skin / moveLength) : 0;
+            double restX = (1 - stopTime) * (toX - lastX);
+            double restY = (1 - stopTime) * (toY - lastY);
+            lastX = lastX + stopTime * (toX - lastX);
+            lastY = lastY + stopTime * (toY - lastY);
+            lastYaw = lastYaw + stopTime * yawChange;
+            yawChange = (1 - stopTime) * yawChange;
+            if (slide == MAX_SLIDES) break;
+
+            //take away the part of the rest that goes into the wall and step one cell away from it,
+            //otherwise the next little stair step of a pixel wall stops the car again right away
+            final double intoWall = restX * normalX + restY * normalY;
+            if (intoWall < 0) {
+                restX -= intoWall * normalX;
+                restY -= intoWall * normalY;
+            }
+            restX += this.separation * normalX;
+            restY += this.separation * normalY;
+            if (restX == 0 && restY == 0 && yawChange == 0) break;
+            toX = lastX + restX;
+            toY = lastY + restY;
+        }
+
+        lastYaw -= 2 * Math.PI * Math.floor((lastYaw + Math.PI) / (2 * Math.PI)); // back into -pi .. pi
+        if (contact.isHit() && contact.getTime() == 0 && !isFree(lastX, lastY, lastYaw)) pushOut(lastX, lastY, lastYaw);
+        if (contact.isHit()) hits++;
+        state.setXCoM(lastX);
+        state.setYCoM(lastY);
+        state.setYaw(lastYaw);
+        return contact.isHit();
+    }
+
+    //the box started the sweep inside a wall: the shortest way out until no outline point is in a wall anymore
+    //the normal of a start inside the wall is only a guess (against the movement if the cells around are all wall),
+    //so it tries the normal and the 8 directions around, a cell at a time, the first free one wins and becomes the normal
+    //stays 0 if it is still stuck after the whole size of the box (buried, nothing to push it to)
+    private void pushOut(double x, double y, double yaw) {
+        final double stepLength = Math.min(map.getCellWidth(), map.getCellHeight());
+        final double maxLength = 2 * (this.halfLength + this.halfWidth);
+        for (double length = stepLength; length <= maxLength; length += stepLength) {
+            for (int direction = -1; direction < 8; direction++) {
+                final double directionX = direction < 0 ? contact.getNormalX() : Math.cos(direction * Math.PI / 4);
+                final double directionY = direction < 0 ? contact.getNormalY() : Math.sin(direction * Math.PI / 4);
+                if (isFree(x + length * directionX, y + length * directionY, yaw)) {
+                    contact.setPenetration(length + this.skin, directionX, directionY);
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean isFree(double x, double y, double yaw) {
+        final double cos = Math.cos(yaw);
+        final double sin = Math.sin(yaw);
+        for (int i = 0; i < sampleLong.length; i++) {
+            final double pointX = x + sampleLong[i] * cos - sampleLat[i] * sin;
+            final double pointY = y + sampleLong[i] * sin + sampleLat[i] * cos;
+            if (map.isSolid((int) Math.floor(pointX * invCellWidth), (int) Math.floor(pointY * invCellHeight))) return false;
+        }
+        return true;
+    }
+
+    //moves all outline points from one pose to the other, returns the earliest time one of them enters a wall (or infinity)
+    //the point that hits first is described in the hit fields
+    private double sweepPose(double fromX,
+                             double fromY,
+                             double fromYaw,
+                             double toX,
+                             double toY,
+                             double toYaw) {
+        final double cosFrom = Math.cos(fromYaw);
+        final double sinFrom = Math.sin(fromYaw);
+        final double cosTo = Math.cos(toYaw);
+        final double sinTo = Math.sin(toYaw);
+
+        double bestTime = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < sampleLong.length; i++) {
+            final double along = sampleLong[i];
+            final double across = sampleLat[i];
+
+            //rotation is linearised over one step, at 1000 steps a second that is way below a cell
+            final double startX = fromX + along * cosFrom - across * sinFrom;
+            final double startY = fromY + along * sinFrom + across * cosFrom;
+            final double endX = toX + along * cosTo - across * sinTo;
+            final double endY = toY + along * sinTo + across * cosTo;
+
+            final double time = traceSegment(
+                    startX * invCellWidth, startY * invCellHeight,
+                    endX * invCellWidth, endY * invCellHeight,
+                    Math.min(1, bestTime));
+
+            if (time < bestTime) {
+                bestTime = time;
+                hitAxis = traceAxis;
+                hitCellX = traceCellX;
+                hitCellY = traceCellY;
+                hitStepX = traceStepX;
+                hitStepY = traceStepY;
+                hitStartX = startX;
+                hitStartY = startY;
+                hitMoveX = endX - startX;
+                hitMoveY = endY - startY;
+                if (time == 0) break; // can't get any earlier
+            }
+        }
+        return bestTime;
+    }
+
+    //walks one point from (startX, startY) to (endX, endY) in cell coordinates through the grid
+    //returns the fraction of the way at which it enters the first solid cell, or infinity if there is none before maxTime
+    private double traceSegment(double startX,
+                                double startY,
+                                double endX,
+                                double endY,
+                                double maxTime) {
+        int cellX = (int) Math.floor(startX);
+        int cellY = (int) Math.floor(startY);
+        traceAxis = AXIS_NONE;
+        traceStepX = 0;
+        traceStepY = 0;
+        traceCellX = cellX;
+        traceCellY = cellY;
+        if (map.isSolid(cellX, cellY)) return 0;
+
+        final double moveX = endX - startX;
+        final double moveY = endY - startY;
+        final int stepX = moveX > 0 ? 1 : (moveX < 0 ? -1 : 0);
+        final int stepY = moveY > 0 ? 1 : (moveY < 0 ? -1 : 0);
+
+        //time to cross one whole cell and time until the next cell border, per axis
+        final double deltaTimeX = stepX != 0 ? Math.abs(1 / moveX) : Double.POSITIVE_INFINITY;
+        final double deltaTimeY = stepY != 0 ? Math.abs(1 / moveY) : Double.POSITIVE_INFINITY;
+        double nextTimeX = stepX > 0 ? (cellX + 1 - startX) / moveX
+                : (stepX < 0 ? (cellX - startX) / moveX : Double.POSITIVE_INFINITY);
+        double nextTimeY = stepY > 0 ? (cellY + 1 - startY) / moveY
+                : (stepY < 0 ? (cellY - startY) / moveY : Double.POSITIVE_INFINITY);
+
+        while (true) {
+            final double time;
+            final int axis;
+            if (nextTimeX < nextTimeY) {
+                time = nextTimeX;
+                if (time > maxTime) return Double.POSITIVE_INFINITY;
+                cellX += stepX;
+                nextTimeX += deltaTimeX;
+                axis = AXIS_X;
+            } else {
+                time = nextTimeY;
+                if (time > maxTime) return Double.POSITIVE_INFINITY;
+                cellY += stepY;
+                nextTimeY += deltaTimeY;
+                axis = AXIS_Y;
+            }
+
+            if (map.isSolid(cellX, cellY)) {
+                traceAxis = axis;
+                traceStepX = stepX;
+                traceStepY = stepY;
+                traceCellX = cellX;
+                traceCellY = cellY;
+                return time;
+            }
+        }
+    }
+
+    //points away from where most of the wall is in the 5 x 5 cells around the hit cell
+    //returns false if that is not clear (wall everywhere or nowhere)
+    private boolean smoothNormal(int cellX, int cellY) {
+        double sumX = 0;
+        double sumY = 0;
+        for (int offsetY = -2; offsetY <= 2; offsetY++) {
+            for (int offsetX = -2; offsetX <= 2; offsetX++) {
+                if (map.isSolid(cellX + offsetX, cellY + offsetY)) {
+                    sumX += offsetX;
+                    sumY += offsetY;
+                }
+            }
+        }
+        //cells are not square in general, offsets in cells -> directions in the world
+        sumX *= map.getCellWidth();
+        sumY *= map.getCellHeight();
+        final double length = Math.hypot(sumX, sumY);
+        if (length == 0) return false;
+        smoothNormalX = -sumX / length;
+        smoothNormalY = -sumY / length;
+        return true;
+    }
 }
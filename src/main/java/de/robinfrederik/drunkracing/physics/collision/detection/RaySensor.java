@@ -0,0 +1,137 @@
+package de.robinfrederik.drunkracing.physics.collision.detection;
+
+import de.robinfrederik.drunkracing.physics.collision.map.DistanceField;
+import de.robinfrederik.drunkracing.physics.collision.map.TrackMap;
+
+//distance to the next wall along a fan of rays around the heading of a kart, for the AI, training and driver aids
+//every ray walks the grid cell by cell (DDA / Amanatides-Woo, like CollisionDetection) until it enters a wall cell or runs out of range
+//with a DistanceField the ray first jumps through open space by the distance to the closest wall (sphere tracing)
+//and only walks cell by cell close to walls, the result is exactly the same, it just visits far fewer cells
+//the angles are fixed in the constructor, sin/cos of them are stored, so a kart costs one sin/cos and no allocation
+//keeps no state between calls, so one sensor can be shared by threads that cast for different karts
+public class RaySensor {
+    private final TrackMap map;
+    private final DistanceField field;      // optional
+    private final double range;             // world units, rays that hit nothing report this
+    private final double[] cosAngle;        // angles of the rays relative to the heading
+    private final double[] sinAngle;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final double invCellWidth;
+    private final double invCellHeight;
+    private final double jumpMargin;        // the point and the wall can be anywhere in their cells, so the field can be off by this much
+    private final double minJump;           // jumps shorter than this aren't worth restarting the walk for
+
+    public RaySensor(TrackMap map,
+                     DistanceField field,
+                     int rays,
+                     double fieldOfView,
+                     double range) {
+        this.map = map;
+        this.field = field;
+        this.range = range;
+        this.cosAngle = new double[rays];
+        this.sinAngle = new double[rays];
+        for (int i = 0; i < rays; i++) {
+            //spread evenly over the field of view, a full circle doesn't get the same angle twice
+            final double angle = fieldOfView >= 2 * Math.PI
+                    ? 2 * Math.PI * i / rays
+                    : (rays == 1 ? 0 : -fieldOfView / 2 + fieldOfView * i / (rays - 1));
+            cosAngle[i] = Math.cos(angle);
+            sinAngle[i] = Math.sin(angle);
+        }
+        this.cellWidth = map.getCellWidth();
+        this.cellHeight = map.getCellHeight();
+        this.invCellWidth = 1 / cellWidth;
+        this.invCellHeight = 1 / cellHeight;
+        this.jumpMargin = Math.hypot(cellWidth, cellHeight) * 1.001;
+        this.minJump = 4 * Math.max(cellWidth, cellHeight);
+    }
+
+    //without a distance field, plain DDA
+    public RaySensor(TrackMap map, int rays, double fieldOfView, double range) {
+        this(map, null, rays, fieldOfView, range);
+    }
+
+    public int getRayCount() {
+        return cosAngle.length;
+    }
+
+    public double getRange() {
+        return range;
+    }
+
+    //all rays of one kart, distances go to out[offset] .. out[offset + rays - 1] in world units
+    public void cast(double x, double y, double yaw, double[] out, int offset) {
+        final double cosYaw = Math.cos(yaw);
+        final double sinYaw = Math.sin(yaw);
+        for (int i = 0; i < cosAngle.length; i++) {
+            //heading + angle of the ray without another sin/cos
+            final double directionX = cosYaw * cosAngle[i] - sinYaw * sinAngle[i];
+            final double directionY = sinYaw * cosAngle[i] + cosYaw * sinAngle[i];
+            out[offset + i] = field != null ? traceWithField(x, y, directionX, directionY) : trace(x, y, directionX, directionY, 0, range);
+        }
+    }
+
+    //many karts in one call, kart k writes its rays to out[k * rays ...]
+    public void castAll(double[] x, double[] y, double[] yaw, int karts, double[] out) {
+        final int rays = cosAngle.length;
+        for (int kart = 0; kart < karts; kart++) {
+            cast(x[kart], y[kart], yaw[kart], out, kart * rays);
+        }
+    }
+
+    //walks from (x, y) in direction (directionX, directionY) (length 1) from distance start to distance end,
+    //returns the distance at which the ray enters the first wall cell, or end if there is none
+    private double trace(double x, double y, double directionX, double directionY, double start, double end) {
+        final double startX = (x + directionX * start) * invCellWidth;
+        final double startY = (y + directionY * start) * invCellHeight;
+        int cellX = (int) Math.floor(startX);
+        int cellY = (int) Math.floor(startY);
+        if (map.isSolid(cellX, cellY)) return start;
+
+        final int stepX = directionX > 0 ? 1 : (directionX < 0 ? -1 : 0);
+        final int stepY = directionY > 0 ? 1 : (directionY < 0 ? -1 : 0);
+        //world distance to cross one whole cell and to the next cell border, per axis
+        final double deltaX = stepX != 0 ? Math.abs(cellWidth / directionX) : Double.POSITIVE_INFINITY;
+        final double deltaY = stepY != 0 ? Math.abs(cellHeight / directionY) : Double.POSITIVE_INFINITY;
+        double nextX = start + (stepX > 0 ? (cellX + 1 - startX) * deltaX : (stepX < 0 ? (startX - cellX) * deltaX : Double.POSITIVE_INFINITY));
+        double nextY = start + (stepY > 0 ? (cellY + 1 - startY) * deltaY : (stepY < 0 ? (startY - cellY) * deltaY : Double.POSITIVE_INFINITY));
+
+        while (true) {
+            final double distance;
+            if (nextX < nextY) {
+                distance = nextX;
+                cellX += stepX;
+                nextX += deltaX;
+            } else {
+                distance = nextY;
+                cellY += stepY;
+                nextY += deltaY;
+            }
+            if (distance >= end) return end;
+            if (map.isSolid(cellX, cellY)) return distance;
+        }
+    }
+
+    //same result as trace, but jumps ahead while the field says the closest wall is far away
+    //once it gets close to a wall it walks cell by cell for a while and then checks the field again
+    private double traceWithField(double x, double y, double directionX, double directionY) {
+        double distance = 0;
+        while (true) {
+            final int cellX = (int) Math.floor((x + directionX * distance) * invCellWidth);
+            final int cellY = (int) Math.floor((y + directionY * distance) * invCellHeight);
+            final double jump = field.getDistance(cellX, cellY) - jumpMargin;
+            if (jump >= minJump) {
+                distance += jump;
+                if (distance >= range) return range;
+                continue;
+            }
+            //close to a wall: walk a few cells, then see if there is open space again
+            final double walkEnd = Math.min(range, distance + 2 * minJump);
+            final double hit = trace(x, y, directionX, directionY, distance, walkEnd);
+            if (hit < walkEnd || walkEnd == range) return hit;
+            distance = walkEnd;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package de.robinfrederik.drunkracing.physics.collision.detection;
+
+import de.robinfrederik.drunkracing.car.Car;
+
+import java.util.Arrays;
+
+//broadphase for car vs car collisions
+//every car is put into a uniform grid cell, cells are hashed into a table that is rebuilt every tick with a counting sort
+//then each car only looks at the 3 x 3 cells around it instead of at every other car -> roughly linear instead of n^2
+//everything lives in int / double arrays that only grow when more cars show up, so a tick doesn't create garbage
+//the candidate pairs still need an exact test, see BoxOverlap
+public class SpatialHash {
+    private final double radius;        // radius of a circle around one car (half diagonal of its box)
+    private final double cellSize;      // at least one diameter, so touching cars are always in neighbouring cells
+    private final double invCellSize;
+
+    private int count;
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private int[] cellXs = new int[0];
+    private int[] cellYs = new int[0];
+    private int[] buckets = new int[0];     // hash table bucket of every car
+    private int[] sorted = new int[0];      // car ids sorted by bucket
+    private int[] bucketStart = new int[2]; // start of every bucket in sorted, bucketStart[b + 1] is the end
+    private int bucketMask;
+
+    private int[] pairs = new int[64];      // candidate pairs as (a, b), a < b
+    private int pairCount;
+
+    public SpatialHash(double radius) {
+        this.radius = radius;
+        this.cellSize = 2 * radius;
+        this.invCellSize = 1 / cellSize;
+    }
+
+    public double getRadius() {
+        return radius;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    //copies the positions out of the cars and rebuilds the table
+    public void update(Car[] cars, int count) {
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            xs[i] = cars[i].getState().getXCoM();
+            ys[i] = cars[i].getState().getYCoM();
+        }
+        rebuild(count);
+    }
+
+    //same with positions that are already in arrays (many cars stepped together)
+    public void update(double[] x, double[] y, int count) {
+        ensureCapacity(count);
+        System.arraycopy(x, 0, xs, 0, count);
+        System.arraycopy(y, 0, ys, 0, count);
+        rebuild(count);
+    }
+
+    private void rebuild(int count) {
+        this.count = count;
+        final int bucketCount = bucketMask + 1;
+        final int[] bucketStart = this.bucketStart;
+        Arrays.fill(bucketStart, 0);
+
+        //count cars per bucket
+        for (int i = 0; i < count; i++) {
+            final int cellX = (int) Math.floor(xs[i] * invCellSize);
+            final int cellY = (int) Math.floor(ys[i] * invCellSize);
+            final int bucket = hash(cellX, cellY);
+            cellXs[i] = cellX;
+            cellYs[i] = cellY;
+            buckets[i] = bucket;
+            bucketStart[bucket + 1]++;
+        }
+        //prefix sum -> start of every bucket
+        for (int b = 0; b < bucketCount; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        //scatter, bucketStart[b] is used as write cursor and moved back afterwards
+        for (int i = 0; i < count; i++) {
+            sorted[bucketStart[buckets[i]]++] = i;
+        }
+        for (int b = bucketCount; b > 0; b--) {
+            bucketStart[b] = bucketStart[b - 1];
+        }
+        bucketStart[0] = 0;
+    }
+
+    //fills the pair list with every two cars whose circles overlap, returns the number of pairs
+    public int findPairs() {
+        pairCount = 0;
+        final double maxDistSq = cellSize * cellSize;
+        for (int a = 0; a < count; a++) {
+            final int cellX = cellXs[a];
+            final int cellY = cellYs[a];
+            final double x = xs[a];
+            final double y = ys[a];
+            for (int offsetY = -1; offsetY <= 1; offsetY++) {
+                for (int offsetX = -1; offsetX <= 1; offsetX++) {
+                    final int neighbourX = cellX + offsetX;
+                    final int neighbourY = cellY + offsetY;
+                    final int bucket = hash(neighbourX, neighbourY);
+                    final int end = bucketStart[bucket + 1];
+                    for (int k = bucketStart[bucket]; k < end; k++) {
+                        final int b = sorted[k];
+                        //b > a: every pair once, cell check: different cells can share a bucket
+                        if (b <= a || cellXs[b] != neighbourX || cellYs[b] != neighbourY) continue;
+                        final double dx = xs[b] - x;
+                        final double dy = ys[b] - y;
+                        if (dx * dx + dy * dy <= maxDistSq) addPair(a, b);
+                    }
+                }
+            }
+        }
+        return pairCount;
+    }
+
+    public int getPairCount() {
+        return pairCount;
+    }
+
+    public int getPairA(int pair) {
+        return pairs[2 * pair];
+    }
+
+    public int getPairB(int pair) {
+        return pairs[2 * pair + 1];
+    }
+
+    private void addPair(int a, int b) {
+        if (2 * pairCount + 2 > pairs.length) {
+            pairs = Arrays.copyOf(pairs, 2 * pairs.length);
+        }
+        pairs[2 * pairCount] = a;
+        pairs[2 * pairCount + 1] = b;
+        pairCount++;
+    }
+
+    private int hash(int cellX, int cellY) {
+        return ((cellX * 73856093) ^ (cellY * 19349663)) & bucketMask;
+    }
+
+    private void ensureCapacity(int count) {
+        if (count <= xs.length) return;
+        final int capacity = Math.max(count, 2 * xs.length);
+        xs = new double[capacity];
+        ys = new double[capacity];
+        cellXs = new int[capacity];
+        cellYs = new int[capacity];
+        buckets = new int[capacity];
+        sorted = new int[capacity];
+
+        //about two buckets per car keeps the buckets short
+        final int bucketCount = Integer.highestOneBit(Math.max(1, 2 * capacity - 1)) << 1;
+        bucketStart = new int[bucketCount + 1];
+        bucketMask = bucketCount - 1;
+    }
+}
@@ -0,0 +1,111 @@
+package de.robinfrederik.drunkracing.physics.collision.map;
+
+//distance from every cell to the closest wall cell of a track, in world units (centre to centre), the outside of the map counts as wall
+//exact euclidean distance transform (Felzenszwalb / Huttenlocher): one pass over the columns, one over the rows,
+//each a lower envelope of parabolas, so it takes linear time in the number of cells
+//used by the ray sensors to jump through open space instead of visiting every cell
+public class DistanceField {
+    private final int width;
+    private final int height;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final float[] distances;    // row major like TrackGrid
+
+    private DistanceField(int width, int height, double cellWidth, double cellHeight, float[] distances) {
+        this.width = width;
+        this.height = height;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.distances = distances;
+    }
+
+    public static DistanceField fromMap(TrackMap map) {
+        final int width = map.getWidth();
+        final int height = map.getHeight();
+        final double cellWidth = map.getCellWidth();
+        final double cellHeight = map.getCellHeight();
+        final double far = 1e20;    // "no wall yet", bigger than any real squared distance
+
+        //squared distances, first only along the columns
+        final double[] squared = new double[width * height];
+        final int longest = Math.max(width, height);
+        final double[] input = new double[longest];
+        final double[] output = new double[longest];
+        final int[] vertices = new int[longest];
+        final double[] bounds = new double[longest + 1];
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) input[y] = map.isSolid(x, y) ? 0 : far;
+            transform(input, output, height, cellHeight, vertices, bounds);
+            for (int y = 0; y < height; y++) squared[y * width + x] = output[y];
+        }
+        final float[] distances = new float[width * height];
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(squared, y * width, input, 0, width);
+            transform(input, output, width, cellWidth, vertices, bounds);
+            for (int x = 0; x < width; x++) {
+                //outside of the map is wall too, its closest cells are just across the border
+                final double border = Math.min(Math.min(x + 1, width - x) * cellWidth, Math.min(y + 1, height - y) * cellHeight);
+                distances[y * width + x] = (float) Math.min(border, Math.sqrt(output[x]));
+            }
+        }
+        return new DistanceField(width, height, cellWidth, cellHeight, distances);
+    }
+
+    //1d transform: output[p] = min over q of input[q] + (spacing * (p - q))^2
+    private static void transform(double[] input, double[] output, int count, double spacing, int[] vertices, double[] bounds) {
+        final double spacingSq = spacing * spacing;
+        int k = 0;
+        vertices[0] = 0;
+        bounds[0] = Double.NEGATIVE_INFINITY;
+        bounds[1] = Double.POSITIVE_INFINITY;
+        for (int q = 1; q < count; q++) {
+            double s = intersection(input, q, vertices[k], spacingSq);
+            while (s <= bounds[k]) { // the new parabola hides the last one of the envelope
+                k--;
+                s = intersection(input, q, vertices[k], spacingSq);
+            }
+            k++;
+            vertices[k] = q;
+            bounds[k] = s;
+            bounds[k + 1] = Double.POSITIVE_INFINITY;
+        }
+        k = 0;
+        for (int p = 0; p < count; p++) {
+            while (bounds[k + 1] < p) k++;
+            final int v = vertices[k];
+            output[p] = spacingSq * (p - v) * (p - v) + input[v];
+        }
+    }
+
+    //where the parabolas of q and v cross
+    private static double intersection(double[] input, int q, int v, double spacingSq) {
+        return ((input[q] + spacingSq * q * q) - (input[v] + spacingSq * v * v)) / (2 * spacingSq * (q - v));
+    }
+
+    //world units from the centre of this cell to the centre of the closest wall cell, 0 outside of the map
+    public double getDistance(int cellX, int cellY) {
+        if (cellX < 0 || cellY < 0 || cellX >= width || cellY >= height) return 0;
+        return distances[cellY * width + cellX];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public double getCellWidth() {
+        return cellWidth;
+    }
+
+    public double getCellHeight() {
+        return cellHeight;
+    }
+
+    public long getMemoryBytes() {
+        return 4L * distances.length;
+    }
+}
@@ -0,0 +1,210 @@
+package de.robinfrederik.drunkracing.physics.collision.map;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Iterator;
+
+//compressed track map, every row is stored as runs of equal cells (start x + value)
+//a track is mostly large areas of asphalt or grass, so a row of thousands of cells usually only has a handful of runs
+//rowStart says where the runs of a row begin, so a point lookup is a binary search inside one row
+//memory grows with the number of edges on the track instead of width * height
+public class RunLengthTrack implements TrackMap {
+    private static final int BAND_ROWS = 256; // image rows fromResource decodes at once
+
+    private final int width;
+    private final int height;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int[] rowStart;   // runs of row y are rowStart[y] until rowStart[y + 1] (exclusive), height + 1 entries
+    private final int[] runStart;   // first cellX of the run
+    private final byte[] runValue;  // what is in every cell of the run
+
+    //gets called for every row while building, so the whole map never has to exist uncompressed
+    public interface RowSource {
+        void row(int cellY, byte[] cells);
+    }
+
+    public RunLengthTrack(int width,
+                          int height,
+                          double cellWidth,
+                          double cellHeight,
+                          RowSource source) {
+        this.width = width;
+        this.height = height;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.rowStart = new int[height + 1];
+
+        final byte[] row = new byte[width];
+        int[] starts = new int[Math.max(16, height * 4)];
+        byte[] values = new byte[starts.length];
+        int runs = 0;
+
+        for (int y = 0; y < height; y++) {
+            source.row(y, row);
+            rowStart[y] = runs;
+            for (int x = 0; x < width; x++) {
+                if (x > 0 && row[x] == row[x - 1]) continue; // same run as before
+                if (runs == starts.length) {
+                    starts = Arrays.copyOf(starts, runs * 2);
+                    values = Arrays.copyOf(values, runs * 2);
+                }
+                starts[runs] = x;
+                values[runs] = row[x];
+                runs++;
+            }
+        }
+        rowStart[height] = runs;
+
+        this.runStart = Arrays.copyOf(starts, runs);
+        this.runValue = Arrays.copyOf(values, runs);
+    }
+
+    //compresses an existing map, e.g. a TrackGrid
+    public static RunLengthTrack fromMap(TrackMap map) {
+        return new RunLengthTrack(map.getWidth(), map.getHeight(), map.getCellWidth(), map.getCellHeight(), (cellY, cells) -> {
+            for (int x = 0; x < cells.length; x++) {
+                cells[x] = map.getCell(x, cellY);
+            }
+        });
+    }
+
+    //same classification as TrackGrid.fromImage for an image that is already decoded, one row is turned into cells at a time
+    public static RunLengthTrack fromImage(BufferedImage image,
+                                           double worldWidth,
+                                           double worldHeight) {
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final int[] pixels = new int[width];
+        return new RunLengthTrack(width, height, worldWidth / width, worldHeight / height, (cellY, cells) -> {
+            image.getRGB(0, cellY, width, 1, pixels, 0, width);
+            for (int x = 0; x < width; x++) {
+                cells[x] = TrackGrid.classify(pixels[x]);
+            }
+        });
+    }
+
+    //decodes the image in bands of BAND_ROWS rows through the source region of the image reader (like ImageRegionTileSource),
+    //so only one band and the runs are in memory and never the whole image
+    //the reader decodes from the top again for every band, that's slower than one read but the memory stays small
+    public static RunLengthTrack fromResource(String resource,
+                                              double worldWidth,
+                                              double worldHeight) {
+        URL url = RunLengthTrack.class.getResource(resource);
+        if (url == null) {
+            throw new IllegalArgumentException("track image not found: " + resource);
+        }
+        try (InputStream stream = url.openStream();
+             ImageInputStream input = ImageIO.createImageInputStream(stream)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("no image reader for " + resource);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, false, true); // not seek forward only, every band goes back to the start
+                final int width = reader.getWidth(0);
+                final int height = reader.getHeight(0);
+                final int[] band = new int[width * BAND_ROWS];
+                final int[] bandStart = {-BAND_ROWS};
+                return new RunLengthTrack(width, height, worldWidth / width, worldHeight / height, (cellY, cells) -> {
+                    if (cellY >= bandStart[0] + BAND_ROWS) { // the rows come in order, so the next band is needed
+                        bandStart[0] = cellY;
+                        final int rows = Math.min(BAND_ROWS, height - cellY);
+                        ImageReadParam param = reader.getDefaultReadParam();
+                        param.setSourceRegion(new Rectangle(0, cellY, width, rows));
+                        try {
+                            reader.read(0, param).getRGB(0, 0, width, rows, band, 0, width);
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                    final int offset = (cellY - bandStart[0]) * width;
+                    for (int x = 0; x < width; x++) {
+                        cells[x] = TrackGrid.classify(band[offset + x]);
+                    }
+                });
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public double getCellWidth() {
+        return cellWidth;
+    }
+
+    @Override
+    public double getCellHeight() {
+        return cellHeight;
+    }
+
+    @Override
+    public byte getCell(int cellX, int cellY) {
+        if (cellX < 0 || cellY < 0 || cellX >= width || cellY >= height) return WALL;
+        return runValue[findRun(cellX, cellY)];
+    }
+
+    @Override
+    public boolean isSolid(int cellX, int cellY) {
+        return getCell(cellX, cellY) == WALL;
+    }
+
+    //walks the runs of every row in the box instead of every cell
+    @Override
+    public boolean isAreaSolid(int minCellX, int minCellY, int maxCellX, int maxCellY) {
+        if (minCellX < 0 || minCellY < 0 || maxCellX >= width || maxCellY >= height) return true; // outside is wall
+        for (int y = minCellY; y <= maxCellY; y++) {
+            final int end = rowStart[y + 1];
+            for (int run = findRun(minCellX, y); run < end && runStart[run] <= maxCellX; run++) {
+                if (runValue[run] == WALL) return true;
+            }
+        }
+        return false;
+    }
+
+    public int getRunCount() {
+        return runStart.length;
+    }
+
+    //bytes held by the arrays, without object headers
+    public long getMemoryBytes() {
+        return 4L * rowStart.length + 4L * runStart.length + runValue.length;
+    }
+
+    //last run of the row that starts at or before cellX, every row has a run starting at 0 so there always is one
+    private int findRun(int cellX, int cellY) {
+        int low = rowStart[cellY];
+        int high = rowStart[cellY + 1] - 1;
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (runStart[middle] <= cellX) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,211 @@
+package de.robinfrederik.drunkracing.physics.collision.map;
+
+import de.robinfrederik.drunkracing.track.TileCache;
+import de.robinfrederik.drunkracing.track.TileSource;
+
+import java.util.concurrent.CompletableFuture;
+
+//collision map that only keeps the tiles around the car in memory, built from the same tiles as the picture
+//every tile is classified like TrackGrid.fromImage when it gets loaded
+//a lookup stays on the last used tile without touching the cache, the collision sweep mostly stays inside one or two tiles
+//lookups and prefetch can come from any thread, threads that share the map only cost each other a cache lookup now and then
+//a missing tile is decoded right away on the thread that looks it up, a tile of the Racetrack takes about 83 ms,
+//so the physics thread uses a map that doesn't wait: a missing tile gets loaded in the background and until then the lookup
+//comes from a coarse copy of the whole map (every 2^coarseLevel-th pixel, built in the background once),
+//before that is there too it counts as free, never as wall, a wall that isn't there would end the race (both get counted)
+//give it a CachedTileSource shared with the picture, then the tiles the picture already decoded only get classified
+public class TiledTrack implements TrackMap {
+    //one loaded tile, also remembers where it is so the last used one can be checked with a single read
+    private static final class Tile {
+        final int tileX;
+        final int tileY;
+        final byte[] cells;
+
+        Tile(int tileX, int tileY, byte[] cells) {
+            this.tileX = tileX;
+            this.tileY = tileY;
+            this.cells = cells;
+        }
+    }
+
+    private final TileSource source;
+    private final TileCache<Tile> tiles;
+    private final int width;
+    private final int height;
+    private final int tileSize;
+    private final double cellWidth;
+    private final double cellHeight;
+
+    private final boolean waitForTiles;
+    private Tile lastTile = new Tile(-1, -1, null);   // stays usable even if the cache has thrown the tile out in the meantime
+    private volatile long missingLookups;              // lookups that hit a tile that wasn't loaded yet
+    private volatile long unknownLookups;              // of them, the ones without the coarse copy either
+
+    //the coarse copy of the whole map, only for a map that doesn't wait, at most about a million cells
+    private final int coarseLevel;
+    private final int coarseWidth;
+    private volatile byte[] coarse;
+    private final CompletableFuture<Void> coarseBuilt;
+
+    //a map that waits for missing tiles, for building things from the whole map in the background
+    public TiledTrack(TileSource source,
+                      double worldWidth,
+                      double worldHeight,
+                      int cachedTiles) {
+        this(source, worldWidth, worldHeight, cachedTiles, true);
+    }
+
+    public TiledTrack(TileSource source,
+                      double worldWidth,
+                      double worldHeight,
+                      int cachedTiles,
+                      boolean waitForTiles) {
+        this.source = source;
+        this.waitForTiles = waitForTiles;
+        this.width = source.getWidth();
+        this.height = source.getHeight();
+        this.tileSize = source.getTileSize();
+        this.cellWidth = worldWidth / width;
+        this.cellHeight = worldHeight / height;
+        this.tiles = new TileCache<>((level, tileX, tileY) -> {
+            int[] pixels = source.readTile(level, tileX, tileY);
+            byte[] cells = new byte[pixels.length];
+            for (int i = 0; i < pixels.length; i++) {
+                cells[i] = TrackGrid.classify(pixels[i]);
+            }
+            return new Tile(tileX, tileY, cells);
+        }, Math.max(cachedTiles, 9)); // at least the 3 x 3 tiles around the car
+
+        int coarseLevel = 0;
+        while (coarseLevel < source.getLevels() - 1 && (long) (width >> coarseLevel) * (height >> coarseLevel) > 1 << 20) coarseLevel++;
+        this.coarseLevel = coarseLevel;
+        this.coarseWidth = (width + (1 << coarseLevel) - 1) >> coarseLevel;
+        this.coarseBuilt = waitForTiles ? CompletableFuture.completedFuture(null) : CompletableFuture.runAsync(() -> buildCoarse(source));
+    }
+
+    private void buildCoarse(TileSource source) {
+        final int coarseHeight = (height + (1 << coarseLevel) - 1) >> coarseLevel;
+        final byte[] cells = new byte[coarseWidth * coarseHeight];
+        for (int tileY = 0; tileY < source.getTilesY(coarseLevel); tileY++) {
+            for (int tileX = 0; tileX < source.getTilesX(coarseLevel); tileX++) {
+                final int[] pixels = source.readTile(coarseLevel, tileX, tileY);
+                final int maxRow = Math.min(tileSize, coarseHeight - tileY * tileSize);
+                final int maxColumn = Math.min(tileSize, coarseWidth - tileX * tileSize);
+                for (int row = 0; row < maxRow; row++) {
+                    for (int column = 0; column < maxColumn; column++) {
+                        cells[(tileY * tileSize + row) * coarseWidth + tileX * tileSize + column] = TrackGrid.classify(pixels[row * tileSize + column]);
+                    }
+                }
+            }
+        }
+        coarse = cells;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public double getCellWidth() {
+        return cellWidth;
+    }
+
+    @Override
+    public double getCellHeight() {
+        return cellHeight;
+    }
+
+    @Override
+    public byte getCell(int cellX, int cellY) {
+        if (cellX < 0 || cellY < 0 || cellX >= width || cellY >= height) return WALL;
+        final int tileX = cellX / tileSize;
+        final int tileY = cellY / tileSize;
+        Tile tile = lastTile; // one read, so another thread swapping it can't mix up two tiles
+        if (tile.tileX != tileX || tile.tileY != tileY) {
+            if (waitForTiles) {
+                tile = tiles.get(0, tileX, tileY); // decodes the tile here if prefetch didn't get it in time
+            } else {
+                tile = tiles.getIfLoaded(0, tileX, tileY);
+                if (tile == null) {
+                    tiles.prefetch(0, tileX, tileY);
+                    missingLookups++;
+                    final byte[] coarse = this.coarse;
+                    if (coarse == null) {
+                        unknownLookups++;
+                        return FREE;
+                    }
+                    return coarse[(cellY >> coarseLevel) * coarseWidth + (cellX >> coarseLevel)];
+                }
+            }
+            lastTile = tile;
+        }
+        return tile.cells[(cellY - tileY * tileSize) * tileSize + cellX - tileX * tileSize];
+    }
+
+    @Override
+    public boolean isSolid(int cellX, int cellY) {
+        return getCell(cellX, cellY) == WALL;
+    }
+
+    //loads the tiles around the way from a point of the world to where the car will be soon (ahead) in the background,
+    //the whole corridor and not only both ends, so a fast car doesn't drive into the tiles in between before they are there
+    public void prefetch(double worldX, double worldY, double aheadX, double aheadY, double radius) {
+        final double stepLength = 0.5 * tileSize * Math.min(cellWidth, cellHeight);
+        final int steps = (int) Math.ceil(Math.hypot(aheadX, aheadY) / stepLength);
+        for (int step = 0; step <= steps; step++) {
+            final double along = steps == 0 ? 0 : step / (double) steps;
+            prefetchArea(worldX + along * aheadX, worldY + along * aheadY, radius);
+        }
+    }
+
+    //loads the tiles around a point of the world right away on this thread, and waits for the coarse copy,
+    //before the race so the physics thread finds them
+    public void load(double worldX, double worldY, double radius) {
+        coarseBuilt.join();
+        final int minTileX = Math.max(0, (int) Math.floor((worldX - radius) / cellWidth) / tileSize);
+        final int minTileY = Math.max(0, (int) Math.floor((worldY - radius) / cellHeight) / tileSize);
+        final int maxTileX = Math.min((width - 1) / tileSize, (int) Math.floor((worldX + radius) / cellWidth) / tileSize);
+        final int maxTileY = Math.min((height - 1) / tileSize, (int) Math.floor((worldY + radius) / cellHeight) / tileSize);
+        for (int tileY = minTileY; tileY <= maxTileY; tileY++) {
+            for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+                tiles.get(0, tileX, tileY);
+            }
+        }
+    }
+
+    //an own cache of a few tiles over the same source, that waits for its tiles (with a CachedTileSource decoded only once for both)
+    @Override
+    public TrackMap forAnotherThread() {
+        return new TiledTrack(source, width * cellWidth, height * cellHeight, 16, true);
+    }
+
+    public long getMissingLookups() {
+        return missingLookups;
+    }
+
+    public long getUnknownLookups() {
+        return unknownLookups;
+    }
+
+    public TileCache<?> getTiles() {
+        return tiles;
+    }
+
+    private void prefetchArea(double worldX, double worldY, double radius) {
+        final int minTileX = Math.max(0, (int) Math.floor((worldX - radius) / cellWidth) / tileSize);
+        final int minTileY = Math.max(0, (int) Math.floor((worldY - radius) / cellHeight) / tileSize);
+        final int maxTileX = Math.min((width - 1) / tileSize, (int) Math.floor((worldX + radius) / cellWidth) / tileSize);
+        final int maxTileY = Math.min((height - 1) / tileSize, (int) Math.floor((worldY + radius) / cellHeight) / tileSize);
+        for (int tileY = minTileY; tileY <= maxTileY; tileY++) {
+            for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+                tiles.prefetch(0, tileX, tileY);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package de.robinfrederik.drunkracing.physics.collision.map;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+
+//dense collision map, one byte per cell in a flat array
+//a lookup is a bounds check and a single array load, which is what the physics thread needs at 1000 steps a second
+public class TrackGrid implements TrackMap {
+    private final int width;
+    private final int height;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final byte[] cells;     // row major, index = cellY * width + cellX
+
+    public TrackGrid(int width,
+                     int height,
+                     double cellWidth,
+                     double cellHeight) {
+        this(width, height, cellWidth, cellHeight, new byte[width * height]);
+    }
+
+    public TrackGrid(int width,
+                     int height,
+                     double cellWidth,
+                     double cellHeight,
+                     byte[] cells) {
+        if (cells.length != width * height) {
+            throw new IllegalArgumentException("cells has " + cells.length + " entries, expected " + width * height);
+        }
+        this.width = width;
+        this.height = height;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.cells = cells;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public double getCellWidth() {
+        return cellWidth;
+    }
+
+    @Override
+    public double getCellHeight() {
+        return cellHeight;
+    }
+
+    @Override
+    public byte getCell(int cellX, int cellY) {
+        if (cellX < 0 || cellY < 0 || cellX >= width || cellY >= height) return WALL;
+        return cells[cellY * width + cellX];
+    }
+
+    @Override
+    public boolean isSolid(int cellX, int cellY) {
+        return getCell(cellX, cellY) == WALL;
+    }
+
+    @Override
+    public boolean isAreaSolid(int minCellX, int minCellY, int maxCellX, int maxCellY) {
+        if (minCellX < 0 || minCellY < 0 || maxCellX >= width || maxCellY >= height) return true; // outside is wall
+        for (int y = minCellY; y <= maxCellY; y++) {
+            final int row = y * width;
+            for (int x = minCellX; x <= maxCellX; x++) {
+                if (cells[row + x] == WALL) return true;
+            }
+        }
+        return false;
+    }
+
+    public void setCell(int cellX, int cellY, byte value) {
+        cells[cellY * width + cellX] = value;
+    }
+
+    //direct access for code that walks the whole grid (building other maps from it etc.)
+    public byte[] getCells() {
+        return cells;
+    }
+
+    //builds the grid from the track image, one cell per image pixel, scaled to the size the image has in the game world
+    //uses the same "clearly green" rule the game used on the JavaFX image, green is the area next to the track
+    //the other colours become surfaces with less grip, see classify
+    public static TrackGrid fromImage(BufferedImage image,
+                                      double worldWidth,
+                                      double worldHeight) {
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final byte[] cells = new byte[width * height];
+        final int[] row = new int[width];
+
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width); // one row at a time, getRGB per pixel is really slow
+            for (int x = 0; x < width; x++) {
+                cells[y * width + x] = classify(row[x]);
+            }
+        }
+
+        return new TrackGrid(width, height, worldWidth / width, worldHeight / height, cells);
+    }
+
+    public static TrackGrid fromResource(String resource,
+                                         double worldWidth,
+                                         double worldHeight) {
+        URL url = TrackGrid.class.getResource(resource);
+        if (url == null) {
+            throw new IllegalArgumentException("track image not found: " + resource);
+        }
+        try {
+            return fromImage(ImageIO.read(url), worldWidth, worldHeight);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    //colour of one pixel -> what is there
+    public static byte classify(int argb) {
+        final double red = ((argb >> 16) & 0xFF) / 255.0;
+        final double green = ((argb >> 8) & 0xFF) / 255.0;
+        final double blue = (argb & 0xFF) / 255.0;
+
+        if (green - red > 0.2 && green - blue > 0.1 && green > 0.4) return WALL;          // clearly green, same as the game over rule
+        if (red - green > 0.4 && red - blue > 0.4 && red > 0.5) return KERB;               // clearly red, like the red zones of Map 2
+        if (green > red && green > blue && green - blue > 0.1 && green > 0.25) return GRASS; // duller, darker green
+        if (red > 0.55 && green > 0.45 && red - blue > 0.2 && green - blue > 0.15) return GRAVEL; // sand / beige
+        return FREE;
+    }
+}
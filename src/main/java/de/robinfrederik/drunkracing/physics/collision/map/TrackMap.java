@@ -0,0 +1,37 @@
+package de.robinfrederik.drunkracing.physics.collision.map;
+
+//makes other ways of storing a track possible (dense grid, compressed, tiled ...)
+//a track is a grid of cells, every cell holds one byte describing what is there
+//cells outside of the map always count as wall so nothing can leave the world
+public interface TrackMap {
+    byte FREE = 0;      // drivable, plain asphalt
+    byte WALL = 1;      // anything the car must not enter
+    byte KERB = 2;      // drivable surfaces with different grip, see SurfaceGripMap
+    byte GRASS = 3;
+    byte GRAVEL = 4;
+    int SURFACE_CLASSES = 16; // cell values stay below this, so they would also fit into 4 bits
+
+    int getWidth();             // number of cells in x
+    int getHeight();            // number of cells in y
+    double getCellWidth();      // world units (pixels of the game world) per cell in x
+    double getCellHeight();     // world units (pixels of the game world) per cell in y
+    byte getCell(int cellX, int cellY);
+    boolean isSolid(int cellX, int cellY);
+
+    //a map with the same cells for another thread, so that thread doesn't change what this one keeps (caches, last tile)
+    //maps that only get read can give themselves
+    default TrackMap forAnotherThread() {
+        return this;
+    }
+
+    //true if any cell inside the box (all bounds inclusive) is solid
+    //cell by cell here, maps that can do it faster override it
+    default boolean isAreaSolid(int minCellX, int minCellY, int maxCellX, int maxCellY) {
+        for (int y = minCellY; y <= maxCellY; y++) {
+            for (int x = minCellX; x <= maxCellX; x++) {
+                if (isSolid(x, y)) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,81 @@
+package de.robinfrederik.drunkracing.physics.collision.response;
+
+import de.robinfrederik.drunkracing.car.Car;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+import de.robinfrederik.drunkracing.physics.ackermann.formulae.IntegrationSemiImplicit;
+import de.robinfrederik.drunkracing.physics.collision.detection.CollisionContact;
+
+//bounces the car off a wall instead of ending the game
+//classic impulse response: the wall pushes at the contact point along the normal (restitution = how bouncy)
+//and along the wall (friction, capped by the coulomb cone), which also gives the car a spin depending on where it was hit
+//works straight on longVel, latVel and yawRate of the state, so it can run in the physics step right after the collision check
+public class CollisionResponse {
+    private final double restitution;       // 0 = car sticks to the wall, 1 = bounces back with the same speed
+    private final double friction;          // friction coefficient between car and wall
+
+    public CollisionResponse(double restitution,
+                             double friction) {
+        this.restitution = restitution;
+        this.friction = friction;
+    }
+
+    public void apply(Car car, CollisionContact contact) {
+        if (!contact.isHit()) return;
+        final AckermannState state = car.getState();
+        final double mass = car.getMass();
+        final double inertia = car.getResRot(); // resRot is what the yaw acceleration gets divided by, so it is the inertia of this model
+        final double pixelsPerMeter = IntegrationSemiImplicit.PIXELS_PER_METER;
+
+        final double normalX = contact.getNormalX();
+        final double normalY = contact.getNormalY();
+        if (normalX == 0 && normalY == 0) return;
+
+        //move the car out again if it already started inside the wall, as far as the outline is in it (not the swept depth)
+        if (contact.getTime() == 0) {
+            state.setXCoM(state.getXCoM() + normalX * contact.getPenetration());
+            state.setYCoM(state.getYCoM() + normalY * contact.getPenetration());
+        }
+
+        //velocity of the CoM in world frame (m/s)
+        final double cosYaw = Math.cos(state.getYaw());
+        final double sinYaw = Math.sin(state.getYaw());
+        double velX = state.getLongVel() * cosYaw - state.getLatVel() * sinYaw;
+        double velY = state.getLongVel() * sinYaw + state.getLatVel() * cosYaw;
+        double yawRate = state.getYawRate();
+
+        //lever arm from CoM to contact point in meters
+        final double armX = (contact.getPointX() - state.getXCoM()) / pixelsPerMeter;
+        final double armY = (contact.getPointY() - state.getYCoM()) / pixelsPerMeter;
+
+        //velocity of the contact point
+        final double pointVelX = velX - yawRate * armY;
+        final double pointVelY = velY + yawRate * armX;
+        final double normalVel = pointVelX * normalX + pointVelY * normalY;
+        if (normalVel >= 0) return; // already moving away from the wall
+
+        //normal impulse
+        final double armCrossNormal = armX * normalY - armY * normalX;
+        final double normalImpulse = -(1 + this.restitution) * normalVel
+                / (1 / mass + armCrossNormal * armCrossNormal / inertia);
+
+        //friction impulse along the wall, can't be bigger than friction * normal impulse
+        final double tangentX = -normalY;
+        final double tangentY = normalX;
+        final double tangentVel = pointVelX * tangentX + pointVelY * tangentY;
+        final double armCrossTangent = armX * tangentY - armY * tangentX;
+        double tangentImpulse = -tangentVel / (1 / mass + armCrossTangent * armCrossTangent / inertia);
+        final double maxTangentImpulse = this.friction * normalImpulse;
+        tangentImpulse = Math.max(-maxTangentImpulse, Math.min(maxTangentImpulse, tangentImpulse));
+
+        final double impulseX = normalImpulse * normalX + tangentImpulse * tangentX;
+        final double impulseY = normalImpulse * normalY + tangentImpulse * tangentY;
+        velX += impulseX / mass;
+        velY += impulseY / mass;
+        yawRate += (armX * impulseY - armY * impulseX) / inertia;
+
+        //back into the frame of the car
+        state.setLongVel(velX * cosYaw + velY * sinYaw);
+        state.setLatVel(-velX * sinYaw + velY * cosYaw);
+        state.setYawRate(yawRate);
+    }
+}
@@ -0,0 +1,106 @@
+package de.robinfrederik.drunkracing.physics.collision.response;
+
+import de.robinfrederik.drunkracing.car.Car;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+import de.robinfrederik.drunkracing.physics.collision.detection.BoxOverlap;
+import de.robinfrederik.drunkracing.physics.collision.detection.SpatialHash;
+
+//karts bumping into each other: the SpatialHash finds the candidate pairs, BoxOverlap the ones that really touch,
+//and those get pushed apart and bounced off each other along the line between their centres
+//simpler than the wall response: no contact point, so no spin, a bump only changes where the karts go and how fast
+//all karts have the same box, runs in the physics step right after the karts were stepped and doesn't allocate
+public class KartContact {
+    private final SpatialHash hash;
+    private final double halfLength;
+    private final double halfWidth;
+    private final double restitution;   // 0 = the karts stay together, 1 = they bounce off with the same speed
+    private long contacts;              // touching pairs since it was made
+
+    public KartContact(double halfLength,
+                       double halfWidth,
+                       double restitution) {
+        this.hash = new SpatialHash(Math.hypot(halfLength, halfWidth));
+        this.halfLength = halfLength;
+        this.halfWidth = halfWidth;
+        this.restitution = restitution;
+    }
+
+    //looks at the first count cars, returns the number of pairs that touched
+    public int resolve(Car[] cars, int count) {
+        hash.update(cars, count);
+        final int pairs = hash.findPairs();
+        int touching = 0;
+        for (int p = 0; p < pairs; p++) {
+            final Car a = cars[hash.getPairA(p)];
+            final Car b = cars[hash.getPairB(p)];
+            final AckermannState stateA = a.getState();
+            final AckermannState stateB = b.getState();
+            if (!BoxOverlap.overlaps(stateA.getXCoM(), stateA.getYCoM(), stateA.getYaw(), halfLength, halfWidth,
+                    stateB.getXCoM(), stateB.getYCoM(), stateB.getYaw(), halfLength, halfWidth)) continue;
+            touching++;
+            push(a, b);
+        }
+        contacts += touching;
+        return touching;
+    }
+
+    public long getContacts() {
+        return contacts;
+    }
+
+    private void push(Car a, Car b) {
+        final AckermannState stateA = a.getState();
+        final AckermannState stateB = b.getState();
+        final double massA = a.getMass();
+        final double massB = b.getMass();
+        double normalX = stateB.getXCoM() - stateA.getXCoM();
+        double normalY = stateB.getYCoM() - stateA.getYCoM();
+        final double distance = Math.hypot(normalX, normalY);
+        if (distance == 0) {
+            normalX = Math.cos(stateA.getYaw()); // right on top of each other, b goes forward
+            normalY = Math.sin(stateA.getYaw());
+        } else {
+            normalX /= distance;
+            normalY /= distance;
+        }
+
+        //how far the boxes reach along the normal, the rest of the distance between the centres is the overlap, split by mass
+        final double overlap = reach(stateA.getYaw(), normalX, normalY) + reach(stateB.getYaw(), normalX, normalY) - distance;
+        if (overlap > 0) {
+            final double shareA = massB / (massA + massB); // the lighter one gets moved more
+            stateA.setXCoM(stateA.getXCoM() - normalX * overlap * shareA);
+            stateA.setYCoM(stateA.getYCoM() - normalY * overlap * shareA);
+            stateB.setXCoM(stateB.getXCoM() + normalX * overlap * (1 - shareA));
+            stateB.setYCoM(stateB.getYCoM() + normalY * overlap * (1 - shareA));
+        }
+
+        //velocities of the CoMs in world frame (m/s)
+        final double cosA = Math.cos(stateA.getYaw());
+        final double sinA = Math.sin(stateA.getYaw());
+        final double cosB = Math.cos(stateB.getYaw());
+        final double sinB = Math.sin(stateB.getYaw());
+        double velAX = stateA.getLongVel() * cosA - stateA.getLatVel() * sinA;
+        double velAY = stateA.getLongVel() * sinA + stateA.getLatVel() * cosA;
+        double velBX = stateB.getLongVel() * cosB - stateB.getLatVel() * sinB;
+        double velBY = stateB.getLongVel() * sinB + stateB.getLatVel() * cosB;
+        final double normalVel = (velBX - velAX) * normalX + (velBY - velAY) * normalY;
+        if (normalVel >= 0) return; // already moving apart
+
+        final double impulse = -(1 + restitution) * normalVel / (1 / massA + 1 / massB);
+        velAX -= impulse * normalX / massA;
+        velAY -= impulse * normalY / massA;
+        velBX += impulse * normalX / massB;
+        velBY += impulse * normalY / massB;
+
+        //back into the frame of each car
+        stateA.setLongVel(velAX * cosA + velAY * sinA);
+        stateA.setLatVel(-velAX * sinA + velAY * cosA);
+        stateB.setLongVel(velBX * cosB + velBY * sinB);
+        stateB.setLatVel(-velBX * sinB + velBY * cosB);
+    }
+
+    //half the extent of a kart box with this yaw along the direction (x, y)
+    private double reach(double yaw, double x, double y) {
+        return halfLength * Math.abs(Math.cos(yaw) * x + Math.sin(yaw) * y) + halfWidth * Math.abs(-Math.sin(yaw) * x + Math.cos(yaw) * y);
+    }
+}
@@ -0,0 +1,57 @@
+package de.robinfrederik.drunkracing.render;
+
+import java.util.Arrays;
+
+//keeps the last frame times and gives mean and percentiles, so renderers and effects can be compared
+public class FrameStats {
+    private final long[] frameNanos;
+    private final long[] sorted;    // scratch array for the percentiles, so asking doesn't allocate
+    private int count;
+    private int next;
+    private long lastFrame;
+
+    public FrameStats(int frames) {
+        this.frameNanos = new long[frames];
+        this.sorted = new long[frames];
+    }
+
+    //call once per frame with the timestamp of the AnimationTimer
+    public void frame(long now) {
+        if (lastFrame != 0) {
+            frameNanos[next] = now - lastFrame;
+            next = (next + 1) % frameNanos.length;
+            if (count < frameNanos.length) count++;
+        }
+        lastFrame = now;
+    }
+
+    public void reset() {
+        count = 0;
+        next = 0;
+        lastFrame = 0;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getMeanMillis() {
+        if (count == 0) return 0;
+        long sum = 0;
+        for (int i = 0; i < count; i++) sum += frameNanos[i];
+        return sum / 1e6 / count;
+    }
+
+    //p between 0 and 1, e.g. 0.99
+    public double getPercentileMillis(double p) {
+        if (count == 0) return 0;
+        System.arraycopy(frameNanos, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        return sorted[Math.min(count - 1, (int) (p * count))] / 1e6;
+    }
+
+    public double getFps() {
+        final double mean = getMeanMillis();
+        return mean == 0 ? 0 : 1000 / mean;
+    }
+}
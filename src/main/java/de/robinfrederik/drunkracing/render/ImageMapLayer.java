@@ -0,0 +1,39 @@
+package de.robinfrederik.drunkracing.render;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+
+//a map that is one image stretched over the world, only the visible part of the image gets drawn
+public class ImageMapLayer implements MapLayer {
+    private final Image image;
+    private final double worldWidth;
+    private final double worldHeight;
+
+    public ImageMapLayer(Image image,
+                         double worldWidth,
+                         double worldHeight) {
+        this.image = image;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+    }
+
+    public Image getImage() {
+        return image;
+    }
+
+    @Override
+    public void draw(GraphicsContext gc, double viewX, double viewY, double viewWidth, double viewHeight) {
+        //visible part of the world, cut at the border of the map
+        final double minX = Math.max(0, viewX);
+        final double minY = Math.max(0, viewY);
+        final double maxX = Math.min(worldWidth, viewX + viewWidth);
+        final double maxY = Math.min(worldHeight, viewY + viewHeight);
+        if (maxX <= minX || maxY <= minY) return;
+
+        final double scaleX = image.getWidth() / worldWidth;  // image pixels per world unit
+        final double scaleY = image.getHeight() / worldHeight;
+        gc.drawImage(image,
+                minX * scaleX, minY * scaleY, (maxX - minX) * scaleX, (maxY - minY) * scaleY,
+                minX - viewX, minY - viewY, maxX - minX, maxY - minY);
+    }
+}
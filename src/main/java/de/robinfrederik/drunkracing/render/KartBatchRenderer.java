@@ -0,0 +1,62 @@
+package de.robinfrederik.drunkracing.render;
+
+import de.robinfrederik.drunkracing.car.CarVisual;
+import de.robinfrederik.drunkracing.physics.PoseBuffer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+
+//draws many karts in one pass onto one canvas instead of one CarVisual node per kart
+//all karts share one sprite, every kart is only a transform and a drawImage, karts outside of the screen are skipped
+//the poses come from a PoseBuffer the physics thread publishes into, so nothing here touches the car states
+public class KartBatchRenderer extends Canvas {
+    private final Image sprite;
+    private final double length;
+    private final double width;
+    private final double cullRadius;    // half the diagonal of the sprite, a kart further off screen can't be seen
+    private int drawn;                  // karts drawn in the last frame
+
+    public KartBatchRenderer(double screenWidth,
+                             double screenHeight) {
+        super(screenWidth, screenHeight);
+        this.sprite = new Image(KartBatchRenderer.class.getResource("/images/car.png").toExternalForm());
+        this.length = CarVisual.SPRITE_LENGTH;
+        this.width = CarVisual.SPRITE_WIDTH;
+        this.cullRadius = Math.hypot(length, width) / 2;
+        setMouseTransparent(true);
+    }
+
+    //draws every kart of poses so that the world point (cameraX, cameraY) is in the middle of the canvas
+    //zoom is screen pixels per world unit, 1 in the game
+    public void render(PoseBuffer poses, double cameraX, double cameraY, double zoom) {
+        final GraphicsContext gc = getGraphicsContext2D();
+        final double screenWidth = getWidth();
+        final double screenHeight = getHeight();
+        final double cull = cullRadius * zoom;
+
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        gc.clearRect(0, 0, screenWidth, screenHeight);
+
+        int drawn = 0;
+        final int count = poses.getCount();
+        for (int kart = 0; kart < count; kart++) {
+            final double screenX = (poses.getX(kart) - cameraX) * zoom + screenWidth / 2;
+            final double screenY = (poses.getY(kart) - cameraY) * zoom + screenHeight / 2;
+            if (screenX < -cull || screenY < -cull || screenX > screenWidth + cull || screenY > screenHeight + cull) continue;
+
+            //rotation by yaw around the centre of the kart and zoom, then move it to its place on screen
+            final double cos = Math.cos(poses.getYaw(kart)) * zoom;
+            final double sin = Math.sin(poses.getYaw(kart)) * zoom;
+            gc.setTransform(cos, sin, -sin, cos, screenX, screenY);
+            gc.drawImage(sprite, -length / 2, -width / 2, length, width);
+            drawn++;
+        }
+
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        this.drawn = drawn;
+    }
+
+    public int getDrawnCount() {
+        return drawn;
+    }
+}
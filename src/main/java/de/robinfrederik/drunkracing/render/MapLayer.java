@@ -0,0 +1,9 @@
+package de.robinfrederik.drunkracing.render;
+
+import javafx.scene.canvas.GraphicsContext;
+
+//something that can draw a part of a map, used by the ViewportRenderer
+//one world unit is one canvas pixel, the top left corner of the canvas is (viewX, viewY) of the world
+public interface MapLayer {
+    void draw(GraphicsContext gc, double viewX, double viewY, double viewWidth, double viewHeight);
+}
@@ -0,0 +1,143 @@
+package de.robinfrederik.drunkracing.render;
+
+import de.robinfrederik.drunkracing.ai.RacingLine;
+import de.robinfrederik.drunkracing.physics.collision.map.TrackMap;
+import javafx.application.Platform;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+//small map in the corner, made from the collision/surface map instead of a second copy of the track picture
+//the picture is built once in the background: every minimap pixel gets the surface that most of 4 x 4 cells spread over its block show,
+//the rows are spread over all cores
+//after that only the kart markers change, a marker is 3 x 3 pixels written through the PixelWriter,
+//and the pixels under the old markers are put back from the base picture, so the rest of the minimap is never redrawn
+public class Minimap extends ImageView {
+    private static final int SAMPLES = 4;   // cells looked at per block in each direction, enough to find the main surface
+
+    private final int width;
+    private final int height;
+    private final double worldWidth;
+    private final double worldHeight;
+    private final WritableImage image;
+    private final PixelWriter writer;
+    private final int[] base;                       // minimap without markers, argb
+    private final int[] colors = new int[TrackMap.SURFACE_CLASSES];
+    private volatile boolean ready;
+    private RacingLine line;                        // drawn into the base picture, FX thread only
+    private int lineColor;
+
+    private final int[] markerX;                    // pixel positions of the markers drawn last
+    private final int[] markerY;
+    private int markers;
+
+    public Minimap(TrackMap map,
+                   double worldWidth,
+                   double worldHeight,
+                   int width,
+                   int maxMarkers) {
+        this.width = width;
+        this.height = Math.max(1, (int) Math.round(width * worldHeight / worldWidth));
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.image = new WritableImage(this.width, this.height);
+        this.writer = image.getPixelWriter();
+        this.base = new int[this.width * this.height];
+        this.markerX = new int[maxMarkers];
+        this.markerY = new int[maxMarkers];
+        setImage(image);
+        setOpacity(0.85);
+
+        colors[TrackMap.FREE] = 0xFF505050;     // asphalt
+        colors[TrackMap.WALL] = 0xFF1E5A1E;     // the green next to the track
+        colors[TrackMap.KERB] = 0xFFC83232;
+        colors[TrackMap.GRASS] = 0xFF3C8C3C;
+        colors[TrackMap.GRAVEL] = 0xFFD2BE82;
+
+        CompletableFuture.runAsync(() -> {
+            build(map);
+            Platform.runLater(() -> {
+                if (line != null) drawLine(); // came before the picture was done
+                writer.setPixels(0, 0, this.width, this.height, PixelFormat.getIntArgbInstance(), base, 0, this.width);
+                ready = true;
+            });
+        });
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    //the centerline (or any line) on top of the surfaces, call on the FX thread
+    public void setLine(RacingLine line, int argb) {
+        this.line = line;
+        this.lineColor = argb;
+        if (!ready) return; // drawn when the picture is done
+        drawLine();
+        writer.setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), base, 0, width);
+    }
+
+    private void drawLine() {
+        for (int i = 0; i < line.getCount(); i++) {
+            final int pixelX = (int) (line.getX(i) / worldWidth * width);
+            final int pixelY = (int) (line.getY(i) / worldHeight * height);
+            if (pixelX >= 0 && pixelY >= 0 && pixelX < width && pixelY < height) base[pixelY * width + pixelX] = lineColor;
+        }
+    }
+
+    //puts back the pixels under the markers of the last frame, call on the FX thread before drawing the new ones
+    public void clearMarkers() {
+        if (!ready) return;
+        for (int i = 0; i < markers; i++) {
+            for (int y = markerY[i] - 1; y <= markerY[i] + 1; y++) {
+                for (int x = markerX[i] - 1; x <= markerX[i] + 1; x++) {
+                    if (x >= 0 && y >= 0 && x < width && y < height) writer.setArgb(x, y, base[y * width + x]);
+                }
+            }
+        }
+        markers = 0;
+    }
+
+    //a kart at a point of the world, on the FX thread
+    public void drawMarker(double worldX, double worldY, int argb) {
+        if (!ready || markers == markerX.length) return;
+        final int pixelX = (int) (worldX / worldWidth * width);
+        final int pixelY = (int) (worldY / worldHeight * height);
+        for (int y = pixelY - 1; y <= pixelY + 1; y++) {
+            for (int x = pixelX - 1; x <= pixelX + 1; x++) {
+                if (x >= 0 && y >= 0 && x < width && y < height) writer.setArgb(x, y, argb);
+            }
+        }
+        markerX[markers] = pixelX;
+        markerY[markers] = pixelY;
+        markers++;
+    }
+
+    private void build(TrackMap map) {
+        final double cellsPerPixelX = (double) map.getWidth() / width;
+        final double cellsPerPixelY = (double) map.getHeight() / height;
+        IntStream.range(0, height).parallel().forEach(pixelY -> {
+            final int[] counts = new int[TrackMap.SURFACE_CLASSES];
+            for (int pixelX = 0; pixelX < width; pixelX++) {
+                Arrays.fill(counts, 0);
+                for (int sampleY = 0; sampleY < SAMPLES; sampleY++) {
+                    final int cellY = (int) ((pixelY + (sampleY + 0.5) / SAMPLES) * cellsPerPixelY);
+                    for (int sampleX = 0; sampleX < SAMPLES; sampleX++) {
+                        final int cellX = (int) ((pixelX + (sampleX + 0.5) / SAMPLES) * cellsPerPixelX);
+                        counts[map.getCell(cellX, cellY) & (TrackMap.SURFACE_CLASSES - 1)]++;
+                    }
+                }
+                int surface = 0;
+                for (int i = 1; i < counts.length; i++) {
+                    if (counts[i] > counts[surface]) surface = i;
+                }
+                base[pixelY * width + pixelX] = colors[surface] != 0 ? colors[surface] : 0xFF000000;
+            }
+        });
+    }
+}
@@ -0,0 +1,161 @@
+package de.robinfrederik.drunkracing.render;
+
+import de.robinfrederik.drunkracing.physics.PhysicsLoop;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+
+//small in-game profiler: frame times, physics steps, garbage collection and allocation
+//the numbers are collected every frame but only turned into text and drawn 4 times a second, all in one pass onto one canvas
+//text is built in reused StringBuilders without String.format, so the overlay itself hardly allocates anything
+//the last two lines are the frame times of the last race, they only change when a race ends (setLastRace)
+public class ProfilerOverlay extends Canvas {
+    private static final long REFRESH_NANOS = 250_000_000L;
+    private static final double LINE_HEIGHT = 16;
+    private static final int LINES = 9;
+
+    private final PhysicsLoop physicsLoop;
+    private final FrameStats frameStats = new FrameStats(600);
+    private final long[] stepNanos = new long[1024];
+    private final StringBuilder[] lines = new StringBuilder[LINES];
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final Font font = Font.font("monospace", 13);
+    private final Color background = Color.rgb(0, 0, 0, 0.6);
+
+    //values at the last refresh, the shown rates are the difference divided by the time in between
+    private long lastRefresh;
+    private long lastTicks;
+    private long lastGcCount;
+    private long lastGcMillis;
+    private long lastAllocatedBytes;
+
+    public ProfilerOverlay(PhysicsLoop physicsLoop) {
+        super(300, LINES * LINE_HEIGHT + 8);
+        this.physicsLoop = physicsLoop;
+        for (int i = 0; i < LINES; i++) lines[i] = new StringBuilder(64);
+        lines[7].append("last race --");
+        setMouseTransparent(true);
+        setVisible(false);
+    }
+
+    //call once per frame with the timestamp of the AnimationTimer, also while hidden so the numbers are ready when it gets shown
+    public void frame(long now) {
+        frameStats.frame(now);
+        if (now - lastRefresh < REFRESH_NANOS) return;
+
+        final double seconds = lastRefresh == 0 ? 0 : (now - lastRefresh) / 1e9;
+        final long ticks = physicsLoop.getTickCount();
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            gcCount += Math.max(0, collector.getCollectionCount());
+            gcMillis += Math.max(0, collector.getCollectionTime());
+        }
+        final long allocatedBytes = allocatedBytes();
+
+        if (seconds > 0 && isVisible()) {
+            final int steps = physicsLoop.copyStepNanos(stepNanos);
+            Arrays.sort(stepNanos, 0, steps);
+            final double stepP99 = steps == 0 ? 0 : stepNanos[Math.min(steps - 1, (int) (0.99 * steps))] / 1e3;
+
+            StringBuilder line = clear(0).append("FPS ");
+            appendFixed(line, frameStats.getFps(), 1);
+            line = clear(1).append("frame p50 ");
+            appendFixed(line, frameStats.getPercentileMillis(0.5), 2).append(" p99 ");
+            appendFixed(line, frameStats.getPercentileMillis(0.99), 2).append(" max ");
+            appendFixed(line, frameStats.getPercentileMillis(1), 2).append(" ms");
+            line = clear(2).append("physics ");
+            appendFixed(line, Math.max(0, ticks - lastTicks) / seconds, 0).append(" steps/s");
+            line = clear(3).append("step p99 ");
+            appendFixed(line, stepP99, 1).append(" us");
+            clear(4).append("late steps ").append(physicsLoop.getLateTicks());
+            line = clear(5).append("GC ").append(gcCount).append(" (+").append(gcCount - lastGcCount).append(") pause ");
+            line.append(gcMillis).append(" ms (+").append(gcMillis - lastGcMillis).append(')');
+            line = clear(6).append("alloc ");
+            if (allocatedBytes < 0 || lastAllocatedBytes < 0) {
+                line.append("n/a");
+            } else {
+                appendFixed(line, Math.max(0, allocatedBytes - lastAllocatedBytes) / seconds / (1024 * 1024), 2).append(" MiB/s"); // negative right after the physics thread was restarted
+            }
+            draw();
+        }
+
+        lastRefresh = now;
+        lastTicks = ticks;
+        lastGcCount = gcCount;
+        lastGcMillis = gcMillis;
+        lastAllocatedBytes = allocatedBytes;
+    }
+
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    //frame times of a race that just ended, name says which (difficulty and map), call on the FX thread
+    public void setLastRace(String name, FrameStats race) {
+        clear(7).append("last race ").append(name);
+        final StringBuilder line = clear(8);
+        appendFixed(line, race.getFps(), 1).append(" fps, p50 ");
+        appendFixed(line, race.getPercentileMillis(0.5), 2).append(" p99 ");
+        appendFixed(line, race.getPercentileMillis(0.99), 2).append(" ms");
+        if (isVisible()) draw();
+    }
+
+    private void draw() {
+        final GraphicsContext gc = getGraphicsContext2D();
+        gc.clearRect(0, 0, getWidth(), getHeight());
+        gc.setFill(background);
+        gc.fillRect(0, 0, getWidth(), getHeight());
+        gc.setFill(Color.LIME);
+        gc.setFont(font);
+        gc.setTextBaseline(VPos.TOP);
+        for (int i = 0; i < LINES; i++) {
+            gc.fillText(lines[i].toString(), 6, 4 + i * LINE_HEIGHT);
+        }
+    }
+
+    private StringBuilder clear(int line) {
+        lines[line].setLength(0);
+        return lines[line];
+    }
+
+    //bytes allocated by the FX thread (the caller) and the physics thread, -1 if the JVM can't tell
+    private long allocatedBytes() {
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) return -1;
+        final com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+        if (!allocation.isThreadAllocatedMemorySupported() || !allocation.isThreadAllocatedMemoryEnabled()) return -1;
+        long bytes = allocation.getCurrentThreadAllocatedBytes();
+        final long physicsThread = physicsLoop.getThreadId();
+        if (physicsThread >= 0) bytes += Math.max(0, allocation.getThreadAllocatedBytes(physicsThread));
+        return bytes;
+    }
+
+    //appends value with a fixed number of decimals, like %.2f but without a Formatter
+    public static StringBuilder appendFixed(StringBuilder builder, double value, int decimals) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return builder.append(value);
+        if (value < 0) {
+            builder.append('-');
+            value = -value;
+        }
+        long scale = 1;
+        for (int i = 0; i < decimals; i++) scale *= 10;
+        final long scaled = Math.round(value * scale);
+        builder.append(scaled / scale);
+        if (decimals > 0) {
+            builder.append('.');
+            final long fraction = scaled % scale;
+            for (long digit = scale / 10; digit > fraction && digit > 1; digit /= 10) builder.append('0'); // leading zeros
+            builder.append(fraction);
+        }
+        return builder;
+    }
+}
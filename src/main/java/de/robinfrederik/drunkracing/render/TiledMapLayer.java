@@ -0,0 +1,151 @@
+package de.robinfrederik.drunkracing.render;
+
+import de.robinfrederik.drunkracing.track.BlurredTileSource;
+import de.robinfrederik.drunkracing.track.TileCache;
+import de.robinfrederik.drunkracing.track.TileSource;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+//draws a map from tiles, only the tiles the camera can see get drawn
+//tiles are decoded on the loader thread of the cache, ahead of the camera in the direction the car is driving
+//the level of the pyramid is picked so one tile pixel is about one screen pixel, a huge map never gets decoded in full resolution
+//until a tile is ready the coarser tile above it is shown stretched, if that one is there
+//for the drunk vision the tiles can be swapped for blurred ones (setVision), which are made from a coarser level and cached
+public class TiledMapLayer implements MapLayer {
+    private final TileSource sharpSource;
+    private final TileCache<Image> sharpTiles;
+    private final int sharpLevel;
+    private final int cachedTiles;
+    private final double worldWidth;
+    private final double worldHeight;
+
+    //what draw uses right now, either the sharp tiles or the blurred ones
+    private TileSource source;
+    private TileCache<Image> tiles;
+    private int level;
+    private double tileWorldWidth;    // world units covered by one tile of the used level
+    private double tileWorldHeight;
+
+    private double visionRadius;      // settings of the blurred tiles, to not blur them again for the same difficulty
+    private double visionHue;
+    private double visionSaturation;
+
+    public TiledMapLayer(TileSource source,
+                         double worldWidth,
+                         double worldHeight,
+                         int cachedTiles) {
+        this.sharpSource = source;
+        this.cachedTiles = cachedTiles;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+
+        //world units per image pixel on level 0, every level up doubles it
+        final double pixelWorldSize = worldWidth / source.getWidth();
+        int level = 0;
+        while (level < source.getLevels() - 1 && pixelWorldSize * (1 << (level + 1)) <= 1) level++;
+        this.sharpLevel = level;
+        this.sharpTiles = imageCache(source, cachedTiles);
+        show(sharpSource, sharpTiles, sharpLevel);
+    }
+
+    //blur radius in world units like GaussianBlur, hue and saturation like ColorAdjust, all 0 = sharp map
+    //the blur gets done on a level where its radius is only a few pixels, the stretching on screen makes up the rest
+    public void setVision(double radius, double hue, double saturation) {
+        if (radius == visionRadius && hue == visionHue && saturation == visionSaturation) return; // already there
+        if (tiles != sharpTiles) tiles.close(); // the old blurred tiles aren't needed anymore
+        visionRadius = radius;
+        visionHue = hue;
+        visionSaturation = saturation;
+        if (radius <= 0 && hue == 0 && saturation == 0) {
+            show(sharpSource, sharpTiles, sharpLevel);
+            return;
+        }
+
+        final double pixelWorldSize = worldWidth / sharpSource.getWidth();
+        final double sigma = radius / 3 / pixelWorldSize; // GaussianBlur cuts off at about 3 sigma, in level 0 pixels
+        int blurLevel = sharpLevel;
+        while (blurLevel < sharpSource.getLevels() - 1 && sigma / (1 << (blurLevel + 1)) >= 1.5) blurLevel++;
+        TileSource blurred = new BlurredTileSource(sharpSource, sigma, hue, saturation);
+        show(blurred, imageCache(blurred, cachedTiles), blurLevel);
+    }
+
+    private void show(TileSource source, TileCache<Image> tiles, int level) {
+        this.source = source;
+        this.tiles = tiles;
+        this.level = level;
+        this.tileWorldWidth = worldWidth / source.getWidth() * source.getTileSize() * (1 << level);
+        this.tileWorldHeight = worldHeight / source.getHeight() * source.getTileSize() * (1 << level);
+    }
+
+    private static TileCache<Image> imageCache(TileSource source, int cachedTiles) {
+        final int tileSize = source.getTileSize();
+        return new TileCache<>((tileLevel, tileX, tileY) -> {
+            WritableImage image = new WritableImage(tileSize, tileSize); // may be created off the FX thread as long as it isn't shown yet
+            image.getPixelWriter().setPixels(0, 0, tileSize, tileSize, PixelFormat.getIntArgbInstance(),
+                    source.readTile(tileLevel, tileX, tileY), 0, tileSize);
+            return image;
+        }, cachedTiles);
+    }
+
+    @Override
+    public void draw(GraphicsContext gc, double viewX, double viewY, double viewWidth, double viewHeight) {
+        final int minTileX = Math.max(0, (int) Math.floor(viewX / tileWorldWidth));
+        final int minTileY = Math.max(0, (int) Math.floor(viewY / tileWorldHeight));
+        final int maxTileX = Math.min(source.getTilesX(level) - 1, (int) Math.floor((viewX + viewWidth) / tileWorldWidth));
+        final int maxTileY = Math.min(source.getTilesY(level) - 1, (int) Math.floor((viewY + viewHeight) / tileWorldHeight));
+
+        //first the stand-ins for missing tiles, then the sharp tiles on top, so a stretched coarse tile never covers a sharp one
+        for (int pass = 0; pass < 2; pass++) {
+            for (int tileY = minTileY; tileY <= maxTileY; tileY++) {
+                for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+                    Image image = tiles.getIfLoaded(level, tileX, tileY);
+                    if (pass == 1) {
+                        if (image != null) gc.drawImage(image, tileX * tileWorldWidth - viewX, tileY * tileWorldHeight - viewY, tileWorldWidth + 0.5, tileWorldHeight + 0.5); // overlap hides seams
+                        continue;
+                    }
+                    if (image != null) continue;
+                    tiles.prefetch(level, tileX, tileY);
+                    if (level + 1 < source.getLevels()) {
+                        Image coarse = tiles.getIfLoaded(level + 1, tileX / 2, tileY / 2); // coarser tile until the sharp one is ready
+                        if (coarse == null) {
+                            tiles.prefetch(level + 1, tileX / 2, tileY / 2);
+                        } else {
+                            gc.drawImage(coarse, (tileX / 2) * tileWorldWidth * 2 - viewX, (tileY / 2) * tileWorldHeight * 2 - viewY, tileWorldWidth * 2, tileWorldHeight * 2);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    //loads the tiles of the view moved by (aheadX, aheadY) in the background, e.g. velocity times a second
+    public void prefetch(double viewX, double viewY, double viewWidth, double viewHeight, double aheadX, double aheadY) {
+        final int aheadMinX = Math.max(0, (int) Math.floor((viewX + aheadX) / tileWorldWidth));
+        final int aheadMinY = Math.max(0, (int) Math.floor((viewY + aheadY) / tileWorldHeight));
+        final int aheadMaxX = Math.min(source.getTilesX(level) - 1, (int) Math.floor((viewX + aheadX + viewWidth) / tileWorldWidth));
+        final int aheadMaxY = Math.min(source.getTilesY(level) - 1, (int) Math.floor((viewY + aheadY + viewHeight) / tileWorldHeight));
+        for (int tileY = aheadMinY; tileY <= aheadMaxY; tileY++) {
+            for (int tileX = aheadMinX; tileX <= aheadMaxX; tileX++) {
+                tiles.prefetch(level, tileX, tileY);
+            }
+        }
+    }
+
+    public TileCache<Image> getTiles() {
+        return tiles;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public double getWorldWidth() {
+        return worldWidth;
+    }
+
+    public double getWorldHeight() {
+        return worldHeight;
+    }
+}
@@ -0,0 +1,50 @@
+package de.robinfrederik.drunkracing.render;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+
+//screen sized canvas that gets the visible part of the map drawn into it every frame
+//instead of moving a node as big as the whole map around, so everything done with the picture afterwards
+//(effects, snapshots ...) costs the same no matter how big the map is
+//the canvas is bigger than the screen by margin on every side, so the drunk shaking doesn't show the edge
+public class ViewportRenderer extends Canvas {
+    private final double margin;
+    private MapLayer layer;
+
+    public ViewportRenderer(double screenWidth,
+                            double screenHeight,
+                            double margin) {
+        super(screenWidth + 2 * margin, screenHeight + 2 * margin);
+        this.margin = margin;
+        setTranslateX(-margin);
+        setTranslateY(-margin);
+    }
+
+    public void setLayer(MapLayer layer) {
+        this.layer = layer;
+    }
+
+    public MapLayer getLayer() {
+        return layer;
+    }
+
+    //follows the scene when the window is resized (not resize, that one belongs to Node and layout panes call it)
+    public void fitScreen(double screenWidth, double screenHeight) {
+        setWidth(screenWidth + 2 * margin);
+        setHeight(screenHeight + 2 * margin);
+    }
+
+    //draws the map so that the world point (cameraX, cameraY) lands in the middle of the screen
+    public void render(double cameraX, double cameraY) {
+        final GraphicsContext gc = getGraphicsContext2D();
+        final double width = getWidth();
+        final double height = getHeight();
+        gc.clearRect(0, 0, width, height);
+        if (layer == null) return;
+        layer.draw(gc, cameraX - width / 2, cameraY - height / 2, width, height);
+    }
+
+    public double getMargin() {
+        return margin;
+    }
+}
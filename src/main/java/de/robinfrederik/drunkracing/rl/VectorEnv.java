@@ -0,0 +1,268 @@
+package de.robinfrederik.drunkracing.rl;
+
+import de.robinfrederik.drunkracing.ai.RacingLine;
+import de.robinfrederik.drunkracing.car.Car;
+import de.robinfrederik.drunkracing.car.CarGoKartSport;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannModel;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+import de.robinfrederik.drunkracing.physics.ackermann.CarGoKartSportModel;
+import de.robinfrederik.drunkracing.physics.ackermann.formulae.IntegrationSemiImplicit;
+import de.robinfrederik.drunkracing.physics.collision.map.TrackMap;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+//headless training environment, gym style: reset() once, then step(actions) over and over
+//N independent karts with the normal go-kart model, each one its own episode along a racing line
+//actions, observations, rewards and done flags are flat arrays made once in the constructor, env i uses the slice i * size
+//every env step runs actionRepeat physics ticks of 1 ms with the same action
+//the envs are split into fixed blocks, one per worker thread, the threads meet at a barrier twice per step,
+//so nothing gets allocated per step and the result doesn't depend on how many threads there are
+//a kart that leaves the track (too far from the line, or on a wall cell if a map is given) or runs out of steps
+//ends its episode and is put back at a random place of the line right away, dones tells which ones it were
+//no JavaFX in here, so it runs on a machine without a display
+public class VectorEnv implements AutoCloseable {
+    public static final int ACTION_SIZE = 2;    // steering, throttle/brake, both {-1, 1} like CarVisual
+    public static final int OBS_SIZE = 9;
+    private static final double DELTA_T = 0.001;
+    private static final double[] CURVE_AHEAD = {5, 15, 30}; // meters ahead the curvature is shown at
+
+    private final int envs;
+    private final int actionRepeat;
+    private final int maxSteps;
+    private final double maxOffset;             // world units from the line before the episode ends
+    private final RacingLine line;
+    private final TrackMap map;                 // optional
+    private final long seed;
+
+    private final Car[] cars;
+    private final AckermannModel[] models;      // one each, the formulas are stateless but this keeps the threads apart for sure
+    private final SplittableRandom[] randoms;
+    private final int[] nearest;
+    private final int[] steps;
+    private final int[] curveAheadPoints = new int[CURVE_AHEAD.length];
+
+    private final double[] actions;
+    private final double[] observations;
+    private final double[] rewards;
+    private final boolean[] dones;
+
+    //worker threads, the calling thread does the first block itself
+    private final int threads;
+    private final CyclicBarrier start;
+    private final CyclicBarrier finish;
+    private volatile boolean closed;
+
+    public VectorEnv(int envs,
+                     RacingLine line,
+                     TrackMap map,
+                     int actionRepeat,
+                     int maxSteps,
+                     double maxOffset,
+                     long seed,
+                     int threads) {
+        this.envs = envs;
+        this.line = line;
+        this.map = map;
+        this.actionRepeat = actionRepeat;
+        this.maxSteps = maxSteps;
+        this.maxOffset = maxOffset;
+        this.seed = seed;
+        this.threads = Math.max(1, Math.min(threads, envs));
+
+        this.cars = new Car[envs];
+        this.models = new AckermannModel[envs];
+        this.randoms = new SplittableRandom[envs];
+        this.nearest = new int[envs];
+        this.steps = new int[envs];
+        for (int i = 0; i < envs; i++) {
+            cars[i] = new CarGoKartSport();
+            models[i] = new CarGoKartSportModel();
+        }
+        for (int i = 0; i < CURVE_AHEAD.length; i++) {
+            curveAheadPoints[i] = (int) Math.round(CURVE_AHEAD[i] * IntegrationSemiImplicit.PIXELS_PER_METER / line.getSpacing());
+        }
+
+        this.actions = new double[envs * ACTION_SIZE];
+        this.observations = new double[envs * OBS_SIZE];
+        this.rewards = new double[envs];
+        this.dones = new boolean[envs];
+
+        this.start = new CyclicBarrier(this.threads);
+        this.finish = new CyclicBarrier(this.threads);
+        for (int worker = 1; worker < this.threads; worker++) {
+            final int block = worker;
+            Thread thread = new Thread(() -> {
+                while (true) {
+                    await(start);
+                    if (closed) return;
+                    stepBlock(block);
+                    await(finish);
+                }
+            }, "env worker " + worker);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    //8 threads at most, 800 steps per episode, 3 m off the line ends it, 4 ticks per step
+    public VectorEnv(int envs, RacingLine line, long seed) {
+        this(envs, line, null, 4, 800, 3 * IntegrationSemiImplicit.PIXELS_PER_METER, seed,
+                Math.min(8, Runtime.getRuntime().availableProcessors()));
+    }
+
+    //starts all envs from scratch, the same seed gives the same episodes
+    public double[] reset() {
+        for (int i = 0; i < envs; i++) {
+            randoms[i] = new SplittableRandom(seed * 31 + i);
+            resetEnv(i);
+            observe(i);
+        }
+        return observations;
+    }
+
+    //actions are read from getActions() (fill it before calling), results land in the observation, reward and done arrays
+    public void step() {
+        if (closed) throw new IllegalStateException("environment is closed");
+        if (threads > 1) await(start);
+        stepBlock(0);
+        if (threads > 1) await(finish);
+    }
+
+    //copies actions in and steps, for callers that keep their own array
+    public void step(double[] actions) {
+        System.arraycopy(actions, 0, this.actions, 0, this.actions.length);
+        step();
+    }
+
+    private void stepBlock(int block) {
+        final int from = (int) ((long) envs * block / threads);
+        final int to = (int) ((long) envs * (block + 1) / threads);
+        for (int i = from; i < to; i++) {
+            stepEnv(i);
+        }
+    }
+
+    private void stepEnv(int env) {
+        final Car car = cars[env];
+        final double steering = Math.max(-1, Math.min(1, actions[env * ACTION_SIZE]));
+        final double throttle = Math.max(-1, Math.min(1, actions[env * ACTION_SIZE + 1]));
+        final int before = nearest[env];
+        boolean crashed = false;
+        for (int tick = 0; tick < actionRepeat; tick++) {
+            car.updateState(models[env], steering, throttle, DELTA_T);
+            if (map != null && hitsWall(car.getState())) {
+                crashed = true;
+                break;
+            }
+        }
+        nearest[env] = line.nearest(car.getState().getXCoM(), car.getState().getYCoM(), nearest[env], 16 * actionRepeat);
+        steps[env]++;
+
+        //reward: meters driven along the line, minus a little for being away from it and a lot for leaving the track
+        final int count = line.getCount();
+        final int driven = Math.floorMod(nearest[env] - before + count / 2, count) - count / 2;
+        final double offset = offset(env);
+        final boolean offTrack = crashed || Math.abs(offset) > maxOffset;
+        double reward = driven * line.getSpacing() / IntegrationSemiImplicit.PIXELS_PER_METER;
+        reward -= 0.01 * (offset / maxOffset) * (offset / maxOffset);
+        if (offTrack) reward -= 10;
+        rewards[env] = reward;
+        dones[env] = offTrack || steps[env] >= maxSteps;
+
+        if (dones[env]) resetEnv(env); // the observation is already the one of the new episode
+        observe(env);
+    }
+
+    //random place on the line, a little to the side and turned, at a random speed
+    private void resetEnv(int env) {
+        final SplittableRandom random = randoms[env];
+        final int point = random.nextInt(line.getCount());
+        final double heading = line.getHeading(point);
+        final double side = (random.nextDouble() - 0.5) * maxOffset;
+        cars[env].reset();
+        final AckermannState state = cars[env].getState();
+        state.setXCoM(line.getX(point) - Math.sin(heading) * side);
+        state.setYCoM(line.getY(point) + Math.cos(heading) * side);
+        state.setYaw(heading + (random.nextDouble() - 0.5) * 0.3);
+        state.setLongVel(random.nextDouble() * line.getSpeed(point));
+        nearest[env] = point;
+        steps[env] = 0;
+    }
+
+    //everything in the frame of the kart or the line, scaled to about {-1, 1}
+    private void observe(int env) {
+        final AckermannState state = cars[env].getState();
+        final int point = nearest[env];
+        final int base = env * OBS_SIZE;
+        final double headingError = Math.IEEEremainder(state.getYaw() - line.getHeading(point), 2 * Math.PI);
+        observations[base] = state.getLongVel() / 20;
+        observations[base + 1] = state.getLatVel() / 5;
+        observations[base + 2] = state.getYawRate() / 3;
+        observations[base + 3] = headingError;
+        observations[base + 4] = offset(env) / maxOffset;
+        observations[base + 5] = line.getSpeed(point) / 20;
+        for (int i = 0; i < CURVE_AHEAD.length; i++) {
+            observations[base + 6 + i] = line.getCurvature(line.wrap(point + curveAheadPoints[i])) * IntegrationSemiImplicit.PIXELS_PER_METER * 10;
+        }
+    }
+
+    //signed distance from the line in world units, positive to the +yaw side of it
+    private double offset(int env) {
+        final AckermannState state = cars[env].getState();
+        final int point = nearest[env];
+        final double heading = line.getHeading(point);
+        return -(state.getXCoM() - line.getX(point)) * Math.sin(heading) + (state.getYCoM() - line.getY(point)) * Math.cos(heading);
+    }
+
+    private boolean hitsWall(AckermannState state) {
+        final int cellX = (int) Math.floor(state.getXCoM() / map.getCellWidth());
+        final int cellY = (int) Math.floor(state.getYCoM() / map.getCellHeight());
+        return map.isSolid(cellX, cellY);
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (InterruptedException | BrokenBarrierException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    //stops the worker threads
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        if (threads > 1) await(start);
+    }
+
+    public double[] getActions() {
+        return actions;
+    }
+
+    public double[] getObservations() {
+        return observations;
+    }
+
+    public double[] getRewards() {
+        return rewards;
+    }
+
+    public boolean[] getDones() {
+        return dones;
+    }
+
+    public int getEnvCount() {
+        return envs;
+    }
+
+    public int getActionRepeat() {
+        return actionRepeat;
+    }
+
+    public Car getCar(int env) {
+        return cars[env];
+    }
+}
@@ -0,0 +1,46 @@
+package de.robinfrederik.drunkracing.session;
+
+//a Session inside a SessionHost: when it is due next, how often it runs and how much time it took
+//the host thread does the scheduling fields, the counters are written by the worker that ran the last tick
+public class HostedSession {
+    final Session session;
+    final int every;            // runs every every-th tick of the host
+    long due;                   // tick it runs next
+    HostedSession next;         // next in the same slot of the wheel
+    boolean awake;
+    boolean wokenAgain;         // woken while still awake, stays awake even if it says it is done
+    volatile boolean removed;
+
+    private volatile long nanos;    // time in tick() so far
+    private volatile long ticks;
+
+    HostedSession(Session session, int every) {
+        this.session = session;
+        this.every = every;
+    }
+
+    boolean run() {
+        final long start = System.nanoTime();
+        final boolean busy = session.tick();
+        nanos += System.nanoTime() - start;
+        ticks++;
+        return busy;
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    //time spent in tick() in ns, on a worker that does nothing else this is the CPU time of the session
+    public long getNanos() {
+        return nanos;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public boolean isRemoved() {
+        return removed;
+    }
+}
@@ -0,0 +1,8 @@
+package de.robinfrederik.drunkracing.session;
+
+//one headless race (or anything else with a fixed step) run by a SessionHost
+//tick is one step, on whichever worker of the host is free, but never on two at once
+//return false when there is nothing to do, then it isn't ticked (and costs nothing) until SessionHost.wake
+public interface Session {
+    boolean tick();
+}
@@ -0,0 +1,263 @@
+package de.robinfrederik.drunkracing.session;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+//many independent headless races in one JVM on a few threads, instead of a PhysicsLoop thread per race
+//one host thread keeps the time (fixed tick like the PhysicsLoop) and a wheel: a slot per tick (modulo the size),
+//every awake session sits in the slot of the tick it is due next, so a tick only looks at the sessions due then
+//the due sessions are handed out to the workers (the host thread is one of them) through one shared counter,
+//the others are parked between the ticks, a sleeping session isn't in the wheel at all and costs nothing
+//if the host falls behind it catches up as fast as it can (every session still gets every step),
+//more than MAX_BEHIND ticks behind it gives up on them so a hiccup doesn't turn into a burst
+//(Java 17: no virtual threads, a worker pool the size of the cores does the same for this kind of work)
+public class SessionHost implements AutoCloseable {
+    private static final int WHEEL = 1024;
+    private static final long MAX_BEHIND = 100;
+    private static final int HELPER_BITS = 16;
+
+    private final double deltaT;
+    private final long nsDeltaT;
+    private final HostedSession[] wheel = new HostedSession[WHEEL];
+    private final ConcurrentLinkedQueue<HostedSession> toWake = new ConcurrentLinkedQueue<>();
+
+    //the sessions of the current tick, shared with the workers
+    private HostedSession[] due = new HostedSession[64];
+    private boolean[] busy = new boolean[64];
+    private int dueCount;
+    private final AtomicInteger nextDue = new AtomicInteger();
+    private final Thread[] helpers;
+    //round << HELPER_BITS | helpers in it, one value so a helper never sees the count of another round,
+    //the round counts up every tick the helpers are needed
+    private volatile long round;
+    private final AtomicLong helpersDone = new AtomicLong();   // round << HELPER_BITS | helpers done with it
+
+    private volatile boolean running;
+    private volatile boolean helping;      // the helpers stop only after the host thread, it may still wait for them
+    private Thread thread;
+    private long tick;
+    private volatile long lateTicks;        // ran more than a tick after they were due
+    private volatile long skippedTicks;     // given up on
+    private volatile long hostNanos;        // time of the ticks without the sessions themselves
+    private volatile int awakeCount;
+    private final AtomicInteger sessionCount = new AtomicInteger();
+
+    //workers: threads that run sessions, the host thread included (so 1 = everything on the host thread)
+    public SessionHost(int workers, double deltaT) {
+        this.deltaT = deltaT;
+        this.nsDeltaT = Math.round(1e9 * deltaT);
+        this.helpers = new Thread[Math.min((1 << HELPER_BITS) - 1, Math.max(0, workers - 1))];
+    }
+
+    //a new session, runs every every-th tick from the next tick on
+    public HostedSession add(Session session, int every) {
+        final HostedSession hosted = new HostedSession(session, Math.max(1, every));
+        sessionCount.incrementAndGet();
+        wake(hosted);
+        return hosted;
+    }
+
+    //a sleeping session runs again from the next tick on, from any thread
+    public void wake(HostedSession session) {
+        toWake.add(session);
+    }
+
+    //takes it out for good, it may still get the tick that is running right now
+    public void remove(HostedSession session) {
+        synchronized (session) {
+            if (session.removed) return;
+            session.removed = true;
+        }
+        sessionCount.decrementAndGet();
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        helping = true;
+        for (int i = 0; i < helpers.length; i++) {
+            final int index = i;
+            helpers[i] = new Thread(() -> help(index), "session-worker-" + (i + 1));
+            helpers[i].setDaemon(true);
+            helpers[i].start();
+        }
+        thread = new Thread(() -> {
+            long next = System.nanoTime();
+            while (running) {
+                final long now = System.nanoTime();
+                if (now < next) {
+                    LockSupport.parkNanos(next - now);
+                    continue;
+                }
+                if (now - next > nsDeltaT) lateTicks++;
+                if (now - next > MAX_BEHIND * nsDeltaT) {
+                    skippedTicks += (now - next) / nsDeltaT;
+                    next = now;
+                }
+                tick();
+                next += nsDeltaT;
+            }
+        }, "session-host");
+        thread.start();
+    }
+
+    //one tick of all sessions due now, start() calls it on the host thread, without start() it can be called directly
+    public void tick() {
+        final long start = System.nanoTime();
+        HostedSession woken;
+        while ((woken = toWake.poll()) != null) {
+            if (woken.removed) continue;
+            if (woken.awake) {
+                woken.wokenAgain = true;
+                continue;
+            }
+            woken.awake = true;
+            woken.due = tick;
+            insert(woken);
+        }
+
+        //take the slot apart: due now, or in a later round of the wheel
+        final int slot = (int) (tick % WHEEL);
+        HostedSession session = wheel[slot];
+        wheel[slot] = null;
+        dueCount = 0;
+        while (session != null) {
+            final HostedSession next = session.next;
+            if (session.removed) {
+                session.awake = false;
+            } else if (session.due == tick) {
+                if (dueCount == due.length) {
+                    due = Arrays.copyOf(due, 2 * dueCount);
+                    busy = Arrays.copyOf(busy, 2 * dueCount);
+                }
+                due[dueCount++] = session;
+            } else {
+                session.next = wheel[slot];
+                wheel[slot] = session;
+            }
+            session = next;
+        }
+
+        final long sessionsStart = System.nanoTime();
+        runDue();
+        final long sessionsEnd = System.nanoTime();
+
+        int awake = 0;
+        for (int i = 0; i < dueCount; i++) {
+            final HostedSession ran = due[i];
+            due[i] = null;
+            if ((busy[i] || ran.wokenAgain) && !ran.removed) {
+                ran.wokenAgain = false;
+                ran.due = tick + ran.every;
+                insert(ran);
+                awake++;
+            } else {
+                ran.awake = false;
+                ran.wokenAgain = false;
+            }
+        }
+        awakeCount = awake;
+        tick++;
+        hostNanos += (sessionsStart - start) + (System.nanoTime() - sessionsEnd);
+    }
+
+    private void insert(HostedSession session) {
+        final int slot = (int) (session.due % WHEEL);
+        session.next = wheel[slot];
+        wheel[slot] = session;
+    }
+
+    //the due sessions on the host thread and as many parked helpers as there is work for
+    private void runDue() {
+        nextDue.set(0);
+        final int active = running ? Math.min(helpers.length, dueCount - 1) : 0;
+        long current = 0;
+        if (active > 0) {
+            current = ((round >>> HELPER_BITS) + 1) << HELPER_BITS;
+            helpersDone.set(current);
+            round = current | active; // publishes the due sessions to the helpers
+            for (int i = 0; i < active; i++) LockSupport.unpark(helpers[i]);
+        }
+        work();
+        if (active > 0) {
+            //the helpers run their last session, short, but on fewer cores than threads let them have the core
+            int spins = 0;
+            while (helpersDone.get() != (current | active)) {
+                if (++spins < 1000) Thread.onSpinWait();
+                else Thread.yield();
+            }
+        }
+    }
+
+    private void work() {
+        int i;
+        while ((i = nextDue.getAndIncrement()) < dueCount) busy[i] = due[i].run();
+    }
+
+    private void help(int index) {
+        long seen = 0;
+        while (helping) {
+            final long current = round; // read once, round and helper count belong together
+            if (current == seen) {
+                LockSupport.park(this);
+                continue;
+            }
+            seen = current;
+            if (index >= (current & ((1 << HELPER_BITS) - 1))) continue;
+            work();
+            //only counts for its own round, a late helper can't finish a round it wasn't part of
+            final long roundOnly = current >>> HELPER_BITS;
+            long done;
+            while ((done = helpersDone.get()) >>> HELPER_BITS == roundOnly && !helpersDone.compareAndSet(done, done + 1)) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public double getDeltaT() {
+        return deltaT;
+    }
+
+    public long getLateTicks() {
+        return lateTicks;
+    }
+
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    //time the host itself needed (wheel, waking, handing out) over all ticks
+    public long getHostNanos() {
+        return hostNanos;
+    }
+
+    //sessions that ran in the last tick and want the next one
+    public int getAwakeCount() {
+        return awakeCount;
+    }
+
+    public int getSessionCount() {
+        return sessionCount.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            if (thread != null) thread.join();
+            helping = false;
+            for (Thread helper : helpers) {
+                if (helper == null) continue;
+                LockSupport.unpark(helper);
+                helper.join();
+            }
+        } catch (InterruptedException ignored) {}
+    }
+}
@@ -0,0 +1,146 @@
+package de.robinfrederik.drunkracing.track;
+
+import java.awt.Color;
+
+//the tiles of another source, blurred (and for BLACKOUT also colour shifted) once when they are read
+//the map doesn't move, so instead of blurring the whole screen every frame the blurred tiles just get cached
+//the blur runs as three box blurs in a row, which comes out close to a gaussian, and reads the edges of the neighbour tiles so there are no seams
+//on higher levels the radius shrinks with the resolution, so blurring a downsampled level is cheap and upsampling it adds a little more softness
+public class BlurredTileSource implements TileSource {
+    private final TileSource source;
+    private final double sigma;         // standard deviation of the blur in level 0 pixels
+    private final double hue;           // -1..1, like ColorAdjust: a full turn of the colour wheel from -1 to 1
+    private final double saturation;    // -1..1, like ColorAdjust
+    private final TileCache<int[]> sourceTiles; // every source tile is a neighbour of 8 others, so it is read only once
+
+    public BlurredTileSource(TileSource source,
+                             double sigma,
+                             double hue,
+                             double saturation) {
+        this.source = source;
+        this.sigma = sigma;
+        this.hue = hue;
+        this.saturation = saturation;
+        this.sourceTiles = new TileCache<>(source::readTile, 16);
+    }
+
+    public TileSource getSource() {
+        return source;
+    }
+
+    @Override
+    public int getWidth() {
+        return source.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return source.getHeight();
+    }
+
+    @Override
+    public int getTileSize() {
+        return source.getTileSize();
+    }
+
+    @Override
+    public int getLevels() {
+        return source.getLevels();
+    }
+
+    @Override
+    public int[] readTile(int level, int tileX, int tileY) {
+        final int tileSize = source.getTileSize();
+        final int boxRadius = Math.min(tileSize / 3, boxRadius(sigma / (1 << level)));
+        final int margin = 3 * boxRadius; // how far the three passes reach, that much of the neighbour tiles is needed
+        final int size = tileSize + 2 * margin;
+
+        //split into channels, the blur works on one channel at a time
+        final int[][] channels = new int[4][size * size];
+        for (int neighbourY = -1; neighbourY <= 1; neighbourY++) {
+            for (int neighbourX = -1; neighbourX <= 1; neighbourX++) {
+                int x = tileX + neighbourX;
+                int y = tileY + neighbourY;
+                if (x < 0 || y < 0 || x >= source.getTilesX(level) || y >= source.getTilesY(level)) continue; // stays transparent
+                if (margin == 0 && (neighbourX != 0 || neighbourY != 0)) continue; // nothing to blur, only the tile itself is needed
+                int[] pixels = sourceTiles.get(level, x, y);
+                final int originX = margin + neighbourX * tileSize; // where the neighbour starts in the buffer
+                final int originY = margin + neighbourY * tileSize;
+                final int minRow = Math.max(0, -originY);
+                final int maxRow = Math.min(tileSize, size - originY);
+                final int minColumn = Math.max(0, -originX);
+                final int maxColumn = Math.min(tileSize, size - originX);
+                for (int row = minRow; row < maxRow; row++) {
+                    for (int column = minColumn; column < maxColumn; column++) {
+                        final int argb = pixels[row * tileSize + column];
+                        final int index = (originY + row) * size + originX + column;
+                        channels[0][index] = argb >>> 24;
+                        channels[1][index] = (argb >> 16) & 0xFF;
+                        channels[2][index] = (argb >> 8) & 0xFF;
+                        channels[3][index] = argb & 0xFF;
+                    }
+                }
+            }
+        }
+
+        if (boxRadius > 0) {
+            final int[] scratch = new int[size * size];
+            for (int[] channel : channels) {
+                for (int pass = 0; pass < 3; pass++) {
+                    boxBlur(channel, scratch, size, boxRadius, 1, size);     // rows
+                    boxBlur(scratch, channel, size, boxRadius, size, 1);     // columns
+                }
+            }
+        }
+
+        //cut out the middle tile again
+        final int[] tile = new int[tileSize * tileSize];
+        final float[] hsb = new float[3];
+        for (int row = 0; row < tileSize; row++) {
+            for (int column = 0; column < tileSize; column++) {
+                final int index = (margin + row) * size + margin + column;
+                int red = channels[1][index];
+                int green = channels[2][index];
+                int blue = channels[3][index];
+                if (hue != 0 || saturation != 0) {
+                    Color.RGBtoHSB(red, green, blue, hsb);
+                    float h = hsb[0] + (float) (hue / 2);
+                    float s = hsb[1];
+                    s = (float) (saturation > 0 ? s + (1 - s) * saturation : s + s * saturation);
+                    final int rgb = Color.HSBtoRGB(h - (float) Math.floor(h), s, hsb[2]);
+                    red = (rgb >> 16) & 0xFF;
+                    green = (rgb >> 8) & 0xFF;
+                    blue = rgb & 0xFF;
+                }
+                tile[row * tileSize + column] = (channels[0][index] << 24) | (red << 16) | (green << 8) | blue;
+            }
+        }
+        return tile;
+    }
+
+    //three box blurs of radius r have a variance of r * (r + 1), pick the r that comes closest to sigma
+    private static int boxRadius(double sigma) {
+        return (int) Math.round((Math.sqrt(1 + 4 * sigma * sigma) - 1) / 2);
+    }
+
+    //running sum box blur along rows (step 1, lines of stride size) or columns (step size, lines of stride 1)
+    //pixels outside count as the edge pixel, so the border of the map doesn't get darker
+    private static void boxBlur(int[] from, int[] to, int size, int radius, int step, int lineStride) {
+        final int window = 2 * radius + 1;
+        for (int line = 0; line < size; line++) {
+            final int start = line * lineStride;
+            final int first = from[start];
+            final int last = from[start + (size - 1) * step];
+            int sum = first * (radius + 1);
+            for (int i = 1; i <= radius; i++) {
+                sum += from[start + Math.min(i, size - 1) * step];
+            }
+            for (int i = 0; i < size; i++) {
+                to[start + i * step] = (sum + radius) / window;
+                final int add = i + radius + 1;
+                final int remove = i - radius;
+                sum += (add < size ? from[start + add * step] : last) - (remove > 0 ? from[start + remove * step] : first);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package de.robinfrederik.drunkracing.track;
+
+//decodes every tile of a source once and keeps the pixels for everyone who reads the same map
+//the picture, the collision tiles, the minimap and the centerline read through one of these instead of each decoding the image again,
+//what they make of the pixels (images, wall classes) they still keep in their own caches
+//the arrays are shared, readers must not change them
+public class CachedTileSource implements TileSource {
+    private final TileSource source;
+    private final TileCache<int[]> pixels;
+
+    public CachedTileSource(TileSource source,
+                            int cachedTiles) {
+        this.source = source;
+        this.pixels = new TileCache<>(source::readTile, cachedTiles);
+    }
+
+    @Override
+    public int getWidth() {
+        return source.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return source.getHeight();
+    }
+
+    @Override
+    public int getTileSize() {
+        return source.getTileSize();
+    }
+
+    @Override
+    public int getLevels() {
+        return source.getLevels();
+    }
+
+    //two threads asking for the same missing tile at once may both decode it, the second one just replaces the first
+    @Override
+    public int[] readTile(int level, int tileX, int tileY) {
+        return pixels.get(level, tileX, tileY);
+    }
+
+    public TileCache<int[]> getPixels() {
+        return pixels;
+    }
+}
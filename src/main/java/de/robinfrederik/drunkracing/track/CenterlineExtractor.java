@@ -0,0 +1,391 @@
+package de.robinfrederik.drunkracing.track;
+
+import de.robinfrederik.drunkracing.ai.RacingLine;
+import de.robinfrederik.drunkracing.physics.collision.map.DistanceField;
+import de.robinfrederik.drunkracing.physics.collision.map.TrackMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.stream.IntStream;
+
+//finds the middle of the track in the collision map and turns it into a RacingLine, so progress along the track can be measured
+//1. mask: asphalt cells connected to the start, small islands in it filled, every step-th cell of the map
+//2. thinning (Zhang-Suen): peels the mask from the outside until a line one cell wide is left in the middle,
+//   each half pass decides all cells from the last picture only, so the rows are done in parallel
+//3. pruning: side branches of the skeleton (from bumps in the edge) get eaten from their loose end until only the loop is left
+//4. tracing: from the cell closest to the start in driving direction, always the straightest way at a crossing
+//5. smoothing and resampling to evenly spaced points, point 0 at the start
+//the result is saved in a small file, keyed by a checksum of the mask, the next start only has to build the mask again
+public class CenterlineExtractor {
+    private static final int FILE_VERSION = 1;
+
+    private final TrackMap map;
+    private final int step;         // map cells per mask cell
+    private final int width;        // mask size
+    private final int height;
+    private final double maskCellWidth;
+    private final double maskCellHeight;
+
+    public CenterlineExtractor(TrackMap map, int step) {
+        this.map = map;
+        this.step = step;
+        this.width = map.getWidth() / step;
+        this.height = map.getHeight() / step;
+        this.maskCellWidth = map.getCellWidth() * step;
+        this.maskCellHeight = map.getCellHeight() * step;
+    }
+
+    //the line from the cache file if it was made from the same mask, otherwise extracted and written to the file
+    public RacingLine loadOrExtract(double startX, double startY, double startYaw, double spacing, Path cacheFile) {
+        final byte[] mask = mask(startX, startY);
+        final long key = key(mask, startX, startY, startYaw, spacing);
+        if (Files.exists(cacheFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+                if (in.readInt() == FILE_VERSION && in.readLong() == key) {
+                    final double[] x = new double[in.readInt()];
+                    final double[] y = new double[x.length];
+                    for (int i = 0; i < x.length; i++) {
+                        x[i] = in.readDouble();
+                        y[i] = in.readDouble();
+                    }
+                    return new RacingLine(x, y);
+                }
+            } catch (IOException e) {
+                //broken file, just make the line again
+            }
+        }
+        final RacingLine line = extract(mask, startX, startY, startYaw, spacing);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(cacheFile)))) {
+            out.writeInt(FILE_VERSION);
+            out.writeLong(key);
+            out.writeInt(line.getCount());
+            for (int i = 0; i < line.getCount(); i++) {
+                out.writeDouble(line.getX(i));
+                out.writeDouble(line.getY(i));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return line;
+    }
+
+    //centerline from the start point (somewhere on the asphalt) in the direction startYaw, spacing world units between the points
+    public RacingLine extract(double startX, double startY, double startYaw, double spacing) {
+        return extract(mask(startX, startY), startX, startY, startYaw, spacing);
+    }
+
+    private RacingLine extract(byte[] mask, double startX, double startY, double startYaw, double spacing) {
+        final byte[] skeleton = mask.clone();
+        thin(skeleton);
+        prune(skeleton);
+        final int[] path = trace(skeleton, startX, startY, startYaw);
+
+        final double[] x = new double[path.length];
+        final double[] y = new double[path.length];
+        for (int i = 0; i < path.length; i++) {
+            x[i] = (path[i] % width + 0.5) * maskCellWidth;
+            y[i] = (path[i] / width + 0.5) * maskCellHeight;
+        }
+        smooth(x, y, Math.max(2, (int) Math.round(spacing * 2 / Math.min(maskCellWidth, maskCellHeight))), 3);
+        return RacingLine.fromPolyline(x, y, spacing);
+    }
+
+    //1 = asphalt connected to the start, the border stays 0 so the thinning never has to check bounds
+    private byte[] mask(double startX, double startY) {
+        final byte[] asphalt = new byte[width * height];
+        for (int y = 1; y < height - 1; y++) { // one row of mask cells at a time, so a tiled map loads every tile once
+            for (int x = 1; x < width - 1; x++) {
+                if (map.getCell(x * step + step / 2, y * step + step / 2) == TrackMap.FREE) asphalt[y * width + x] = 1;
+            }
+        }
+        final int start = cellAt(startX, startY);
+        if (asphalt[start] == 0) throw new IllegalArgumentException("the start is not on asphalt");
+
+        //only the asphalt the start is on, everything else (car parks, other maps on the same image) goes
+        final byte[] mask = new byte[width * height];
+        final int[] queue = new int[width * height];
+        floodFill(asphalt, (byte) 1, start, mask, (byte) 1, queue);
+
+        //holes in the track (a dirty pixel, a puddle of gravel) would give the skeleton a loop around them, so fill the small ones
+        //the infield is a hole too, but a big one
+        final byte[] seen = new byte[width * height];
+        final int smallHole = Math.max(16, width * height / 2000);
+        for (int i = 0; i < mask.length; i++) {
+            if (mask[i] != 0 || seen[i] != 0) continue;
+            final int size = floodFill(mask, (byte) 0, i, seen, (byte) 1, queue);
+            if (size < smallHole) {
+                for (int k = 0; k < size; k++) mask[queue[k]] = 1;
+            }
+        }
+        for (int x = 0; x < width; x++) { // the filling may have reached the border
+            mask[x] = 0;
+            mask[(height - 1) * width + x] = 0;
+        }
+        for (int y = 0; y < height; y++) {
+            mask[y * width] = 0;
+            mask[y * width + width - 1] = 0;
+        }
+        return mask;
+    }
+
+    //4-connected fill of the cells with value from start, marks them in target and leaves them in queue[0 .. size - 1]
+    private int floodFill(byte[] cells, byte value, int start, byte[] target, byte mark, int[] queue) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        target[start] = mark;
+        while (head < tail) {
+            final int cell = queue[head++];
+            final int x = cell % width;
+            final int y = cell / width;
+            if (x > 0) tail = visit(cells, value, cell - 1, target, mark, queue, tail);
+            if (x < width - 1) tail = visit(cells, value, cell + 1, target, mark, queue, tail);
+            if (y > 0) tail = visit(cells, value, cell - width, target, mark, queue, tail);
+            if (y < height - 1) tail = visit(cells, value, cell + width, target, mark, queue, tail);
+        }
+        return tail;
+    }
+
+    private static int visit(byte[] cells, byte value, int cell, byte[] target, byte mark, int[] queue, int tail) {
+        if (cells[cell] != value || target[cell] == mark) return tail;
+        target[cell] = mark;
+        queue[tail] = cell;
+        return tail + 1;
+    }
+
+    //Zhang-Suen thinning, neighbours p2 .. p9 clockwise starting above the cell
+    private void thin(byte[] cells) {
+        final byte[] remove = new byte[cells.length];
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int pass = 0; pass < 2; pass++) {
+                final int subPass = pass;
+                //decide every cell from the picture as it is now, then remove all at once
+                final long removed = IntStream.range(1, height - 1).parallel().mapToLong(y -> {
+                    long count = 0;
+                    for (int x = 1; x < width - 1; x++) {
+                        final int i = y * width + x;
+                        if (cells[i] != 0 && removable(cells, i, subPass)) {
+                            remove[i] = 1;
+                            count++;
+                        }
+                    }
+                    return count;
+                }).sum();
+                if (removed == 0) continue;
+                changed = true;
+                IntStream.range(1, height - 1).parallel().forEach(y -> {
+                    for (int i = y * width + 1; i < y * width + width - 1; i++) {
+                        if (remove[i] != 0) {
+                            cells[i] = 0;
+                            remove[i] = 0;
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    private boolean removable(byte[] cells, int i, int pass) {
+        final int p2 = cells[i - width];
+        final int p3 = cells[i - width + 1];
+        final int p4 = cells[i + 1];
+        final int p5 = cells[i + width + 1];
+        final int p6 = cells[i + width];
+        final int p7 = cells[i + width - 1];
+        final int p8 = cells[i - 1];
+        final int p9 = cells[i - width - 1];
+        final int neighbours = p2 + p3 + p4 + p5 + p6 + p7 + p8 + p9;
+        if (neighbours < 2 || neighbours > 6) return false;     // end of a line, or inside the area
+        //exactly one 0 -> 1 change around the cell, otherwise removing it would cut the shape in two
+        final int transitions = (p2 == 0 && p3 == 1 ? 1 : 0) + (p3 == 0 && p4 == 1 ? 1 : 0) + (p4 == 0 && p5 == 1 ? 1 : 0)
+                + (p5 == 0 && p6 == 1 ? 1 : 0) + (p6 == 0 && p7 == 1 ? 1 : 0) + (p7 == 0 && p8 == 1 ? 1 : 0)
+                + (p8 == 0 && p9 == 1 ? 1 : 0) + (p9 == 0 && p2 == 1 ? 1 : 0);
+        if (transitions != 1) return false;
+        return pass == 0
+                ? p2 * p4 * p6 == 0 && p4 * p6 * p8 == 0   // south east edge first
+                : p2 * p4 * p8 == 0 && p2 * p6 * p8 == 0;  // then north west
+    }
+
+    //eats every branch from its loose end, what is left are the loops
+    private void prune(byte[] cells) {
+        final int[] queue = new int[cells.length];
+        int tail = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != 0 && neighbours(cells, i) <= 1) queue[tail++] = i;
+        }
+        int head = 0;
+        while (head < tail) {
+            final int cell = queue[head++];
+            if (cells[cell] == 0 || neighbours(cells, cell) > 1) continue;
+            cells[cell] = 0;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    final int other = cell + dy * width + dx;
+                    if (cells[other] != 0 && neighbours(cells, other) <= 1) queue[tail++] = other;
+                }
+            }
+        }
+    }
+
+    private int neighbours(byte[] cells, int i) {
+        return cells[i - width - 1] + cells[i - width] + cells[i - width + 1] + cells[i - 1]
+                + cells[i + 1] + cells[i + width - 1] + cells[i + width] + cells[i + width + 1];
+    }
+
+    //ordered cells of the loop through the start, in driving direction
+    private int[] trace(byte[] cells, double startX, double startY, double startYaw) {
+        final int start = closestSkeletonCell(cells, cellAt(startX, startY));
+        final byte[] visited = new byte[cells.length];
+        int[] path = new int[1024];
+        int length = 0;
+        int current = start;
+        double headingX = Math.cos(startYaw);
+        double headingY = Math.sin(startYaw);
+        visited[start] = 1;
+        path[length++] = start;
+
+        while (true) {
+            //the unvisited neighbour most in the direction we are going
+            int best = -1;
+            double bestDot = Double.NEGATIVE_INFINITY;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    final int other = current + dy * width + dx;
+                    if ((dx == 0 && dy == 0) || cells[other] == 0 || visited[other] != 0) continue;
+                    final double directionX = dx * maskCellWidth;
+                    final double directionY = dy * maskCellHeight;
+                    final double dot = (directionX * headingX + directionY * headingY) / Math.hypot(directionX, directionY);
+                    if (dot > bestDot) {
+                        bestDot = dot;
+                        best = other;
+                    }
+                }
+            }
+            if (best < 0) break;
+            //cells next to both the current and the chosen one are a corner we cut, they must not be walked later
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    final int other = current + dy * width + dx;
+                    if (cells[other] != 0 && Math.abs(other % width - best % width) <= 1 && Math.abs(other / width - best / width) <= 1) {
+                        visited[other] = 1;
+                    }
+                }
+            }
+            visited[best] = 1;
+            //heading from the last few cells, a single step only knows 8 directions
+            final int back = path[Math.max(0, length - 4)];
+            headingX = (best % width - back % width) * maskCellWidth;
+            headingY = (best / width - back / width) * maskCellHeight;
+            if (length == path.length) path = Arrays.copyOf(path, length * 2);
+            path[length++] = best;
+            current = best;
+        }
+
+        //the walk has to end next to where it began, otherwise the track is not a closed loop
+        final int gapX = Math.abs(current % width - start % width);
+        final int gapY = Math.abs(current / width - start / width);
+        if (length < 16 || gapX > 2 || gapY > 2) {
+            throw new IllegalStateException("the track around the start is not a closed loop (" + length + " cells traced)");
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    //skeleton cell closest to a mask cell, searched in growing squares
+    private int closestSkeletonCell(byte[] cells, int around) {
+        final int centerX = around % width;
+        final int centerY = around / width;
+        for (int radius = 0; radius < Math.max(width, height); radius++) {
+            int best = -1;
+            double bestDist = Double.POSITIVE_INFINITY;
+            for (int y = Math.max(0, centerY - radius); y <= Math.min(height - 1, centerY + radius); y++) {
+                for (int x = Math.max(0, centerX - radius); x <= Math.min(width - 1, centerX + radius); x++) {
+                    if (cells[y * width + x] == 0) continue;
+                    final double dist = Math.hypot((x - centerX) * maskCellWidth, (y - centerY) * maskCellHeight);
+                    if (dist < bestDist) {
+                        bestDist = dist;
+                        best = y * width + x;
+                    }
+                }
+            }
+            if (best >= 0) return best;
+        }
+        throw new IllegalStateException("the track has no centerline");
+    }
+
+    //moving average over window points to each side, a few times, on the closed line
+    private static void smooth(double[] x, double[] y, int window, int passes) {
+        final int count = x.length;
+        final double[] copyX = new double[count];
+        final double[] copyY = new double[count];
+        for (int pass = 0; pass < passes; pass++) {
+            System.arraycopy(x, 0, copyX, 0, count);
+            System.arraycopy(y, 0, copyY, 0, count);
+            double sumX = 0;
+            double sumY = 0;
+            for (int k = -window; k <= window; k++) {
+                sumX += copyX[Math.floorMod(k, count)];
+                sumY += copyY[Math.floorMod(k, count)];
+            }
+            for (int i = 0; i < count; i++) {
+                x[i] = sumX / (2 * window + 1);
+                y[i] = sumY / (2 * window + 1);
+                sumX += copyX[Math.floorMod(i + window + 1, count)] - copyX[Math.floorMod(i - window, count)];
+                sumY += copyY[Math.floorMod(i + window + 1, count)] - copyY[Math.floorMod(i - window, count)];
+            }
+        }
+    }
+
+    //a line that cuts the corners: every point is pulled towards the middle of its neighbours (less curvature),
+    //but never closer to a wall than margin world units, checked in the distance field
+    public static RacingLine racingLine(RacingLine centerline, DistanceField field, double margin, int iterations) {
+        final int count = centerline.getCount();
+        final double[] x = new double[count];
+        final double[] y = new double[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = centerline.getX(i);
+            y[i] = centerline.getY(i);
+        }
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            for (int i = 0; i < count; i++) {
+                final int before = Math.floorMod(i - 1, count);
+                final int after = (i + 1) % count;
+                final double targetX = 0.5 * (x[before] + x[after]);
+                final double targetY = 0.5 * (y[before] + y[after]);
+                final int cellX = (int) Math.floor(targetX / field.getCellWidth());
+                final int cellY = (int) Math.floor(targetY / field.getCellHeight());
+                if (field.getDistance(cellX, cellY) >= margin) {
+                    x[i] = targetX;
+                    y[i] = targetY;
+                }
+            }
+        }
+        return RacingLine.fromPolyline(x, y, centerline.getSpacing());
+    }
+
+    private int cellAt(double worldX, double worldY) {
+        final int x = Math.max(1, Math.min(width - 2, (int) (worldX / maskCellWidth)));
+        final int y = Math.max(1, Math.min(height - 2, (int) (worldY / maskCellHeight)));
+        return y * width + x;
+    }
+
+    //changes whenever the track, the start or the settings change
+    private long key(byte[] mask, double startX, double startY, double startYaw, double spacing) {
+        final CRC32 crc = new CRC32();
+        crc.update(mask);
+        long key = crc.getValue();
+        key = key * 31 + Double.hashCode(startX);
+        key = key * 31 + Double.hashCode(startY);
+        key = key * 31 + Double.hashCode(startYaw);
+        key = key * 31 + Double.hashCode(spacing);
+        return key * 31 + step;
+    }
+}
@@ -0,0 +1,185 @@
+package de.robinfrederik.drunkracing.track;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+//one lap of a kart as poses at a fixed rate, for the ghost car
+//on disk every pose is rounded (x and y to 1/16 world unit, yaw to 1/65536 turn) and only the change of the change to the pose before is written,
+//as a variable length number, a kart hardly changes its speed in 10 ms so most numbers fit in one byte and a lap is a few KB
+//in memory the poses are plain floats, playing it back is an array index and a lerp
+public class GhostLap {
+    private static final int MAGIC = 0x47485354;        // "GHST"
+    private static final int VERSION = 1;
+    private static final double POSITION_STEPS = 16;    // per world unit
+    private static final double YAW_STEPS = 65536;      // per turn
+
+    private final double interval;  // seconds between two poses
+    private final double lapTime;
+    private final int[] x;          // rounded, see above
+    private final int[] y;
+    private final int[] yaw;        // 0 to YAW_STEPS - 1
+    private final float[] worldX;   // the same in world units and radians, for playing back
+    private final float[] worldY;
+    private final float[] worldYaw;
+
+    GhostLap(double interval, double lapTime, int[] x, int[] y, int[] yaw) {
+        if (x.length == 0) throw new IllegalArgumentException("a ghost lap needs at least one pose");
+        this.interval = interval;
+        this.lapTime = lapTime;
+        this.x = x;
+        this.y = y;
+        this.yaw = yaw;
+        this.worldX = new float[x.length];
+        this.worldY = new float[x.length];
+        this.worldYaw = new float[x.length];
+        for (int i = 0; i < x.length; i++) {
+            worldX[i] = (float) (x[i] / POSITION_STEPS);
+            worldY[i] = (float) (y[i] / POSITION_STEPS);
+            worldYaw[i] = (float) (yaw[i] * 2 * Math.PI / YAW_STEPS);
+        }
+    }
+
+    static int roundPosition(double world) {
+        return (int) Math.round(world * POSITION_STEPS);
+    }
+
+    static int roundYaw(double yaw) {
+        return (int) Math.floorMod(Math.round(yaw / (2 * Math.PI) * YAW_STEPS), (long) YAW_STEPS);
+    }
+
+    //pose at a time of the lap into out (x, y, yaw), between the two recorded poses around it
+    //before the start it stands at the first pose, after the end at the last one
+    public void sample(double time, double[] out) {
+        final double at = Math.max(0, time / interval);
+        final int i = (int) at;
+        if (i >= worldX.length - 1) {
+            final int last = worldX.length - 1;
+            out[0] = worldX[last];
+            out[1] = worldY[last];
+            out[2] = worldYaw[last];
+            return;
+        }
+        final double f = at - i;
+        out[0] = worldX[i] + f * (worldX[i + 1] - worldX[i]);
+        out[1] = worldY[i] + f * (worldY[i + 1] - worldY[i]);
+        double turn = worldYaw[i + 1] - worldYaw[i];   // the short way round, yaw jumps from 2 pi to 0
+        if (turn > Math.PI) turn -= 2 * Math.PI;
+        else if (turn < -Math.PI) turn += 2 * Math.PI;
+        out[2] = worldYaw[i] + f * turn;
+    }
+
+    public double getLapTime() {
+        return lapTime;
+    }
+
+    public double getInterval() {
+        return interval;
+    }
+
+    public int getPoseCount() {
+        return x.length;
+    }
+
+    //the poses as written to disk, without the header
+    public byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(x.length * 3);
+        encode(out, x, false);
+        encode(out, y, false);
+        encode(out, yaw, true);
+        return out.toByteArray();
+    }
+
+    //second differences, the first value counts as the change from 0 and the second as the change of a kart standing still
+    private static void encode(ByteArrayOutputStream out, int[] values, boolean angle) {
+        int last = 0;
+        int lastChange = 0;
+        for (int value : values) {
+            int change = value - last;
+            if (angle) change = wrapYaw(change);
+            writeVarInt(out, change - lastChange);
+            last = value;
+            lastChange = change;
+        }
+    }
+
+    private static int[] decode(DataInputStream in, int count, boolean angle) throws IOException {
+        final int[] values = new int[count];
+        int last = 0;
+        int lastChange = 0;
+        for (int i = 0; i < count; i++) {
+            final int change = lastChange + readVarInt(in);
+            values[i] = angle ? Math.floorMod(last + change, (int) YAW_STEPS) : last + change;
+            last = values[i];
+            lastChange = change;
+        }
+        return values;
+    }
+
+    //yaw change the short way round, -half a turn to half a turn
+    private static int wrapYaw(int change) {
+        final int steps = (int) YAW_STEPS;
+        change = Math.floorMod(change, steps);
+        return change >= steps / 2 ? change - steps : change;
+    }
+
+    //zigzag (small negative numbers become small positive ones) and then 7 bits per byte, the high bit says another byte follows
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            out.write((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        out.write(zigzag);
+    }
+
+    private static int readVarInt(InputStream in) throws IOException {
+        int zigzag = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final int b = in.read();
+            if (b < 0) throw new IOException("ghost lap ends in the middle of a pose");
+            zigzag |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+        throw new IOException("broken number in the ghost lap");
+    }
+
+    public void save(Path file) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            final byte[] poses = encode();
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeDouble(interval);
+                out.writeDouble(lapTime);
+                out.writeInt(x.length);
+                out.write(poses);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("could not save the ghost lap to " + file, e);
+        }
+    }
+
+    //null if there is no lap saved yet (or the file is from another version)
+    public static GhostLap load(Path file) {
+        if (!Files.exists(file)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            final double interval = in.readDouble();
+            final double lapTime = in.readDouble();
+            final int count = in.readInt();
+            final int[] x = decode(in, count, false);
+            final int[] y = decode(in, count, false);
+            final int[] yaw = decode(in, count, true);
+            return new GhostLap(interval, lapTime, x, y, yaw);
+        } catch (IOException e) {
+            throw new RuntimeException("could not load the ghost lap from " + file, e);
+        }
+    }
+}
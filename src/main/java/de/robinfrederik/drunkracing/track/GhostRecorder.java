@@ -0,0 +1,47 @@
+package de.robinfrederik.drunkracing.track;
+
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+
+import java.util.Arrays;
+
+//records the poses of the player for a ghost lap, fed by the physics thread every step and keeps every interval-th second
+//the arrays are big enough for a few minutes from the start, so recording doesn't make garbage in the physics thread
+//only read it (toLap) once the physics loop has stopped
+public class GhostRecorder {
+    private final double interval;
+    private int[] x;
+    private int[] y;
+    private int[] yaw;
+    private int count;
+
+    public GhostRecorder(double interval, double expectedSeconds) {
+        this.interval = interval;
+        final int capacity = (int) Math.ceil(expectedSeconds / interval) + 1;
+        this.x = new int[capacity];
+        this.y = new int[capacity];
+        this.yaw = new int[capacity];
+    }
+
+    //pose of the kart at time seconds after the start, only the steps on the interval are kept
+    public void record(double time, AckermannState state) {
+        if (time < count * interval - 1e-9) return;
+        if (count == x.length) { // longer than expected, a slow lap
+            x = Arrays.copyOf(x, 2 * count);
+            y = Arrays.copyOf(y, 2 * count);
+            yaw = Arrays.copyOf(yaw, 2 * count);
+        }
+        x[count] = GhostLap.roundPosition(state.getXCoM());
+        y[count] = GhostLap.roundPosition(state.getYCoM());
+        yaw[count] = GhostLap.roundYaw(state.getYaw());
+        count++;
+    }
+
+    public void reset() {
+        count = 0;
+    }
+
+    //the poses up to now as a lap that took lapTime seconds
+    public GhostLap toLap(double lapTime) {
+        return new GhostLap(interval, lapTime, Arrays.copyOf(x, count), Arrays.copyOf(y, count), Arrays.copyOf(yaw, count));
+    }
+}
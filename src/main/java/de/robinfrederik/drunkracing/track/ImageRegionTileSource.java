@@ -0,0 +1,105 @@
+package de.robinfrederik.drunkracing.track;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Iterator;
+
+//reads tiles straight out of one big image file, only the region of the tile gets decoded into memory
+//higher levels use the subsampling of the image reader, so no pyramid has to be written before
+//the decoder still has to run through the file up to the tile, for big maps TilePyramid is a lot faster
+public class ImageRegionTileSource implements TileSource {
+    private final URL image;
+    private final int width;
+    private final int height;
+    private final int tileSize;
+    private final int levels;
+
+    public ImageRegionTileSource(URL image,
+                                 int tileSize) {
+        this.image = image;
+        this.tileSize = tileSize;
+
+        final int[] size = withReader(image, reader -> new int[] {reader.getWidth(0), reader.getHeight(0)}); // only reads the header
+        this.width = size[0];
+        this.height = size[1];
+
+        int levels = 1;
+        while ((Math.max(width, height) >> (levels - 1)) > tileSize) levels++;
+        this.levels = levels;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    @Override
+    public int getLevels() {
+        return levels;
+    }
+
+    @Override
+    public int[] readTile(int level, int tileX, int tileY) {
+        final int[] tile = new int[tileSize * tileSize];
+        final int step = 1 << level;
+
+        //region of the tile in full resolution pixels
+        final int x = tileX * tileSize * step;
+        final int y = tileY * tileSize * step;
+        final int regionWidth = Math.min(tileSize * step, width - x);
+        final int regionHeight = Math.min(tileSize * step, height - y);
+        if (regionWidth <= 0 || regionHeight <= 0) return tile;
+
+        return withReader(image, reader -> {
+            ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceRegion(new Rectangle(x, y, regionWidth, regionHeight));
+            param.setSourceSubsampling(step, step, 0, 0);
+            BufferedImage region = reader.read(0, param);
+            final int w = Math.min(region.getWidth(), tileSize);
+            final int h = Math.min(region.getHeight(), tileSize);
+            region.getRGB(0, 0, w, h, tile, 0, tileSize);
+            return tile;
+        });
+    }
+
+    private interface ReaderTask<T> {
+        T run(ImageReader reader) throws IOException;
+    }
+
+    //opens the image, runs the task and closes everything again
+    private static <T> T withReader(URL image, ReaderTask<T> task) {
+        try (InputStream stream = image.openStream();
+             ImageInputStream input = ImageIO.createImageInputStream(stream)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("no image reader for " + image);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return task.run(reader);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
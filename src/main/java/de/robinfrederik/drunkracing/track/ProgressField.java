@@ -0,0 +1,106 @@
+package de.robinfrederik.drunkracing.track;
+
+import de.robinfrederik.drunkracing.ai.RacingLine;
+import de.robinfrederik.drunkracing.physics.collision.map.TrackMap;
+
+//how far along the track every drivable place is, precomputed so the physics thread gets it with one array load
+//one float per cell (every step-th cell of the map): world units along the centerline from its point 0, NaN on walls
+//built by a breadth first fill from the cells of the line through the drivable cells only, so it never leaks through a wall
+//to the other side of a narrow infield, then every cell gets the exact projection onto the line near the point that reached it
+//a field cell is wall if any map cell in it is, and the fill only goes straight (4 neighbours), never diagonally
+//between two cells that only touch at a corner, so a wall thinner than step or a staircase of one cell stops it too
+public class ProgressField {
+    private final int width;
+    private final int height;
+    private final double cellWidth;     // world units per field cell
+    private final double cellHeight;
+    private final RacingLine line;
+    private final double trackLength;
+    private final float[] progress;     // row major
+
+    public ProgressField(TrackMap map, RacingLine line, int step) {
+        this.width = map.getWidth() / step;
+        this.height = map.getHeight() / step;
+        this.cellWidth = map.getCellWidth() * step;
+        this.cellHeight = map.getCellHeight() * step;
+        this.line = line;
+        this.trackLength = line.getLength();
+        this.progress = new float[width * height];
+
+        //closest line point per cell, -1 = not reached yet, -2 = wall
+        final int[] source = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                source[y * width + x] = hasWall(map, x * step, y * step, step) ? -2 : -1;
+            }
+        }
+        final int[] queue = new int[width * height];
+        int tail = 0;
+        for (int i = 0; i < line.getCount(); i++) {
+            final int cellX = (int) (line.getX(i) / cellWidth);
+            final int cellY = (int) (line.getY(i) / cellHeight);
+            if (cellX < 0 || cellY < 0 || cellX >= width || cellY >= height) continue;
+            final int cell = cellY * width + cellX;
+            if (source[cell] != -1) continue;
+            source[cell] = i;
+            queue[tail++] = cell;
+        }
+        int head = 0;
+        while (head < tail) {
+            final int cell = queue[head++];
+            final int x = cell % width;
+            final int y = cell / width;
+            for (int direction = 0; direction < 4; direction++) {
+                final int dx = direction == 0 ? 1 : direction == 1 ? -1 : 0;
+                final int dy = direction == 2 ? 1 : direction == 3 ? -1 : 0;
+                if (x + dx < 0 || y + dy < 0 || x + dx >= width || y + dy >= height) continue;
+                final int other = cell + dy * width + dx;
+                if (source[other] != -1) continue;
+                source[other] = source[cell];
+                queue[tail++] = other;
+            }
+        }
+
+        //the fill only knows roughly which point is closest, the projection near it is exact
+        final int window = Math.max(4, (int) Math.ceil(2 * Math.max(cellWidth, cellHeight) / line.getSpacing()));
+        for (int cell = 0; cell < progress.length; cell++) {
+            if (source[cell] < 0) {
+                progress[cell] = Float.NaN;
+                continue;
+            }
+            final double centerX = (cell % width + 0.5) * cellWidth;
+            final double centerY = (cell / width + 0.5) * cellHeight;
+            progress[cell] = (float) line.progress(centerX, centerY, source[cell], window);
+        }
+    }
+
+    //true if any of the step x step map cells from (cellX, cellY) on is a wall
+    private static boolean hasWall(TrackMap map, int cellX, int cellY, int step) {
+        for (int y = cellY; y < cellY + step; y++) {
+            for (int x = cellX; x < cellX + step; x++) {
+                if (map.getCell(x, y) == TrackMap.WALL) return true;
+            }
+        }
+        return false;
+    }
+
+    //world units along the track at a world position, NaN on a wall or outside of the map
+    public double getProgress(double worldX, double worldY) {
+        final int cellX = (int) Math.floor(worldX / cellWidth);
+        final int cellY = (int) Math.floor(worldY / cellHeight);
+        if (cellX < 0 || cellY < 0 || cellX >= width || cellY >= height) return Double.NaN;
+        return progress[cellY * width + cellX];
+    }
+
+    public RacingLine getLine() {
+        return line;
+    }
+
+    public double getTrackLength() {
+        return trackLength;
+    }
+
+    public long getMemoryBytes() {
+        return 4L * progress.length;
+    }
+}
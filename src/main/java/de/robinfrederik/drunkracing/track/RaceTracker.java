@@ -0,0 +1,239 @@
+package de.robinfrederik.drunkracing.track;
+
+import de.robinfrederik.drunkracing.ai.RacingLine;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+
+//laps, sectors, wrong way and positions of every kart in a race, updated by the physics thread every step
+//a kart's place on the track comes from the ProgressField (one lookup), the distance it has raced is the sum of the changes,
+//so driving backwards takes distance away again and crossing the line backwards and forwards gains nothing
+//a sector only counts the first time the kart gets past its end, the lap is done after the last sector
+//every sector end is a gate across the track (wall to wall), the way of the kart during the step is cut with it
+//and the time is taken at the crossing inside the step, so the times are exact in simulated time and don't depend on the frame rate
+//the FX thread reads the results, the physics thread writes tick last, read it first to see at least that step
+public class RaceTracker {
+    private static final double WRONG_WAY_SPEED = -60;  // world units per second along the track, 2 m/s backwards
+    private static final double RATE_TIME = 0.5;        // seconds the speed along the track is averaged over
+    private static final double GATE_STEP = 2;          // world units between the checks when a gate is widened to the walls
+    private static final double GATE_MAX = 2000;        // half width of a gate if there is no wall
+    private static final double GATE_MARGIN = 20;       // world units, the progress field is only this exact, around the gate the crossing decides
+
+    private final ProgressField field;
+    private final double trackLength;
+    private final double[] sectorEnds;  // world units along the track, the last one is the length
+    private final double[] gates;       // per sector end: x and y of both ends
+    private final int karts;
+    private final double deltaT;
+
+    //physics thread only
+    private final double[] lastProgress;
+    private final double[] lastX;
+    private final double[] lastY;
+    private final boolean[] placed;
+    private final double[] rate;        // averaged speed along the track
+
+    //written by the physics thread, read by anyone
+    private final double[] raced;       // world units along the track since the start, negative behind the line
+    private final int[] sectorsPassed;  // over all laps
+    private final double[] boundaryTime;    // time the last sector was finished, inside the step it happened in
+    private final double[] sectorTimes; // last time of every sector, kart * sectors + sector
+    private final double[] lastLapTime;
+    private final boolean[] wrongWay;
+    private final int[] order;          // karts from first to last
+    private final int[] position;       // 1 = leading
+    private volatile long tick;
+
+    public RaceTracker(ProgressField field, int sectors, int karts, double deltaT) {
+        this.field = field;
+        this.trackLength = field.getTrackLength();
+        this.sectorEnds = new double[sectors];
+        for (int i = 0; i < sectors; i++) sectorEnds[i] = trackLength * (i + 1) / sectors;
+        this.gates = new double[4 * sectors];
+        for (int i = 0; i < sectors; i++) placeGate(field.getLine(), i);
+        this.karts = karts;
+        this.deltaT = deltaT;
+        this.lastProgress = new double[karts];
+        this.lastX = new double[karts];
+        this.lastY = new double[karts];
+        this.placed = new boolean[karts];
+        this.rate = new double[karts];
+        this.raced = new double[karts];
+        this.sectorsPassed = new int[karts];
+        this.boundaryTime = new double[karts];
+        this.sectorTimes = new double[karts * sectors];
+        this.lastLapTime = new double[karts];
+        this.wrongWay = new boolean[karts];
+        this.order = new int[karts];
+        this.position = new int[karts];
+        for (int i = 0; i < karts; i++) {
+            order[i] = i;
+            position[i] = i + 1;
+        }
+    }
+
+    //line across the track at the end of a sector, from the centerline at that point sideways until the progress field ends (a wall)
+    private void placeGate(RacingLine line, int sector) {
+        final double at = sectorEnds[sector] % trackLength;
+        int i = 0;
+        while (i + 1 < line.getCount() && line.getArcLength(i + 1) <= at) i++;
+        final int next = line.next(i);
+        final double segmentLength = Math.hypot(line.getX(next) - line.getX(i), line.getY(next) - line.getY(i));
+        final double f = segmentLength == 0 ? 0 : (at - line.getArcLength(i)) / segmentLength;
+        final double centerX = line.getX(i) + f * (line.getX(next) - line.getX(i));
+        final double centerY = line.getY(i) + f * (line.getY(next) - line.getY(i));
+        final double heading = Math.atan2(line.getY(next) - line.getY(i), line.getX(next) - line.getX(i));
+        final double normalX = -Math.sin(heading);
+        final double normalY = Math.cos(heading);
+        for (int side = 0; side < 2; side++) {
+            final double sign = side == 0 ? -1 : 1;
+            double reach = 0;
+            while (reach < GATE_MAX && !Double.isNaN(field.getProgress(centerX + sign * (reach + GATE_STEP) * normalX,
+                    centerY + sign * (reach + GATE_STEP) * normalY))) {
+                reach += GATE_STEP;
+            }
+            reach += GATE_STEP; // the wall cell is in, a kart scraping the wall still crosses it
+            gates[4 * sector + 2 * side] = centerX + sign * reach * normalX;
+            gates[4 * sector + 2 * side + 1] = centerY + sign * reach * normalY;
+        }
+    }
+
+    //one kart after its physics step, call for every kart and then finishTick
+    public void track(int kart, AckermannState state) {
+        final double x = state.getXCoM();
+        final double y = state.getYCoM();
+        final double progress = field.getProgress(x, y);
+        if (Double.isNaN(progress)) return; // in a wall for a moment, keep the last value
+        if (!placed[kart]) {
+            //behind the start line counts as negative, the grid is behind it
+            raced[kart] = progress > trackLength / 2 ? progress - trackLength : progress;
+            lastProgress[kart] = progress;
+            lastX[kart] = x;
+            lastY[kart] = y;
+            placed[kart] = true;
+            return;
+        }
+
+        double change = progress - lastProgress[kart];
+        if (change < -trackLength / 2) change += trackLength;   // forwards over the line
+        else if (change > trackLength / 2) change -= trackLength; // backwards over the line
+        lastProgress[kart] = progress;
+        final double racedBefore = raced[kart];
+        raced[kart] += change;
+
+        rate[kart] += (change / deltaT - rate[kart]) * Math.min(1, deltaT / RATE_TIME);
+        wrongWay[kart] = rate[kart] < WRONG_WAY_SPEED;
+
+        //every sector end the kart got past for the first time
+        final int sectors = sectorEnds.length;
+        while (raced[kart] >= boundary(sectorsPassed[kart]) - GATE_MARGIN) {
+            final int sector = sectorsPassed[kart] % sectors;
+            double fraction = crossing(sector, lastX[kart], lastY[kart], x, y);
+            if (Double.isNaN(fraction)) {
+                if (raced[kart] < boundary(sectorsPassed[kart]) + GATE_MARGIN) break; // not through the gate yet
+                //went around the end of the gate (through a wall cell), the progress along the track is a good guess too
+                fraction = Math.min(1, Math.max(0, (boundary(sectorsPassed[kart]) - racedBefore) / change));
+            }
+            final double time = (tick + fraction) * deltaT;
+            sectorTimes[kart * sectors + sector] = time - boundaryTime[kart];
+            boundaryTime[kart] = time;
+            sectorsPassed[kart]++;
+            if (sector == sectors - 1) {
+                double lap = 0;
+                for (int i = 0; i < sectors; i++) lap += sectorTimes[kart * sectors + i];
+                lastLapTime[kart] = lap;
+            }
+        }
+        lastX[kart] = x;
+        lastY[kart] = y;
+    }
+
+    //where between the start (0) and the end (1) of the step the way from (fromX, fromY) to (toX, toY) cuts the gate forwards, NaN if it doesn't
+    private double crossing(int sector, double fromX, double fromY, double toX, double toY) {
+        final double ax = gates[4 * sector];
+        final double ay = gates[4 * sector + 1];
+        final double gateX = gates[4 * sector + 2] - ax;
+        final double gateY = gates[4 * sector + 3] - ay;
+        final double moveX = toX - fromX;
+        final double moveY = toY - fromY;
+        final double denominator = moveX * gateY - moveY * gateX;
+        if (denominator <= 0) return Double.NaN; // along the gate or backwards through it
+        final double t = ((ax - fromX) * gateY - (ay - fromY) * gateX) / denominator;
+        final double u = ((ax - fromX) * moveY - (ay - fromY) * moveX) / denominator;
+        return t >= 0 && t <= 1 && u >= 0 && u <= 1 ? t : Double.NaN;
+    }
+
+    //world units raced at the end of sector number passed (counted over all laps)
+    private double boundary(int passed) {
+        final int sectors = sectorEnds.length;
+        return (passed / sectors) * trackLength + sectorEnds[passed % sectors];
+    }
+
+    //positions after all karts were tracked, insertion sort because the order hardly changes from one step to the next
+    public void finishTick() {
+        for (int i = 1; i < karts; i++) {
+            final int kart = order[i];
+            int j = i - 1;
+            while (j >= 0 && raced[order[j]] < raced[kart]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = kart;
+        }
+        for (int i = 0; i < karts; i++) position[order[i]] = i + 1;
+        tick++;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    //seconds since the race started, counted in physics steps
+    public double getTime() {
+        return tick * deltaT;
+    }
+
+    public int getLaps(int kart) {
+        return sectorsPassed[kart] / sectorEnds.length;
+    }
+
+    public int getSectorsPassed(int kart) {
+        return sectorsPassed[kart];
+    }
+
+    public int getSectorCount() {
+        return sectorEnds.length;
+    }
+
+    //last time of a sector of a kart in seconds, 0 before it was driven once
+    public double getSectorTime(int kart, int sector) {
+        return sectorTimes[kart * sectorEnds.length + sector];
+    }
+
+    //time the kart finished its last sector, e.g. the end of the race after the last lap
+    public double getLastCrossingTime(int kart) {
+        return boundaryTime[kart];
+    }
+
+    public double getLastLapTime(int kart) {
+        return lastLapTime[kart];
+    }
+
+    public double getRaced(int kart) {
+        return raced[kart];
+    }
+
+    public boolean isWrongWay(int kart) {
+        return wrongWay[kart];
+    }
+
+    public int getPosition(int kart) {
+        return position[kart];
+    }
+
+    public ProgressField getField() {
+        return field;
+    }
+
+    public int getKartCount() {
+        return karts;
+    }
+}
@@ -0,0 +1,110 @@
+package de.robinfrederik.drunkracing.track;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//keeps at most capacity decoded tiles in memory, the least recently used one is thrown out first
+//prefetch loads tiles on a background thread, so they are ready before the camera or the car gets there
+//get loads a missing tile right away on the calling thread, getIfLoaded never waits
+public class TileCache<T> {
+    public interface Loader<T> {
+        T load(int level, int tileX, int tileY);
+    }
+
+    private final Loader<T> loader;
+    private final int capacity;
+    private final Map<Long, T> tiles;
+    private final Set<Long> pending = new HashSet<>();  // queued on the loader thread, not loaded yet
+    private ExecutorService executor;                    // only started with the first prefetch
+    private volatile long loadCount;                     // tiles decoded since the start, only roughly since two threads count, for profiling
+
+    public TileCache(Loader<T> loader,
+                     int capacity) {
+        this.loader = loader;
+        this.capacity = capacity;
+        this.tiles = new LinkedHashMap<>(capacity * 2, 0.75f, true) { // access order -> least recently used comes first
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, T> eldest) {
+                return size() > TileCache.this.capacity;
+            }
+        };
+    }
+
+    //level, x and y packed into one number so the map doesn't need a key object
+    public static long key(int level, int tileX, int tileY) {
+        return ((long) level << 56) | ((long) (tileY & 0xFFFFFFF) << 28) | (tileX & 0xFFFFFFF);
+    }
+
+    public synchronized T getIfLoaded(int level, int tileX, int tileY) {
+        return tiles.get(key(level, tileX, tileY));
+    }
+
+    public T get(int level, int tileX, int tileY) {
+        T tile = getIfLoaded(level, tileX, tileY);
+        if (tile != null) return tile;
+        tile = loader.load(level, tileX, tileY);
+        loadCount++;
+        synchronized (this) {
+            tiles.put(key(level, tileX, tileY), tile);
+        }
+        return tile;
+    }
+
+    public void prefetch(int level, int tileX, int tileY) {
+        final long key = key(level, tileX, tileY);
+        final ExecutorService executor;
+        synchronized (this) {
+            if (tiles.containsKey(key) || !pending.add(key)) return; // there already or on its way
+            if (this.executor == null) {
+                this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "tile loader");
+                    thread.setDaemon(true); // must not keep the game from closing
+                    return thread;
+                });
+            }
+            executor = this.executor;
+        }
+        executor.execute(() -> {
+            T tile = null;
+            try {
+                tile = loader.load(level, tileX, tileY);
+                loadCount++;
+            } finally {
+                synchronized (this) {
+                    pending.remove(key);
+                    if (tile != null) tiles.put(key, tile); // a failed load is simply tried again next time
+                }
+            }
+        });
+    }
+
+    public synchronized void clear() {
+        tiles.clear();
+    }
+
+    //stops the loader thread, the cache can't prefetch anymore afterwards
+    public synchronized void close() {
+        if (executor != null) executor.shutdownNow();
+        tiles.clear();
+    }
+
+    public synchronized int getLoadedCount() {
+        return tiles.size();
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
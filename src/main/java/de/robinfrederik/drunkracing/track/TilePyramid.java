@@ -0,0 +1,119 @@
+package de.robinfrederik.drunkracing.track;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+//a map stored as a folder of small png tiles: <dir>/<level>/<tileX>_<tileY>.png plus pyramid.properties with the sizes
+//reading a tile only decodes that one small file, no matter how big the whole map is
+//write cuts any other TileSource into such a folder, the main method does it for an image file
+public class TilePyramid implements TileSource {
+    private static final String INFO = "pyramid.properties";
+
+    private final Path directory;
+    private final int width;
+    private final int height;
+    private final int tileSize;
+    private final int levels;
+
+    public TilePyramid(Path directory) {
+        this.directory = directory;
+        Properties info = new Properties();
+        try (InputStream input = Files.newInputStream(directory.resolve(INFO))) {
+            info.load(input);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        this.width = Integer.parseInt(info.getProperty("width"));
+        this.height = Integer.parseInt(info.getProperty("height"));
+        this.tileSize = Integer.parseInt(info.getProperty("tileSize"));
+        this.levels = Integer.parseInt(info.getProperty("levels"));
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    @Override
+    public int getLevels() {
+        return levels;
+    }
+
+    @Override
+    public int[] readTile(int level, int tileX, int tileY) {
+        final int[] tile = new int[tileSize * tileSize];
+        final Path file = tileFile(directory, level, tileX, tileY);
+        if (!Files.exists(file)) return tile; // outside of the map
+        try {
+            BufferedImage image = ImageIO.read(file.toFile());
+            image.getRGB(0, 0, tileSize, tileSize, tile, 0, tileSize);
+            return tile;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    //writes every tile of every level of source into directory
+    public static TilePyramid write(TileSource source, Path directory) {
+        final int tileSize = source.getTileSize();
+        final BufferedImage image = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_ARGB);
+        try {
+            for (int level = 0; level < source.getLevels(); level++) {
+                Files.createDirectories(directory.resolve(Integer.toString(level)));
+                for (int tileY = 0; tileY < source.getTilesY(level); tileY++) {
+                    for (int tileX = 0; tileX < source.getTilesX(level); tileX++) {
+                        image.setRGB(0, 0, tileSize, tileSize, source.readTile(level, tileX, tileY), 0, tileSize);
+                        ImageIO.write(image, "png", tileFile(directory, level, tileX, tileY).toFile());
+                    }
+                }
+            }
+
+            Properties info = new Properties();
+            info.setProperty("width", Integer.toString(source.getWidth()));
+            info.setProperty("height", Integer.toString(source.getHeight()));
+            info.setProperty("tileSize", Integer.toString(tileSize));
+            info.setProperty("levels", Integer.toString(source.getLevels()));
+            try (OutputStream output = Files.newOutputStream(directory.resolve(INFO))) {
+                info.store(output, "tile pyramid");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return new TilePyramid(directory);
+    }
+
+    private static Path tileFile(Path directory, int level, int tileX, int tileY) {
+        return directory.resolve(level + File.separator + tileX + "_" + tileY + ".png");
+    }
+
+    //java TilePyramid <image> <output folder> [tile size]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("usage: TilePyramid <image> <output folder> [tile size, default 256]");
+            return;
+        }
+        final int tileSize = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        long start = System.nanoTime();
+        TileSource source = new ImageRegionTileSource(new File(args[0]).toURI().toURL(), tileSize);
+        TilePyramid pyramid = write(source, Path.of(args[1]));
+        System.out.printf("%d x %d, %d levels of %d px tiles written in %.1f s%n",
+                pyramid.getWidth(), pyramid.getHeight(), pyramid.getLevels(), tileSize, (System.nanoTime() - start) / 1e9);
+    }
+}
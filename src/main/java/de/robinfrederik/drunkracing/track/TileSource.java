@@ -0,0 +1,23 @@
+package de.robinfrederik.drunkracing.track;
+
+//where the tiles of a map come from, one tile is a square of tileSize x tileSize pixels
+//level 0 is the full resolution, every level above has half the width and height of the one below (pyramid)
+public interface TileSource {
+    int getWidth();         // pixels of the full resolution image
+    int getHeight();
+    int getTileSize();
+    int getLevels();
+
+    //argb pixels, row major, always tileSize * tileSize, parts outside the image are transparent
+    int[] readTile(int level, int tileX, int tileY);
+
+    default int getTilesX(int level) {
+        final int levelWidth = (getWidth() + (1 << level) - 1) >> level;
+        return (levelWidth + getTileSize() - 1) / getTileSize();
+    }
+
+    default int getTilesY(int level) {
+        final int levelHeight = (getHeight() + (1 << level) - 1) >> level;
+        return (levelHeight + getTileSize() - 1) / getTileSize();
+    }
+}
@@ -0,0 +1,93 @@
+package de.robinfrederik.drunkracing.ai;
+
+import de.robinfrederik.drunkracing.physics.ackermann.CarGoKartSportModel;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+//steps growing fields of AI karts on one thread like the physics loop does and measures how long one 1 ms tick takes
+//also checks that the karts really drive the line (distance to the line, laps) and that the ticks allocate nothing
+//run the main method, the number of simulated seconds per field size can be given as argument (default 20)
+public class AiFieldBenchmark {
+    private static final double DELTA_T = 0.001;
+
+    public static void main(String[] args) {
+        final int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        final RacingLine line = testLine();
+        System.out.printf("line: %d points, %.0f world units, speeds %.1f - %.1f m/s%n", line.getCount(), line.getLength(),
+                Arrays.stream(speeds(line)).min().getAsDouble(), Arrays.stream(speeds(line)).max().getAsDouble());
+
+        for (int karts : new int[] {1, 50, 100, 200, 400, 800}) {
+            AiField field = new AiField(new CarGoKartSportModel(), line, karts);
+            field.place(0, 90);
+            for (int i = 0; i < 5000; i++) { // warm up the JIT
+                field.step(DELTA_T);
+                field.publish();
+            }
+            field.place(0, 90);
+
+            final int ticks = seconds * 1000;
+            final long[] tickNanos = new long[ticks];
+            final int[] lastPoint = new int[karts];
+            for (int i = 0; i < karts; i++) { // the grid is behind point 0, counting from 0 would take the grid off the distance driven
+                lastPoint[i] = line.nearest(field.getCar(i).getState().getXCoM(), field.getCar(i).getState().getYCoM());
+            }
+            final int[] pointsDriven = new int[karts];
+            double errorSum = 0;
+            double errorMax = 0;
+            final long allocatedBefore = allocatedBytes();
+            for (int tick = 0; tick < ticks; tick++) {
+                final long start = System.nanoTime();
+                field.step(DELTA_T);
+                field.publish();
+                tickNanos[tick] = System.nanoTime() - start;
+
+                //progress and distance to the line, every 10 ticks is enough and keeps the measured ticks clean
+                if (tick % 10 == 0) {
+                    for (int i = 0; i < karts; i++) {
+                        final int point = field.getDriver(i).getNearest();
+                        pointsDriven[i] += Math.floorMod(point - lastPoint[i] + line.getCount() / 2, line.getCount()) - line.getCount() / 2;
+                        lastPoint[i] = point;
+                        final double error = Math.hypot(field.getCar(i).getState().getXCoM() - line.getX(point),
+                                field.getCar(i).getState().getYCoM() - line.getY(point));
+                        errorSum += error;
+                        errorMax = Math.max(errorMax, error);
+                    }
+                }
+            }
+            final long allocated = allocatedBytes() - allocatedBefore;
+
+            Arrays.sort(tickNanos);
+            final double laps = Arrays.stream(pointsDriven).average().orElse(0) / line.getCount();
+            if (laps <= 0) throw new IllegalStateException(karts + " karts didn't get anywhere along the line");
+            System.out.printf("%4d karts: tick mean %7.1f us, p50 %7.1f us, p99 %7.1f us, max %7.1f us (%5.1f%% of the 1 ms budget at p99), "
+                            + "%4.0f ns per kart, allocated %d bytes in %d ticks (asking the JVM costs about 1.6 KB itself)%n",
+                    karts, Arrays.stream(tickNanos).average().orElse(0) / 1e3, tickNanos[ticks / 2] / 1e3, tickNanos[(int) (ticks * 0.99)] / 1e3,
+                    tickNanos[ticks - 1] / 1e3, tickNanos[(int) (ticks * 0.99)] / 1e4, Arrays.stream(tickNanos).average().orElse(0) / karts,
+                    allocated, ticks);
+            System.out.printf("            %.2f laps in %d s on average, distance to the line mean %.1f max %.1f world units%n",
+                    laps, seconds, errorSum / (karts * (ticks / 10.0)), errorMax);
+        }
+    }
+
+    //rounded track with long straights, a hairpin and some quick turns, fills most of the 5000 x 5000 world
+    //also used by the other benchmarks that need a line without a map
+    public static RacingLine testLine() {
+        final double[] x = {800, 2500, 4200, 4400, 4000, 3000, 2600, 3200, 3000, 1800, 900, 600};
+        final double[] y = {700, 600, 700, 1500, 2400, 2500, 3100, 3700, 4300, 4400, 3600, 2000};
+        final RacingLine line = RacingLine.fromWaypoints(x, y, 10);
+        line.computeSpeedProfile(25, 12, 6, 10);
+        return line;
+    }
+
+    private static double[] speeds(RacingLine line) {
+        final double[] speeds = new double[line.getCount()];
+        for (int i = 0; i < speeds.length; i++) speeds[i] = line.getSpeed(i);
+        return speeds;
+    }
+
+    private static long allocatedBytes() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) return -1;
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
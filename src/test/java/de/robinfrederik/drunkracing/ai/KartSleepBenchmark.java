@@ -0,0 +1,83 @@
+package de.robinfrederik.drunkracing.ai;
+
+import de.robinfrederik.drunkracing.car.CarGoKartSport;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannModel;
+import de.robinfrederik.drunkracing.physics.ackermann.CarGoKartSportModel;
+
+import java.util.Arrays;
+
+//what sleeping karts save in a mostly parked field, and that waking up is exact
+//first one kart is parked at full speed, once it sleeps a copy of it keeps being stepped with the full model,
+//when the kart is unparked again both states have to be bit for bit the same
+//then 200 karts of which 180 are parked, ms per tick without and with sleeping
+//run the main method, the number of measured seconds can be given as argument (default 10)
+public class KartSleepBenchmark {
+    private static final double DELTA_T = 0.001;
+    private static final int KARTS = 200;
+    private static final int DRIVING = 20;
+    private static final double MAX_SPEED = 0.01;   // m/s and rad/s
+    private static final double MAX_SLIP = 0.001;   // rad
+    private static final int QUIET_TICKS = 100;
+
+    public static void main(String[] args) {
+        final int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        final RacingLine line = AiFieldBenchmark.testLine();
+        final AckermannModel model = new CarGoKartSportModel();
+
+        //parked after 5 s of driving, the copy starts when it falls asleep
+        final AiField one = new AiField(model, line, 1);
+        one.setSleep(MAX_SPEED, MAX_SLIP, QUIET_TICKS);
+        one.place(0, 90);
+        for (int tick = 0; tick < 5000; tick++) one.step(DELTA_T);
+        final double speed = one.getCar(0).getState().getLongVel();
+        one.park(0, true);
+        int ticksToSleep = 0;
+        while (!one.isAsleep(0)) {
+            one.step(DELTA_T);
+            ticksToSleep++;
+        }
+        final CarGoKartSport copy = new CarGoKartSport();
+        one.getCar(0).getState().copyTo(copy.getState());
+        for (int tick = 0; tick < 5000; tick++) {
+            one.step(DELTA_T);
+            copy.updateState(model, 0, 0, DELTA_T);
+        }
+        final boolean exact = one.getCar(0).getState().sameAs(copy.getState());
+        one.park(0, false);
+        one.step(DELTA_T);
+        System.out.printf("parked at %.1f m/s, asleep after %d ticks, after 5000 skipped ticks the state is %s the one stepped all the time, "
+                        + "unparked it is %s%n",
+                speed, ticksToSleep, exact ? "bit for bit" : "NOT", one.isAsleep(0) ? "still asleep" : "awake");
+        if (!exact) throw new IllegalStateException("the sleeping kart ended somewhere else than the one stepped all the time");
+        if (one.isAsleep(0)) throw new IllegalStateException("the kart still sleeps after it got input again");
+
+        //the mostly parked field
+        for (boolean sleeping : new boolean[] {false, true}) {
+            final AiField field = new AiField(model, line, KARTS);
+            if (sleeping) field.setSleep(MAX_SPEED, MAX_SLIP, QUIET_TICKS);
+            field.place(0, 90);
+            for (int i = 0; i < 2000; i++) field.step(DELTA_T); // warm up the JIT, with everyone driving
+            for (int i = DRIVING; i < KARTS; i++) field.park(i, true);
+            for (int i = 0; i < 10000; i++) field.step(DELTA_T); // the parked ones roll out
+
+            final int ticks = seconds * 1000;
+            final long[] tickNanos = new long[ticks];
+            for (int tick = 0; tick < ticks; tick++) {
+                final long start = System.nanoTime();
+                field.step(DELTA_T);
+                field.publish();
+                tickNanos[tick] = System.nanoTime() - start;
+            }
+            int asleep = 0;
+            double fastestParked = 0;
+            for (int i = 0; i < KARTS; i++) {
+                if (field.isAsleep(i)) asleep++;
+                if (field.isParked(i)) fastestParked = Math.max(fastestParked, Math.abs(field.getCar(i).getState().getLongVel()));
+            }
+            Arrays.sort(tickNanos);
+            System.out.printf("%d karts, %d parked, %-12s: tick mean %6.1f us, p50 %6.1f us, p99 %6.1f us, %d asleep, fastest parked kart %.4f m/s%n",
+                    KARTS, KARTS - DRIVING, sleeping ? "sleeping" : "not sleeping", Arrays.stream(tickNanos).average().orElse(0) / 1e3,
+                    tickNanos[ticks / 2] / 1e3, tickNanos[(int) (ticks * 0.99)] / 1e3, asleep, fastestParked);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package de.robinfrederik.drunkracing.ai;
+
+import de.robinfrederik.drunkracing.physics.PhysicsLod;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+import de.robinfrederik.drunkracing.physics.ackermann.CarGoKartSportKinematicModel;
+import de.robinfrederik.drunkracing.physics.ackermann.CarGoKartSportModel;
+
+import java.util.Arrays;
+
+//what the physics LOD saves in a 200 kart race and what it costs in driving
+//first one kart alone with every level all the time, how far the laps and the distance to the line differ
+//(the reduced model follows the line closer, the driver doesn't have to catch slides, so it is a few % quicker)
+//then one kart handed between the full and the reduced model every half second: the biggest jump in yaw rate and
+//lateral velocity from one tick to the next, next to the biggest the full model has on its own
+//then 200 karts with the full model against the LOD around kart 0, ms per tick and how many karts are on which level
+//run the main method, the number of simulated seconds can be given as argument (default 20)
+public class PhysicsLodBenchmark {
+    private static final double DELTA_T = 0.001;
+    private static final int KARTS = 200;
+    private static final double REDUCED_FROM = 800;     // world units, about a screen away
+    private static final double FAR_FROM = 2000;
+    private static final double MARGIN = 50;
+    private static final int FAR_EVERY = 4;
+
+    public static void main(String[] args) {
+        final int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        final RacingLine line = AiFieldBenchmark.testLine();
+        final int ticks = seconds * 1000;
+
+        //one kart, the focus is put where the level wanted is
+        for (int level = PhysicsLod.FULL; level <= PhysicsLod.FAR; level++) {
+            final AiField field = field(line, 1);
+            final double away = level == PhysicsLod.FULL ? 0 : level == PhysicsLod.REDUCED ? (REDUCED_FROM + FAR_FROM) / 2 : 1e6;
+            final double[] driven = drive(field, line, ticks, tick -> away);
+            System.out.printf("%-8s alone: %.3f laps in %d s, distance to the line mean %.1f max %.1f world units%n",
+                    name(level), driven[0], seconds, driven[1], driven[2]);
+            if (driven[0] <= 0) throw new IllegalStateException("the kart didn't get anywhere with the " + name(level) + " model");
+        }
+
+        //handed over every 500 ticks, against the full model alone
+        final double[] jumpsFull = jumps(field(line, 1), ticks, tick -> 0);
+        final double[] jumpsSwitching = jumps(field(line, 1), ticks, tick -> (tick / 500) % 2 == 0 ? 0 : (REDUCED_FROM + FAR_FROM) / 2);
+        System.out.printf("biggest change in one tick, full model alone: yaw rate %.4f rad/s, lateral velocity %.4f m/s, position %.3f world units%n",
+                jumpsFull[0], jumpsFull[1], jumpsFull[2]);
+        System.out.printf("switching every 500 ticks:                     yaw rate %.4f rad/s, lateral velocity %.4f m/s, position %.3f world units%n",
+                jumpsSwitching[0], jumpsSwitching[1], jumpsSwitching[2]);
+
+        //the race
+        for (boolean withLod : new boolean[] {false, true}) {
+            final AiField field = field(line, KARTS);
+            if (!withLod) field.setLod(null);
+            for (int i = 0; i < 5000; i++) step(field); // warm up the JIT
+            field.place(0, 90);
+
+            final long[] tickNanos = new long[ticks];
+            final int[] onLevel = new int[3];
+            for (int tick = 0; tick < ticks; tick++) {
+                final long start = System.nanoTime();
+                step(field);
+                tickNanos[tick] = System.nanoTime() - start;
+                for (int i = 0; i < KARTS; i++) onLevel[field.getLevel(i)]++;
+            }
+            Arrays.sort(tickNanos);
+            System.out.printf("%d karts %-8s: tick mean %6.1f us, p50 %6.1f us, p99 %6.1f us; karts on average full %.1f, reduced %.1f, far %.1f%n",
+                    KARTS, withLod ? "with LOD" : "full", Arrays.stream(tickNanos).average().orElse(0) / 1e3, tickNanos[ticks / 2] / 1e3,
+                    tickNanos[(int) (ticks * 0.99)] / 1e3, onLevel[0] / (double) ticks, onLevel[1] / (double) ticks, onLevel[2] / (double) ticks);
+        }
+    }
+
+    private interface Away {
+        double at(int tick);
+    }
+
+    private static AiField field(RacingLine line, int karts) {
+        final AiField field = new AiField(new CarGoKartSportModel(), line, karts);
+        field.setLod(new PhysicsLod(new CarGoKartSportModel(), new CarGoKartSportKinematicModel(), REDUCED_FROM, FAR_FROM, MARGIN, FAR_EVERY));
+        field.place(0, 90);
+        return field;
+    }
+
+    //a step with the focus on kart 0, like the PhysicsLoop does with the player
+    private static void step(AiField field) {
+        final AckermannState state = field.getCar(0).getState();
+        field.setFocus(state.getXCoM(), state.getYCoM());
+        field.step(DELTA_T);
+        field.publish();
+    }
+
+    //laps, mean and max distance to the line of kart 0, the focus away from it as given
+    private static double[] drive(AiField field, RacingLine line, int ticks, Away away) {
+        int lastPoint = field.getDriver(0).getNearest();
+        int pointsDriven = 0;
+        double errorSum = 0;
+        double errorMax = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            final AckermannState state = field.getCar(0).getState();
+            field.setFocus(state.getXCoM() + away.at(tick), state.getYCoM());
+            field.step(DELTA_T);
+            if (tick % 10 == 0) {
+                final int point = field.getDriver(0).getNearest();
+                pointsDriven += Math.floorMod(point - lastPoint + line.getCount() / 2, line.getCount()) - line.getCount() / 2;
+                lastPoint = point;
+                final double error = Math.hypot(state.getXCoM() - line.getX(point), state.getYCoM() - line.getY(point));
+                errorSum += error;
+                errorMax = Math.max(errorMax, error);
+            }
+        }
+        return new double[] {pointsDriven / (double) line.getCount(), errorSum / (ticks / 10.0), errorMax};
+    }
+
+    //biggest change of yaw rate, lateral velocity and position per tick of kart 0 (the first second, the start, left out)
+    private static double[] jumps(AiField field, int ticks, Away away) {
+        final AckermannState state = field.getCar(0).getState();
+        final double[] jumps = new double[3];
+        for (int tick = 0; tick < ticks; tick++) {
+            final double yawRate = state.getYawRate();
+            final double latVel = state.getLatVel();
+            final double x = state.getXCoM();
+            final double y = state.getYCoM();
+            field.setFocus(x + away.at(tick), y);
+            field.step(DELTA_T);
+            if (tick < 1000) continue;
+            jumps[0] = Math.max(jumps[0], Math.abs(state.getYawRate() - yawRate));
+            jumps[1] = Math.max(jumps[1], Math.abs(state.getLatVel() - latVel));
+            jumps[2] = Math.max(jumps[2], Math.hypot(state.getXCoM() - x, state.getYCoM() - y));
+        }
+        return jumps;
+    }
+
+    private static String name(int level) {
+        return level == PhysicsLod.FULL ? "full" : level == PhysicsLod.REDUCED ? "reduced" : "far";
+    }
+}
@@ -0,0 +1,107 @@
+package de.robinfrederik.drunkracing.net;
+
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannModel;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+import de.robinfrederik.drunkracing.physics.ackermann.CarGoKartSportModel;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+//client prediction against a FakeServer with latency, jitter and loss, in one thread so every run is the same
+//a scripted driver (full throttle, new steering every 0.2 - 0.6 s, an input packet every 17 ms like at 60 Hz)
+//prints how far back the snapshots replay, what a replay costs, how far the kart jumps when a snapshot corrects it
+//and how far behind the kart would be without prediction (where the last snapshot had it)
+//with no latency the jumps are only the rounding of the snapshots, that checks that the ticks are matched right
+//before that it checks that a first snapshot without any input used yet (input 0) is put without replay
+//run the main method
+public class PredictionBenchmark {
+    private static final double DELTA_T = 0.001;
+    private static final int SNAPSHOT_EVERY = 16;
+    private static final int INPUT_EVERY = 17;
+    private static final int TICKS = 60_000;     // a minute, the first half warms up the JIT
+
+    public static void main(String[] args) {
+        firstSnapshot();
+        run("no latency", 0, 0, 0);
+        run("25 ms each way", 25, 0, 0);
+        run("50 ms + 10 ms jitter, 5 % loss", 50, 10, 0.05);
+        run("100 ms + 20 ms jitter, 20 % loss", 100, 20, 0.2);
+    }
+
+    //the server used no input yet, the kart has to be put where the snapshot has it and not rewound to a tick it never had an input for
+    private static void firstSnapshot() {
+        final AckermannModel model = new CarGoKartSportModel();
+        final FakeServer server = new FakeServer(model, DELTA_T, SNAPSHOT_EVERY, 0, 0, 0, 1);
+        final PredictedKart kart = new PredictedKart(model, DELTA_T, 1024);
+        server.sendInput(1, (byte) 0, (byte) 0); // join
+        while (!server.poll()) server.tick();
+        kart.place(server.getKarts(), 0);
+        for (int tick = 0; tick < 10; tick++) kart.step((byte) 1, (byte) 1, 1);
+        kart.reconcile(server.getKarts(), 0, 0, 5);
+        final AckermannState state = kart.getState();
+        final boolean put = kart.getSnaps() == 1 && kart.getReplayed() == 0
+                && state.getXCoM() == Protocol.x(server.getKarts(), 0) && state.getYCoM() == Protocol.y(server.getKarts(), 0);
+        System.out.printf("first snapshot with input 0: %s%n", put ? "put without replay" : "FAILED, replayed " + kart.getReplayed() + " ticks");
+        if (!put) throw new IllegalStateException("the first snapshot was replayed instead of put, " + kart.getReplayed() + " ticks");
+    }
+
+    private static void run(String name, int latency, int jitter, double loss) {
+        final AckermannModel model = new CarGoKartSportModel();
+        final FakeServer server = new FakeServer(model, DELTA_T, SNAPSHOT_EVERY, latency, jitter, loss, 1);
+        final PredictedKart kart = new PredictedKart(model, DELTA_T, 1024);
+        final SplittableRandom driver = new SplittableRandom(2);
+
+        int input = 1;
+        server.sendInput(input, (byte) 0, (byte) 0); // join
+        byte steering = 0;
+        long nextSteer = 0;
+        final long[] replayNanos = new long[TICKS];
+        final int[] replayed = new int[TICKS];
+        final double[] correction = new double[TICKS];
+        int reconciles = 0;
+        double lag = 0;
+        int lagSamples = 0;
+        for (int tick = 0; tick < TICKS; tick++) {
+            if (kart.isPlaced()) {
+                if (tick >= nextSteer) {
+                    steering = (byte) (driver.nextInt(3) - 1);
+                    nextSteer = tick + 200 + driver.nextInt(400);
+                    server.sendInput(++input, steering, (byte) 1);
+                } else if (tick % INPUT_EVERY == 0) {
+                    server.sendInput(++input, steering, (byte) 1);
+                }
+                kart.step(steering, (byte) 1, input);
+            }
+            server.tick();
+            if (!server.poll()) continue;
+            if (!kart.isPlaced()) {
+                kart.place(server.getKarts(), 0);
+                continue;
+            }
+            kart.reconcile(server.getKarts(), 0, server.getInputUsed(), server.getInputTicks());
+            if (tick < TICKS / 2) continue;
+            replayNanos[reconciles] = kart.getReplayNanos();
+            replayed[reconciles] = kart.getReplayed();
+            correction[reconciles] = kart.getCorrection();
+            reconciles++;
+            final AckermannState state = kart.getState();
+            lag += Math.hypot(Protocol.x(server.getKarts(), 0) - state.getXCoM(), Protocol.y(server.getKarts(), 0) - state.getYCoM());
+            lagSamples++;
+        }
+
+        final long[] nanos = Arrays.copyOf(replayNanos, reconciles);
+        final double[] jumps = Arrays.copyOf(correction, reconciles);
+        final int[] ticks = Arrays.copyOf(replayed, reconciles);
+        Arrays.sort(nanos);
+        Arrays.sort(jumps);
+        Arrays.sort(ticks);
+        final double meanTicks = Arrays.stream(ticks).average().orElse(0);
+        final double meanNanos = Arrays.stream(nanos).average().orElse(0);
+        System.out.printf("%s: %d snapshots, %d put without replay%n", name, reconciles, kart.getSnaps());
+        System.out.printf("  replayed ticks mean %.1f, max %d | reconcile mean %.1f us, p99 %.1f us, max %.1f us (%.0f ns per tick)%n",
+                meanTicks, ticks[ticks.length - 1], meanNanos / 1e3, nanos[(int) (nanos.length * 0.99)] / 1e3,
+                nanos[nanos.length - 1] / 1e3, meanTicks > 0 ? meanNanos / meanTicks : 0);
+        System.out.printf("  jump on correction mean %.3f, p99 %.3f, max %.3f world units | without prediction the kart would be %.1f behind%n",
+                Arrays.stream(jumps).average().orElse(0), jumps[(int) (jumps.length * 0.99)], jumps[jumps.length - 1], lag / lagSamples);
+    }
+}
@@ -0,0 +1,106 @@
+package de.robinfrederik.drunkracing.net;
+
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+import de.robinfrederik.drunkracing.physics.ackermann.CarGoKartSportModel;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+//a RaceServer on loopback with 8, 32 and 128 simulated clients, all in this thread in lock step so it is the same every run:
+//every client sends its input at 60 Hz, the server ticks at 1000 Hz and sends a snapshot every 16 ticks (62.5 Hz)
+//prints the cost of a server tick, the bytes per client and second both ways and checks that the clients see what the server has
+//the second run loses a fifth of the inputs (and so the acks), then the snapshots are differences to older bases
+//run the main method
+public class RaceServerBenchmark {
+    private static final double DELTA_T = 0.001;
+    private static final int SNAPSHOT_EVERY = 16;
+    private static final int INPUT_EVERY = 17;      // about 60 Hz
+    private static final int TICKS = 20_000;        // 20 s of racing
+
+    public static void main(String[] args) {
+        for (double loss : new double[] {0, 0.2}) {
+            System.out.printf("%s%n", loss == 0 ? "no loss" : String.format("%.0f %% of the inputs lost", loss * 100));
+            for (int karts : new int[] {8, 32, 128}) run(karts, loss);
+        }
+    }
+
+    private static void run(int karts, double loss) {
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        try (RaceServer server = new RaceServer(new CarGoKartSportModel(), karts, DELTA_T, SNAPSHOT_EVERY, new InetSocketAddress("127.0.0.1", 0))) {
+            server.setGrid(2500, 2500, 0, 90);
+            final RaceClient[] clients = new RaceClient[karts];
+            for (int i = 0; i < karts; i++) clients[i] = new RaceClient(server.getAddress(), karts);
+            final SplittableRandom random = new SplittableRandom(karts);
+            final double[] phase = new double[karts];
+            for (int i = 0; i < karts; i++) phase[i] = random.nextDouble() * 2 * Math.PI;
+
+            //join, then everybody is on the server before the measuring starts
+            for (RaceClient client : clients) client.sendInput((byte) 0, (byte) 0);
+            server.tick();
+
+            final long[] nanos = new long[TICKS];
+            long snapshotNanos = 0;
+            long allocated = threads.getCurrentThreadAllocatedBytes();
+            for (int tick = 0; tick < TICKS; tick++) {
+                if (tick % INPUT_EVERY == 0) {
+                    for (int i = 0; i < karts; i++) {
+                        if (random.nextDouble() < loss) continue;
+                        //full throttle, steering left and right in long arcs, everybody a bit different
+                        final byte steering = (byte) Math.signum(Math.sin(tick * DELTA_T * (0.3 + 0.02 * i) + phase[i]));
+                        clients[i].sendInput(steering, (byte) 1);
+                    }
+                }
+                final long start = System.nanoTime();
+                server.tick();
+                nanos[tick] = System.nanoTime() - start;
+                if (server.getTick() % SNAPSHOT_EVERY == 0) {
+                    snapshotNanos += nanos[tick];
+                    for (RaceClient client : clients) client.poll();
+                }
+            }
+            allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+            do { // up to the next snapshot, then the clients should have the karts exactly as the server has them, up to the rounding
+                server.tick();
+            } while (server.getTick() % SNAPSHOT_EVERY != 0);
+            for (RaceClient client : clients) client.poll();
+
+            final AckermannState seen = new AckermannState();
+            double worst = 0;
+            long lost = 0;
+            for (RaceClient client : clients) {
+                lost += client.getLost();
+                for (int k = 0; k < karts; k++) {
+                    client.getState(k, seen);
+                    final AckermannState real = server.getCar(k).getState();
+                    worst = Math.max(worst, Math.hypot(seen.getXCoM() - real.getXCoM(), seen.getYCoM() - real.getYCoM()));
+                }
+            }
+            final ByteBuffer full = ByteBuffer.allocate(Protocol.MAX_PACKET);
+            Protocol.writeKarts(full, clients[0].getKarts(), karts, null, 0);
+
+            long down = 0;
+            long up = 0;
+            for (int i = 0; i < karts; i++) {
+                down += server.getBytesSent(i);
+                up += server.getBytesReceived(i);
+            }
+            final double seconds = TICKS * DELTA_T;
+            final long packets = (long) (TICKS / SNAPSHOT_EVERY) * karts + up / Protocol.INPUT_SIZE; // both ways
+            final long[] sorted = nanos.clone();
+            Arrays.sort(sorted);
+            System.out.printf("  %3d karts: tick mean %.1f us, p99 %.1f us, snapshot ticks %.1f us | per client %.2f KB/s down (%.0f B per snapshot, full would be %d B), %.2f KB/s up"
+                            + " | largest position difference %.3f | %d snapshots without base | %.1f B allocated per packet%n",
+                    karts, Arrays.stream(nanos).average().orElse(0) / 1e3, sorted[(int) (TICKS * 0.99)] / 1e3,
+                    snapshotNanos / 1e3 / (TICKS / SNAPSHOT_EVERY),
+                    down / seconds / karts / 1024, (double) down / karts / (TICKS / SNAPSHOT_EVERY), Protocol.SNAPSHOT_HEADER + full.position(),
+                    up / seconds / karts / 1024, worst, lost, (double) allocated / packets);
+            if (worst > Math.hypot(0.5, 0.5) / 16) { // half a position step of the protocol (1/16 world unit) in x and y
+                throw new IllegalStateException("a client sees a kart " + worst + " world units off after the last snapshot");
+            }
+            for (RaceClient client : clients) client.close();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package de.robinfrederik.drunkracing.physics;
+
+import de.robinfrederik.drunkracing.car.CarGoKartSport;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+import de.robinfrederik.drunkracing.physics.ackermann.CarGoKartSportModel;
+import de.robinfrederik.drunkracing.physics.ackermann.KartSleep;
+import de.robinfrederik.drunkracing.physics.ackermann.formulae.SurfaceGripMap;
+import de.robinfrederik.drunkracing.physics.collision.detection.CollisionDetection;
+import de.robinfrederik.drunkracing.physics.collision.map.TrackGrid;
+import de.robinfrederik.drunkracing.physics.collision.map.TrackMapBenchmark;
+import de.robinfrederik.drunkracing.physics.collision.response.CollisionResponse;
+import de.robinfrederik.drunkracing.track.CenterlineExtractor;
+import de.robinfrederik.drunkracing.track.GhostRecorder;
+import de.robinfrederik.drunkracing.track.ProgressField;
+import de.robinfrederik.drunkracing.track.RaceTracker;
+
+import java.util.Arrays;
+
+//step times of a race in a fresh JVM, the first 10 s after GO against the 10 s after that, with and without the warm up
+//the race runs at 1 kHz like the PhysicsLoop (the JIT compiles in the background meanwhile, flat out it would be done before it counts)
+//on the procedural circuit of TrackMapBenchmark (the test maps have no walls, this one has barriers next to the grass)
+//with collision response, grip, lap tracking, ghost recorder and sleeping, the driver is scripted and not the warm up's,
+//both the warm up kart and the race kart end up in the walls, how often is printed
+//run the main method with cold or warm (default warm), every run needs its own JVM,
+//-XX:+PrintCompilation shows when GeneralAckermannModel::updateState and CollisionDetection::sweep get to level 4
+public class PhysicsWarmUpBenchmark {
+    private static final double DELTA_T = 0.001;
+    private static final int SIZE = 2000;           // cells of 2.5 world units, as big as the Racetrack world
+    private static final double CELL = 2.5;
+    private static final int WARM_UP_TICKS = 20000;
+    private static final long COUNTDOWN_NANOS = 3_000_000_000L;
+    private static final int SECONDS = 10;
+
+    public static void main(String[] args) throws InterruptedException {
+        final boolean warm = args.length == 0 || args[0].equals("warm");
+        final TrackGrid map = TrackMapBenchmark.circuit(SIZE, CELL);
+        final double[] startPose = TrackMapBenchmark.circuitStart(SIZE, CELL);
+        final ProgressField progress = new ProgressField(map,
+                new CenterlineExtractor(map, 2).extract(startPose[0], startPose[1], Math.PI / 2, 10), 4);
+        final PhysicsLoop loop = new PhysicsLoop(new CarGoKartSportModel(), DELTA_T);
+        final CollisionDetection collision = new CollisionDetection(map, 150.6 / 2, 60 / 2.0); // the CarVisual sprite
+        final CollisionResponse response = new CollisionResponse(0.3, 0.5);
+        final SurfaceGripMap surface = new SurfaceGripMap(map);
+        final RaceTracker tracker = new RaceTracker(progress, 3, 1, DELTA_T);
+        final GhostRecorder recorder = new GhostRecorder(0.01, 120);
+        final KartSleep sleep = new KartSleep(0.01, 0.001, 100);
+        loop.setCollisionDetection(collision);
+        loop.setCollisionResponse(response);
+        loop.setSurface(surface);
+        loop.setRaceTracker(tracker);
+        loop.setGhostRecorder(recorder);
+        loop.setSleep(sleep);
+
+        final CarGoKartSport car = new CarGoKartSport();
+        final AckermannState state = car.getState();
+        state.setXCoM(startPose[0]);
+        state.setYCoM(startPose[1]);
+        state.setYaw(Math.PI / 2);
+
+        //the countdown, with or without the warm up in it
+        final long countdown = System.nanoTime();
+        if (warm) loop.startWarmUp(car, WARM_UP_TICKS);
+        while (warm && loop.getWarmUpTicks() < WARM_UP_TICKS && System.nanoTime() - countdown < COUNTDOWN_NANOS) Thread.sleep(10);
+        final double warmUpSeconds = (System.nanoTime() - countdown) / 1e9;
+        loop.stopWarmUp();
+        Thread.sleep(Math.max(0, (COUNTDOWN_NANOS - (System.nanoTime() - countdown)) / 1_000_000));
+        if (warm) System.out.printf("warm up: %d steps in %.2f s of the 3 s countdown, %d wall hits%n", loop.getWarmUpTicks(), warmUpSeconds,
+                loop.getWarmUpWallHits());
+        if (warm && loop.getWarmUpWallHits() == 0) throw new IllegalStateException("the warm up kart never touched a wall");
+
+        //the race, steps as the PhysicsLoop does them, paced the same way
+        collision.reset(state);
+        final int ticks = 2 * SECONDS * 1000;
+        final long[] stepNanos = new long[ticks];
+        long next = System.nanoTime();
+        for (int tick = 0; tick < ticks; tick++) {
+            while (System.nanoTime() < next) Thread.sleep(0, 200_000);
+            next += (long) (DELTA_T * 1e9);
+            final long start = System.nanoTime();
+            loop.stepCar(car, steering(tick), accel(tick), surface, sleep);
+            loop.collide(car, collision, response);
+            tracker.track(0, state);
+            tracker.finishTick();
+            recorder.record((tick + 1) * DELTA_T, state);
+            stepNanos[tick] = System.nanoTime() - start;
+        }
+
+        System.out.printf("%s start, %d wall hits in the race, step times in us:%n", warm ? "warm" : "cold", collision.getHits());
+        for (int second = 0; second < 2 * SECONDS; second++) {
+            final long[] times = Arrays.copyOfRange(stepNanos, second * 1000, (second + 1) * 1000);
+            print("second " + (second + 1), times);
+        }
+        print("first " + SECONDS + " s", Arrays.copyOfRange(stepNanos, 0, SECONDS * 1000));
+        print("next " + SECONDS + " s", Arrays.copyOfRange(stepNanos, SECONDS * 1000, ticks));
+    }
+
+    //the race's driver: the steering changes every 0.45 s, on the throttle most of the time, braking every 3 s
+    private static byte steering(int tick) {
+        return (byte) ((tick / 450) % 3 - 1);
+    }
+
+    private static byte accel(int tick) {
+        return tick % 3000 < 2600 ? (byte) 1 : (byte) -1;
+    }
+
+    private static void print(String name, long[] times) {
+        final double mean = Arrays.stream(times).average().orElse(0);
+        double variance = 0;
+        for (long time : times) variance += (time - mean) * (time - mean);
+        final double stdDev = Math.sqrt(variance / times.length);
+        Arrays.sort(times);
+        System.out.printf("%-12s mean %6.2f, std dev %6.2f, p50 %6.2f, p99 %7.2f, max %7.2f%n", name, mean / 1e3, stdDev / 1e3,
+                times[times.length / 2] / 1e3, times[(int) (times.length * 0.99)] / 1e3, times[times.length - 1] / 1e3);
+    }
+}
@@ -0,0 +1,66 @@
+package de.robinfrederik.drunkracing.physics.ackermann;
+
+import de.robinfrederik.drunkracing.car.CarGoKartSport;
+
+import java.lang.management.ManagementFactory;
+
+//ns per save and restore of the StateHistory, and what reset in place saves against the old reset (a new state every time)
+//(a loop of only resets in place gets removed by the JIT, so for that one there are only the bytes)
+//a kart drives in circles and is saved every step, like a netcode client does, then rolled back 20 ticks again and again
+//run the main method
+public class StateHistoryBenchmark {
+    private static final int ROUNDS = 5;
+    private static final int STEPS = 2_000_000;
+
+    public static void main(String[] args) {
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final CarGoKartSport car = new CarGoKartSport(1024);
+        final AckermannModel model = new CarGoKartSportModel();
+        final StateHistory history = car.getHistory();
+        final AckermannState state = car.getState();
+        for (int i = 0; i < 1024; i++) {
+            car.updateState(model, 0.5, 1, 0.001);
+            history.save(i, state);
+        }
+
+        for (int round = 0; round < ROUNDS; round++) { // the first rounds warm up the JIT
+            long allocated = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < STEPS; i++) history.save(i, state);
+            final double save = (System.nanoTime() - start) / (double) STEPS;
+
+            start = System.nanoTime();
+            long found = 0;
+            for (int i = 0; i < STEPS; i++) {
+                if (history.restore(STEPS - 1 - (i % 20), state)) found++;
+            }
+            final double restore = (System.nanoTime() - start) / (double) STEPS;
+            allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+
+            //what the old reset did, a new state every time
+            long before = threads.getCurrentThreadAllocatedBytes();
+            start = System.nanoTime();
+            for (int i = 0; i < STEPS; i++) car.setState(new AckermannState());
+            final double fresh = (System.nanoTime() - start) / (double) STEPS;
+            final long freshBytes = threads.getCurrentThreadAllocatedBytes() - before;
+            car.setState(state);
+
+            before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < STEPS; i++) car.reset();
+            final long inPlaceBytes = threads.getCurrentThreadAllocatedBytes() - before;
+            for (int i = 0; i < 1024; i++) { // the resets emptied the history
+                car.updateState(model, 0.5, 1, 0.001);
+                history.save(i, state);
+            }
+
+            //a step of the model for scale
+            start = System.nanoTime();
+            for (int i = 0; i < STEPS; i++) car.updateState(model, 0.5, 1, 0.001);
+            final double step = (System.nanoTime() - start) / (double) STEPS;
+
+            System.out.printf("save %.1f ns, restore %.1f ns (%d found), %d B allocated for both | new state %.1f ns + %d B, reset in place %d B | model step %.0f ns%n",
+                    save, restore, found, allocated, fresh, freshBytes / STEPS, inPlaceBytes / STEPS, step);
+            if (found != STEPS) throw new IllegalStateException("only " + found + " of " + STEPS + " restores found their tick");
+        }
+    }
+}
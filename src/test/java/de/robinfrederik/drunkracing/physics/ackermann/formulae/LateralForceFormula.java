@@ -1,7 +0,0 @@
-package de.robinfrederik.drunkracing.physics.ackermann.formulae;
-
-import de.robinfrederik.drunkracing.car.Car;
-
-public interface LateralForceFormula {
-    void formula (Car car);
-}
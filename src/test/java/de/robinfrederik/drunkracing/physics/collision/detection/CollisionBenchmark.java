@@ -0,0 +1,121 @@
+package de.robinfrederik.drunkracing.physics.collision.detection;
+
+import de.robinfrederik.drunkracing.car.CarGoKartSport;
+import de.robinfrederik.drunkracing.car.CarVisual;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannModel;
+import de.robinfrederik.drunkracing.physics.ackermann.CarGoKartSportModel;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+import de.robinfrederik.drunkracing.physics.collision.map.TrackGrid;
+import de.robinfrederik.drunkracing.physics.collision.map.TrackMap;
+import de.robinfrederik.drunkracing.physics.collision.response.CollisionResponse;
+
+import java.util.Arrays;
+
+//measures what one swept collision check costs inside a 1 kHz physics step and checks that thin walls can't be skipped
+//run the main method, no window needed
+public class CollisionBenchmark {
+    public static void main(String[] args) {
+        //same scale as the game: 5000 x 5000 world, 2000 x 2000 cells -> 2.5 world units per cell
+        final int cells = 2000;
+        final double world = 5000;
+        TrackGrid grid = ringTrack(cells, world);
+        CollisionDetection detection = new CollisionDetection(grid, CarVisual.SPRITE_LENGTH / 2, CarVisual.SPRITE_WIDTH / 2);
+        System.out.printf("box %.1f x %.1f, %d outline samples%n", CarVisual.SPRITE_LENGTH, CarVisual.SPRITE_WIDTH, detection.getSampleCount());
+
+        //a car driving around the middle of the ring, speed in world units per second (the integration uses 30 per m/s)
+        for (double speed : new double[] {300, 900, 1800}) {
+            AckermannState state = new AckermannState();
+            final double radius = 0.375 * world;
+            final double deltaT = 0.001;
+            final int steps = 200_000;
+            long[] nanos = new long[steps];
+            double angle = 0;
+
+            state.setXCoM(world / 2 + radius);
+            state.setYCoM(world / 2);
+            state.setYaw(Math.PI / 2);
+            detection.reset(state);
+
+            int hits = 0;
+            for (int i = 0; i < steps; i++) {
+                angle += speed * deltaT / radius;
+                state.setXCoM(world / 2 + radius * Math.cos(angle));
+                state.setYCoM(world / 2 + radius * Math.sin(angle));
+                state.setYaw(angle + Math.PI / 2);
+
+                long start = System.nanoTime();
+                if (detection.sweep(state)) hits++;
+                nanos[i] = System.nanoTime() - start;
+            }
+
+            //first half is warm up for the JIT
+            long[] measured = Arrays.copyOfRange(nanos, steps / 2, steps);
+            Arrays.sort(measured);
+            double mean = Arrays.stream(measured).average().orElse(0);
+            System.out.printf("speed %5.0f units/s: mean %6.0f ns, p50 %6d ns, p99 %6d ns, max %7d ns per step, %d hits%n",
+                    speed, mean, measured[measured.length / 2], measured[(int) (measured.length * 0.99)], measured[measured.length - 1], hits);
+        }
+
+        //tunnelling: wall of one cell, car jumps 40 world units (16 cells) in one step
+        TrackGrid thinWall = new TrackGrid(400, 400, 2.5, 2.5);
+        for (int y = 0; y < 400; y++) thinWall.setCell(200, y, TrackMap.WALL);
+        CollisionDetection thinDetection = new CollisionDetection(thinWall, CarVisual.SPRITE_LENGTH / 2, CarVisual.SPRITE_WIDTH / 2);
+        AckermannState state = new AckermannState();
+        state.setXCoM(300);
+        state.setYCoM(500);
+        thinDetection.reset(state);
+        int step = 0;
+        while (step < 100 && !thinDetection.sweep(state)) {
+            state.setXCoM(state.getXCoM() + 40);
+            step++;
+        }
+        CollisionContact contact = thinDetection.getContact();
+        System.out.printf("thin wall: hit=%b after %d steps, car front at %.2f (wall starts at 500.00), normal (%.0f, %.0f)%n",
+                contact.isHit(), step, state.getXCoM() + CarVisual.SPRITE_LENGTH / 2, contact.getNormalX(), contact.getNormalY());
+        if (!contact.isHit()) throw new IllegalStateException("the car went through the thin wall");
+
+        //wall hits with impulse response: full throttle and steering around inside the ring, the car keeps scraping along the walls
+        CarGoKartSport car = new CarGoKartSport();
+        AckermannModel model = new CarGoKartSportModel();
+        CollisionResponse response = new CollisionResponse(0.3, 0.5);
+        car.getState().setXCoM(world / 2 + 0.375 * world);
+        car.getState().setYCoM(world / 2);
+        car.getState().setYaw(Math.PI / 2);
+        detection.reset(car.getState());
+        final int steps = 200_000;
+        long[] hitNanos = new long[steps];
+        int hits = 0;
+        for (int i = 0; i < steps; i++) {
+            car.updateState(model, (i / 3000) % 2 == 0 ? 0.2 : -0.6, 1, 0.001);
+            long start = System.nanoTime();
+            if (detection.sweep(car.getState())) {
+                response.apply(car, detection.getContact());
+                detection.reset(car.getState());
+                hitNanos[hits++] = System.nanoTime() - start;
+            }
+        }
+        long[] measured = Arrays.copyOfRange(hitNanos, hits / 2, hits);
+        Arrays.sort(measured);
+        final boolean inside = !grid.isSolid((int) (car.getState().getXCoM() / grid.getCellWidth()), (int) (car.getState().getYCoM() / grid.getCellHeight()));
+        if (measured.length > 0) {
+            System.out.printf("wall hits with response: %d of %d steps, sweep + impulse p50 %d ns, p99 %d ns, car still inside the ring: %b%n",
+                    hits, steps, measured[measured.length / 2], measured[(int) (measured.length * 0.99)], inside);
+        }
+        if (hits == 0) throw new IllegalStateException("the car never touched the walls of the ring");
+        if (!inside) throw new IllegalStateException("the response let the car out of the ring");
+    }
+
+    //free ring between two walls, everything else is wall
+    private static TrackGrid ringTrack(int cells, double world) {
+        TrackGrid grid = new TrackGrid(cells, cells, world / cells, world / cells);
+        final double center = cells / 2.0;
+        for (int y = 0; y < cells; y++) {
+            for (int x = 0; x < cells; x++) {
+                double distance = Math.hypot(x + 0.5 - center, y + 0.5 - center);
+                boolean onTrack = distance > 0.3 * cells && distance < 0.45 * cells;
+                grid.setCell(x, y, onTrack ? TrackMap.FREE : TrackMap.WALL);
+            }
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,77 @@
+package de.robinfrederik.drunkracing.physics.collision.detection;
+
+import de.robinfrederik.drunkracing.physics.collision.map.DistanceField;
+import de.robinfrederik.drunkracing.physics.collision.map.TrackGrid;
+import de.robinfrederik.drunkracing.physics.collision.map.TrackMap;
+import de.robinfrederik.drunkracing.physics.collision.map.TrackMapBenchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+//rays per second of the RaySensor, plain DDA against DDA + distance field, and a check that both give the same distances
+//1000 karts at random places on the road with 32 rays each, that's one batched call per physics tick
+//on the procedural circuit of TrackMapBenchmark, the test maps have no walls and every ray would run to its full range
+public class RaySensorBenchmark {
+    private static final int KARTS = 1000;
+    private static final int RAYS = 32;
+    private static final int TICKS = 300;
+
+    public static void main(String[] args) {
+        TrackGrid grid = TrackMapBenchmark.circuit(2000, 2.5);
+        long start = System.nanoTime();
+        DistanceField field = DistanceField.fromMap(grid);
+        System.out.printf("map %d x %d cells, distance field built in %.0f ms, %.1f MiB%n", grid.getWidth(), grid.getHeight(),
+                (System.nanoTime() - start) / 1e6, field.getMemoryBytes() / 1048576.0);
+
+        //karts on the asphalt, random heading
+        Random random = new Random(7);
+        final double[] x = new double[KARTS];
+        final double[] y = new double[KARTS];
+        final double[] yaw = new double[KARTS];
+        for (int i = 0; i < KARTS; i++) {
+            do {
+                x[i] = random.nextDouble() * 5000;
+                y[i] = random.nextDouble() * 5000;
+            } while (grid.getCell((int) (x[i] / grid.getCellWidth()), (int) (y[i] / grid.getCellHeight())) != TrackMap.FREE);
+            yaw[i] = random.nextDouble() * 2 * Math.PI;
+        }
+
+        for (double range : new double[] {700, 1500, 3000}) {
+            RaySensor dda = new RaySensor(grid, RAYS, 2 * Math.PI, range);
+            RaySensor sphere = new RaySensor(grid, field, RAYS, 2 * Math.PI, range);
+            final double[] ddaOut = new double[KARTS * RAYS];
+            final double[] sphereOut = new double[KARTS * RAYS];
+
+            final String ddaResult = measure(dda, x, y, yaw, ddaOut);
+            final String sphereResult = measure(sphere, x, y, yaw, sphereOut);
+            double maxDifference = 0;
+            double meanDistance = 0;
+            int hits = 0;
+            for (int i = 0; i < ddaOut.length; i++) {
+                maxDifference = Math.max(maxDifference, Math.abs(ddaOut[i] - sphereOut[i]));
+                meanDistance += ddaOut[i] / ddaOut.length;
+                if (ddaOut[i] < range) hits++;
+            }
+            System.out.printf("range %4.0f (mean hit distance %.0f, %.0f %% of the rays hit a wall)%n  dda:            %s%n  distance field: %s%n  largest difference %.2e world units%n",
+                    range, meanDistance, 100.0 * hits / ddaOut.length, ddaResult, sphereResult, maxDifference);
+            if (maxDifference > 1e-6) throw new IllegalStateException("the distance field rays differ from the dda ones by " + maxDifference);
+            if (hits == 0) throw new IllegalStateException("no ray hit a wall at range " + range);
+        }
+    }
+
+    //one castAll per tick for all karts, the first half of the ticks warms up the JIT
+    private static String measure(RaySensor sensor, double[] x, double[] y, double[] yaw, double[] out) {
+        final long[] nanos = new long[TICKS];
+        for (int tick = 0; tick < TICKS; tick++) {
+            final long start = System.nanoTime();
+            sensor.castAll(x, y, yaw, KARTS, out);
+            nanos[tick] = System.nanoTime() - start;
+        }
+        final long[] measured = Arrays.copyOfRange(nanos, TICKS / 2, TICKS);
+        Arrays.sort(measured);
+        final double mean = Arrays.stream(measured).average().orElse(0);
+        return String.format("%d x %d rays per tick: mean %.2f ms, p99 %.2f ms, %.1f million rays per second, %.0f ns per ray",
+                KARTS, RAYS, mean / 1e6, measured[(int) (measured.length * 0.99)] / 1e6,
+                KARTS * RAYS / mean * 1e3, mean / (KARTS * RAYS));
+    }
+}
@@ -0,0 +1,90 @@
+package de.robinfrederik.drunkracing.physics.collision.detection;
+
+import de.robinfrederik.drunkracing.car.CarVisual;
+
+import java.util.Random;
+
+//broadphase + exact box test for 10 to 10 000 cars, compared with checking every pair
+//cars are spread with the same density for every count (one car per 400 x 400 world units) and wander around a bit every tick
+public class SpatialHashBenchmark {
+    public static void main(String[] args) {
+        final double halfLength = CarVisual.SPRITE_LENGTH / 2;
+        final double halfWidth = CarVisual.SPRITE_WIDTH / 2;
+        final double radius = Math.hypot(halfLength, halfWidth);
+
+        for (int count : new int[] {10, 100, 1000, 10_000}) {
+            Random random = new Random(42);
+            final double side = Math.sqrt(count) * 400;
+            double[] xs = new double[count];
+            double[] ys = new double[count];
+            double[] yaws = new double[count];
+            for (int i = 0; i < count; i++) {
+                xs[i] = random.nextDouble() * side;
+                ys[i] = random.nextDouble() * side;
+                yaws[i] = random.nextDouble() * 2 * Math.PI;
+            }
+
+            SpatialHash hash = new SpatialHash(radius);
+            final int ticks = Math.max(200, 2_000_000 / count);
+            int contacts = 0;
+            long candidates = 0;
+            long start = 0;
+            for (int tick = 0; tick < 2 * ticks; tick++) {
+                if (tick == ticks) { // first half is warm up
+                    start = System.nanoTime();
+                    contacts = 0;
+                    candidates = 0;
+                }
+                for (int i = 0; i < count; i++) {
+                    xs[i] += Math.cos(yaws[i]);
+                    ys[i] += Math.sin(yaws[i]);
+                    yaws[i] += 0.001;
+                }
+                hash.update(xs, ys, count);
+                final int pairs = hash.findPairs();
+                candidates += pairs;
+                for (int p = 0; p < pairs; p++) {
+                    final int a = hash.getPairA(p);
+                    final int b = hash.getPairB(p);
+                    if (BoxOverlap.overlaps(xs[a], ys[a], yaws[a], halfLength, halfWidth,
+                            xs[b], ys[b], yaws[b], halfLength, halfWidth)) contacts++;
+                }
+            }
+            final double hashNanos = (System.nanoTime() - start) / (double) ticks;
+
+            //every pair for comparison (fewer ticks, it gets slow)
+            final int bruteTicks = Math.max(3, 20_000_000 / (count * count));
+            int bruteContacts = 0;
+            start = System.nanoTime();
+            for (int tick = 0; tick < bruteTicks; tick++) {
+                bruteContacts = 0;
+                for (int a = 0; a < count; a++) {
+                    for (int b = a + 1; b < count; b++) {
+                        if (BoxOverlap.overlaps(xs[a], ys[a], yaws[a], halfLength, halfWidth,
+                                xs[b], ys[b], yaws[b], halfLength, halfWidth)) bruteContacts++;
+                    }
+                }
+            }
+            final double bruteNanos = (System.nanoTime() - start) / (double) bruteTicks;
+
+            //check the hash against the brute force on the final positions
+            hash.update(xs, ys, count);
+            int hashContacts = 0;
+            final int pairs = hash.findPairs();
+            for (int p = 0; p < pairs; p++) {
+                final int a = hash.getPairA(p);
+                final int b = hash.getPairB(p);
+                if (BoxOverlap.overlaps(xs[a], ys[a], yaws[a], halfLength, halfWidth,
+                        xs[b], ys[b], yaws[b], halfLength, halfWidth)) hashContacts++;
+            }
+
+            System.out.printf("%6d cars: hash %9.1f us/tick (%6.1f ns/car, %5.1f candidates, %5.1f contacts per tick)"
+                            + " | all pairs %11.1f us/tick | same contacts: %b%n",
+                    count, hashNanos / 1000, hashNanos / count, candidates / (double) ticks, contacts / (double) ticks,
+                    bruteNanos / 1000, hashContacts == bruteContacts);
+            if (hashContacts != bruteContacts) {
+                throw new IllegalStateException(count + " cars: the hash found " + hashContacts + " contacts, all pairs " + bruteContacts);
+            }
+        }
+    }
+}
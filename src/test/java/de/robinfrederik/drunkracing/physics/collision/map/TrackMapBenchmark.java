@@ -0,0 +1,125 @@
+package de.robinfrederik.drunkracing.physics.collision.map;
+
+import java.util.Random;
+
+//compares memory and lookup time of the dense TrackGrid and the RunLengthTrack for growing map sizes
+//run the main method with enough heap for the dense grid (-Xmx3g), sizes the dense grid doesn't fit into are skipped for it
+public class TrackMapBenchmark {
+    private static final int QUERIES = 2_000_000;
+    private static final int BOX = 60;  // cells, about the size of the car box on the 2.5 units per cell map
+
+    public static void main(String[] args) {
+        for (int size : new int[] {2048, 4096, 8192, 16384, 32768}) {
+            RunLengthTrack.RowSource track = track(size);
+
+            long start = System.nanoTime();
+            RunLengthTrack compressed = new RunLengthTrack(size, size, 1, 1, track);
+            double buildMs = (System.nanoTime() - start) / 1e6;
+            System.out.printf("%5d x %-5d  run length: %8.1f MiB, %9d runs, built in %6.0f ms, %s%n",
+                    size, size, compressed.getMemoryBytes() / 1048576.0, compressed.getRunCount(), buildMs, measure(compressed, size));
+
+            TrackGrid dense;
+            try {
+                dense = new TrackGrid(size, size, 1, 1);
+            } catch (OutOfMemoryError e) {
+                System.out.printf("%5d x %-5d  dense:      %8.1f MiB, does not fit into the heap%n", size, size, (double) size * size / 1048576.0);
+                continue;
+            }
+            byte[] row = new byte[size];
+            for (int y = 0; y < size; y++) {
+                track.row(y, row);
+                System.arraycopy(row, 0, dense.getCells(), y * size, size);
+            }
+            System.out.printf("%5d x %-5d  dense:      %8.1f MiB, %s%n",
+                    size, size, dense.getCells().length / 1048576.0, measure(dense, size));
+
+            //both have to give the same answers
+            Random random = new Random(1);
+            for (int i = 0; i < 100_000; i++) {
+                int x = random.nextInt(size);
+                int y = random.nextInt(size);
+                if (dense.getCell(x, y) != compressed.getCell(x, y)) {
+                    throw new IllegalStateException("maps differ at " + x + ", " + y);
+                }
+                if (x + BOX < size && y + BOX < size
+                        && dense.isAreaSolid(x, y, x + BOX, y + BOX) != compressed.isAreaSolid(x, y, x + BOX, y + BOX)) {
+                    throw new IllegalStateException("box queries differ at " + x + ", " + y);
+                }
+            }
+        }
+    }
+
+    //point and box lookups at random places, the first round warms up the JIT
+    private static String measure(TrackMap map, int size) {
+        Random random = new Random(42);
+        int[] xs = new int[QUERIES];
+        int[] ys = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            xs[i] = random.nextInt(size - BOX);
+            ys[i] = random.nextInt(size - BOX);
+        }
+
+        long sink = 0;
+        double pointNs = 0;
+        double boxNs = 0;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                sink += map.getCell(xs[i], ys[i]);
+            }
+            pointNs = (System.nanoTime() - start) / (double) QUERIES;
+
+            start = System.nanoTime();
+            for (int i = 0; i < QUERIES / 10; i++) {
+                if (map.isAreaSolid(xs[i], ys[i], xs[i] + BOX, ys[i] + BOX)) sink++;
+            }
+            boxNs = (System.nanoTime() - start) / (QUERIES / 10.0);
+        }
+        return String.format("point %5.1f ns, %dx%d box %7.1f ns (%d)", pointNs, BOX + 1, BOX + 1, boxNs, sink % 10);
+    }
+
+    //the procedural circuit as a dense grid of cellSize world units per cell, for benchmarks that need walls (the test maps have none)
+    //it drives counterclockwise on screen, a kart at circuitStart(size, cellSize) with yaw pi/2 is in the middle of the road
+    public static TrackGrid circuit(int size, double cellSize) {
+        final TrackGrid grid = new TrackGrid(size, size, cellSize, cellSize);
+        final RunLengthTrack.RowSource track = track(size);
+        final byte[] row = new byte[size];
+        for (int y = 0; y < size; y++) {
+            track.row(y, row);
+            System.arraycopy(row, 0, grid.getCells(), y * size, size);
+        }
+        return grid;
+    }
+
+    //world x and y of a point in the middle of the road of the circuit
+    public static double[] circuitStart(int size, double cellSize) {
+        return new double[] {(size / 2.0 + 0.35 * size) * cellSize, size / 2.0 * cellSize};
+    }
+
+    //procedural circuit that scales with the map: a wavy ring of asphalt with kerbs on both sides,
+    //gravel outside the corners and grass everywhere else, walls around the whole thing
+    private static RunLengthTrack.RowSource track(int size) {
+        final double center = size / 2.0;
+        final double radius = 0.35 * size;
+        final double halfTrack = 0.04 * size;
+        final double kerb = 0.004 * size;
+        return (cellY, cells) -> {
+            for (int x = 0; x < cells.length; x++) {
+                final double dx = x + 0.5 - center;
+                final double dy = cellY + 0.5 - center;
+                final double angle = Math.atan2(dy, dx);
+                final double offset = Math.hypot(dx, dy) - radius * (1 + 0.15 * Math.sin(3 * angle));
+                final double distance = Math.abs(offset);
+
+                byte cell;
+                if (x < 8 || cellY < 8 || x >= size - 8 || cellY >= size - 8) cell = TrackMap.WALL;
+                else if (distance < halfTrack) cell = TrackMap.FREE;
+                else if (distance < halfTrack + kerb) cell = TrackMap.KERB;
+                else if (offset > 0 && distance < 2 * halfTrack && Math.cos(3 * angle) > 0.5) cell = TrackMap.GRAVEL;
+                else if (distance > 3 * halfTrack && distance < 3 * halfTrack + kerb) cell = TrackMap.WALL; // barrier
+                else cell = TrackMap.GRASS;
+                cells[x] = cell;
+            }
+        };
+    }
+}
@@ -0,0 +1,141 @@
+package de.robinfrederik.drunkracing.render;
+
+import de.robinfrederik.drunkracing.car.CarGoKartSport;
+import de.robinfrederik.drunkracing.car.CarVisual;
+import de.robinfrederik.drunkracing.physics.PoseBuffer;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannModel;
+import de.robinfrederik.drunkracing.physics.ackermann.AckermannState;
+import de.robinfrederik.drunkracing.physics.ackermann.CarGoKartSportModel;
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Group;
+import javafx.scene.Scene;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+
+//benchmark scene: lots of karts driving around with the real physics, drawn either by the KartBatchRenderer
+//or the old way with one rotated ImageView node per kart, N switches between the two
+//fps and frame time percentiles get printed every 5 seconds, start with the number of karts as argument (default 1000)
+public class KartFieldBenchmark extends Application {
+    private static final double WORLD = 5000;
+    private static final double SCREEN_WIDTH = 1280;
+    private static final double SCREEN_HEIGHT = 720;
+
+    private volatile boolean running = true;
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage stage) {
+        final int karts = getParameters().getRaw().isEmpty() ? 1000 : Integer.parseInt(getParameters().getRaw().get(0));
+        final PoseBuffer poses = new PoseBuffer(karts);
+        final double zoom = SCREEN_HEIGHT / WORLD; // whole world on screen, so no kart gets culled
+
+        //physics thread, every kart drives its own circle with the go-kart model at 1 kHz
+        Thread physics = new Thread(() -> {
+            CarGoKartSport[] cars = new CarGoKartSport[karts];
+            byte[] steering = new byte[karts];
+            AckermannModel model = new CarGoKartSportModel();
+            for (int i = 0; i < karts; i++) {
+                cars[i] = new CarGoKartSport();
+                AckermannState state = cars[i].getState();
+                state.setXCoM(WORLD * (0.05 + 0.9 * ((i * 37) % 97) / 97.0));
+                state.setYCoM(WORLD * (0.05 + 0.9 * ((i * 53) % 89) / 89.0));
+                state.setYaw(i * 0.7);
+                steering[i] = (byte) (i % 2 == 0 ? 1 : -1);
+            }
+            final double deltaT = 0.001;
+            long lastTime = System.nanoTime();
+            while (running) {
+                long now = System.nanoTime();
+                if (now - lastTime > 10_000_000) lastTime = now - 1_000_000; // more than 10 steps behind: skip, this benchmark is about drawing
+                while (now - lastTime >= 1_000_000) {
+                    for (int i = 0; i < karts; i++) {
+                        cars[i].updateState(model, steering[i], 1, deltaT);
+                    }
+                    lastTime += 1_000_000;
+                }
+                for (int i = 0; i < karts; i++) {
+                    AckermannState state = cars[i].getState();
+                    poses.set(i, wrap(state.getXCoM()), wrap(state.getYCoM()), state.getYaw());
+                }
+                poses.publish(karts);
+                try {
+                    Thread.sleep(0, 200_000);
+                } catch (InterruptedException ignored) {}
+            }
+        }, "benchmark physics");
+        physics.setDaemon(true);
+        physics.start();
+
+        //the two ways of drawing
+        KartBatchRenderer batch = new KartBatchRenderer(SCREEN_WIDTH, SCREEN_HEIGHT);
+        Image sprite = new Image(getClass().getResource("/images/car.png").toExternalForm());
+        Group nodes = new Group();
+        ImageView[] views = new ImageView[karts];
+        for (int i = 0; i < karts; i++) {
+            views[i] = new ImageView(sprite);
+            views[i].setFitWidth(CarVisual.SPRITE_LENGTH * zoom);
+            views[i].setFitHeight(CarVisual.SPRITE_WIDTH * zoom);
+            nodes.getChildren().add(views[i]);
+        }
+        nodes.setVisible(false);
+
+        Pane root = new Pane(batch, nodes);
+        Scene scene = new Scene(root, SCREEN_WIDTH, SCREEN_HEIGHT);
+        root.setStyle("-fx-background-color: #303030;");
+        final boolean[] useNodes = {false};
+        scene.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.N) {
+                useNodes[0] = !useNodes[0];
+                batch.setVisible(!useNodes[0]);
+                nodes.setVisible(useNodes[0]);
+            }
+        });
+
+        FrameStats frameStats = new FrameStats(600);
+        new AnimationTimer() {
+            long lastPrint = System.nanoTime();
+
+            @Override
+            public void handle(long now) {
+                frameStats.frame(now);
+                poses.acquire();
+                if (useNodes[0]) {
+                    for (int i = 0; i < poses.getCount(); i++) {
+                        views[i].setTranslateX(poses.getX(i) * zoom - CarVisual.SPRITE_LENGTH * zoom / 2);
+                        views[i].setTranslateY(poses.getY(i) * zoom - CarVisual.SPRITE_WIDTH * zoom / 2);
+                        views[i].setRotate(Math.toDegrees(poses.getYaw(i)));
+                    }
+                } else {
+                    batch.render(poses, WORLD / 2, WORLD / 2, zoom);
+                }
+                if (now - lastPrint > 5_000_000_000L) {
+                    System.out.printf("%d karts, %s: %.1f fps, frame time p50 %.2f ms, p99 %.2f ms%n", karts,
+                            useNodes[0] ? "one ImageView per kart" : "canvas batch", frameStats.getFps(),
+                            frameStats.getPercentileMillis(0.5), frameStats.getPercentileMillis(0.99));
+                    lastPrint = now;
+                }
+            }
+        }.start();
+
+        stage.setScene(scene);
+        stage.setTitle("Kart field benchmark - N switches the renderer");
+        stage.setOnCloseRequest(e -> {
+            running = false;
+            Platform.exit();
+        });
+        stage.show();
+    }
+
+    //karts that drive off the world come back on the other side
+    private static double wrap(double value) {
+        return value - WORLD * Math.floor(value / WORLD);
+    }
+}
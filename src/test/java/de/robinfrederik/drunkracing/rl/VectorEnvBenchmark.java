@@ -0,0 +1,73 @@
+package de.robinfrederik.drunkracing.rl;
+
+import de.robinfrederik.drunkracing.ai.AiFieldBenchmark;
+import de.robinfrederik.drunkracing.ai.RacingLine;
+
+//env steps per minute of the VectorEnv with 1 thread and with all cores, and a check that the same seed gives the same result
+//no matter how many threads step it
+//the actions come from a simple hand written policy that reads the observations, so the episodes look like real ones
+//run the main method, seconds per measurement can be given as argument (default 10)
+public class VectorEnvBenchmark {
+    private static final int ENVS = 256;
+
+    public static void main(String[] args) {
+        final int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        final RacingLine line = AiFieldBenchmark.testLine();
+        final int cores = Runtime.getRuntime().availableProcessors();
+
+        //same seed, different number of threads, has to end in exactly the same numbers
+        final long single = checksum(line, 1);
+        final long multi = checksum(line, 4);
+        final long again = checksum(line, 1);
+        System.out.printf("checksum after 2000 steps: 1 thread %x, 4 threads %x, 1 thread again %x -> %s%n",
+                single, multi, again, single == multi && single == again ? "deterministic" : "NOT deterministic");
+        if (single != multi || single != again) throw new IllegalStateException("the environments are not deterministic");
+
+        for (int threads : cores > 1 ? new int[] {1, cores} : new int[] {1}) {
+            try (VectorEnv env = new VectorEnv(ENVS, line, null, 4, 800, 90, 1, threads)) {
+                env.reset();
+                for (int i = 0; i < 2000; i++) step(env); // warm up the JIT
+
+                long envSteps = 0;
+                long episodes = 0;
+                double rewardSum = 0;
+                final long start = System.nanoTime();
+                while (System.nanoTime() - start < seconds * 1_000_000_000L) {
+                    step(env);
+                    envSteps += ENVS;
+                    for (int i = 0; i < ENVS; i++) {
+                        rewardSum += env.getRewards()[i];
+                        if (env.getDones()[i]) episodes++;
+                    }
+                }
+                final double elapsed = (System.nanoTime() - start) / 1e9;
+                System.out.printf("%d envs, %d thread(s) on %d core(s), %d ticks per step: %.1f million env steps per minute, "
+                                + "%.1f million physics ticks per second, %d episodes, mean reward per step %.3f%n",
+                        ENVS, threads, cores, env.getActionRepeat(), envSteps / elapsed * 60 / 1e6,
+                        envSteps * env.getActionRepeat() / elapsed / 1e6, episodes, rewardSum / envSteps);
+            }
+        }
+    }
+
+    private static long checksum(RacingLine line, int threads) {
+        try (VectorEnv env = new VectorEnv(ENVS, line, null, 4, 800, 90, 42, threads)) {
+            env.reset();
+            for (int i = 0; i < 2000; i++) step(env);
+            long checksum = 0;
+            for (double value : env.getObservations()) checksum = checksum * 31 + Double.doubleToLongBits(value);
+            return checksum;
+        }
+    }
+
+    //steer back to the line and drive the speed the line allows
+    private static void step(VectorEnv env) {
+        final double[] observations = env.getObservations();
+        final double[] actions = env.getActions();
+        for (int i = 0; i < env.getEnvCount(); i++) {
+            final int base = i * VectorEnv.OBS_SIZE;
+            actions[i * VectorEnv.ACTION_SIZE] = 2 * observations[base + 3] + observations[base + 4];     // a positive input turns towards -yaw
+            actions[i * VectorEnv.ACTION_SIZE + 1] = 10 * (observations[base + 5] - observations[base]);
+        }
+        env.step();
+    }
+}
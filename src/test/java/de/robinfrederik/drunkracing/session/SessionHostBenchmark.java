@@ -0,0 +1,111 @@
+package de.robinfrederik.drunkracing.session;
+
+import de.robinfrederik.drunkracing.ai.AiField;
+import de.robinfrederik.drunkracing.ai.AiFieldBenchmark;
+import de.robinfrederik.drunkracing.ai.RacingLine;
+import de.robinfrederik.drunkracing.physics.ackermann.CarGoKartSportModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//how many 1 kHz races of KARTS AI karts one process keeps in time, with a worker per core
+//doubles the races until the host doesn't keep up any more (less than 99% of the ticks done in time or ticks given up on),
+//then prints what a race costs and what is left over for the host
+//late ticks (started more than a tick after they were due) are printed too, with few races they are the OS waking the host late
+//also checks that sleeping races cost nothing: the same host with 10000 sleeping ones next to the running ones
+//run the main method, the seconds per step can be given as argument (default 3)
+public class SessionHostBenchmark {
+    private static final double DELTA_T = 0.001;
+    private static final int KARTS = 8;
+    private static final double MIN_RATE = 0.99;
+
+    public static void main(String[] args) throws InterruptedException {
+        final int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        final int cores = Runtime.getRuntime().availableProcessors();
+        final RacingLine line = AiFieldBenchmark.testLine();
+        System.out.printf("%d cores, %d workers, races of %d karts at %.0f Hz%n", cores, cores, KARTS, 1 / DELTA_T);
+
+        //warm up the JIT on one race
+        final AiField warm = race(line);
+        for (int i = 0; i < 20000; i++) {
+            warm.step(DELTA_T);
+            warm.publish();
+        }
+
+        int fit = 0;
+        double raceNanos = 0;
+        for (int races = 1; ; races *= 2) {
+            final Result result = run(line, cores, races, 0, seconds);
+            System.out.printf("%5d races: %5.1f%% of the ticks, %5.2f%% late, %d skipped, %6.1f us per race tick, host %5.2f us per tick, %5.1f%% of %d cores busy%n",
+                    races, 100 * result.rate, 100 * result.late, result.skipped, result.raceNanos / 1e3, result.hostNanos / 1e3,
+                    100 * result.raceNanos * races / (DELTA_T * 1e9 * cores), cores);
+            if (result.rate < MIN_RATE || result.skipped > 0) break;
+            fit = races;
+            raceNanos = result.raceNanos;
+        }
+        System.out.printf("%d races in time here, a race takes %.1f us of a core per 1 ms tick, so 8 cores would fit about %.0f%n",
+                fit, raceNanos / 1e3, 8 * DELTA_T * 1e9 / raceNanos);
+
+        //the same number of running races once more, with 10000 sleeping ones in the host
+        final int running = Math.max(1, fit / 2);
+        final Result alone = run(line, cores, running, 0, seconds);
+        final Result sleeping = run(line, cores, running, 10000, seconds);
+        System.out.printf("%d races alone: host %.2f us per tick, %.1f us per race tick; with 10000 sleeping: host %.2f us per tick, %.1f us per race tick%n",
+                running, alone.hostNanos / 1e3, alone.raceNanos / 1e3, sleeping.hostNanos / 1e3, sleeping.raceNanos / 1e3);
+    }
+
+    private static AiField race(RacingLine line) {
+        final AiField field = new AiField(new CarGoKartSportModel(), line, KARTS);
+        field.place(0, 90);
+        return field;
+    }
+
+    private static Result run(RacingLine line, int workers, int races, int sleepers, int seconds) throws InterruptedException {
+        final List<HostedSession> hosted = new ArrayList<>();
+        final SessionHost host = new SessionHost(workers, DELTA_T);
+        for (int i = 0; i < races; i++) {
+            final AiField field = race(line);
+            hosted.add(host.add(() -> {
+                field.step(DELTA_T);
+                field.publish();
+                return true;
+            }, 1));
+        }
+        for (int i = 0; i < sleepers; i++) host.add(() -> false, 1);
+        host.start();
+        Thread.sleep(500); // the sleepers had their one tick, the JIT has seen the host
+        final long ticksBefore = host.getTick();
+        final long start = System.nanoTime();
+        final long lateBefore = host.getLateTicks();
+        final long hostBefore = host.getHostNanos();
+        long raceBefore = 0;
+        for (HostedSession session : hosted) raceBefore += session.getNanos();
+        final long raceTicksBefore = hosted.stream().mapToLong(HostedSession::getTicks).sum();
+        Thread.sleep(seconds * 1000L);
+        host.close();
+
+        final long ticks = host.getTick() - ticksBefore;
+        final double rate = ticks * DELTA_T * 1e9 / (System.nanoTime() - start);
+        long raceAfter = 0;
+        for (HostedSession session : hosted) raceAfter += session.getNanos();
+        final long raceTicks = hosted.stream().mapToLong(HostedSession::getTicks).sum() - raceTicksBefore;
+        return new Result(rate, (host.getLateTicks() - lateBefore) / (double) ticks, host.getSkippedTicks(),
+                (raceAfter - raceBefore) / (double) raceTicks, (host.getHostNanos() - hostBefore) / (double) ticks);
+    }
+
+    private static class Result {
+        final double rate;          // ticks done per tick of wall time
+        final double late;          // share of the ticks
+        final long skipped;
+        final double raceNanos;     // per race and tick
+        final double hostNanos;     // per tick
+
+        Result(double rate, double late, long skipped, double raceNanos, double hostNanos) {
+            this.rate = rate;
+            this.late = late;
+            this.skipped = skipped;
+            this.raceNanos = raceNanos;
+            this.hostNanos = hostNanos;
+        }
+    }
+}